@@ -0,0 +1,90 @@
+package org.example.mytestprojectmvc.entity;
+
+import org.example.mytestprojectmvc.entity.DTO.EmployeeDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Маппинг DTO <-> Employee (MapStruct) и equals/hashCode сущности,
+ * которые работают при каждой сверке локальных и удаленных сотрудников
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmployeeMappingBenchmark {
+
+    private final EmployeeMapper mapper = EmployeeMapper.INSTANCE;
+
+    private EmployeeDTO dto;
+    private Employee employee;
+    private Employee sameEmployee;
+    private Employee otherEmployee;
+
+    @Setup
+    public void setUp() {
+        dto = new EmployeeDTO();
+        dto.setPersonalCode("EMP-1700000000-AB12");
+        dto.setFirstName("Иван");
+        dto.setLastName("Петров");
+        dto.setDepartment("Разработка");
+        dto.setAge(34);
+        dto.setPost("Ведущий инженер");
+
+        employee = employee("Петров");
+        sameEmployee = employee("Петров");
+        otherEmployee = employee("Сидоров");
+    }
+
+    @Benchmark
+    public Employee toEntity() {
+        return mapper.toEntity(dto);
+    }
+
+    @Benchmark
+    public EmployeeDTO toDTO() {
+        return mapper.toDTO(employee);
+    }
+
+    @Benchmark
+    public boolean equalsSame() {
+        return employee.equals(sameEmployee);
+    }
+
+    @Benchmark
+    public boolean equalsDifferent() {
+        return employee.equals(otherEmployee);
+    }
+
+    @Benchmark
+    public int hashCodeEmployee() {
+        return employee.hashCode();
+    }
+
+    private static Employee employee(String lastName) {
+        return Employee.builder()
+                .id(42L)
+                .personalCode("EMP-1700000000-AB12")
+                .firstName("Иван")
+                .lastName(lastName)
+                .department("Разработка")
+                .age(34)
+                .post("Ведущий инженер")
+                .qrCodeData("PERSONAL_CODE:EMP-1700000000-AB12|NAME:Иван " + lastName)
+                .createdAt(LocalDateTime.of(2024, 3, 1, 9, 30))
+                .build();
+    }
+}
@@ -0,0 +1,92 @@
+package org.example.mytestprojectmvc.kafka.producer;
+
+import org.example.mytestprojectmvc.entity.Employee;
+import org.example.mytestprojectmvc.kafka.producer.EmployeeKafkaProducer.EmployeeEvent;
+import org.example.mytestprojectmvc.kafka.producer.EmployeeKafkaProducer.EmployeeKafkaDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Подготовка события для Kafka: EmployeeKafkaDto.fromEntity и сериализация события
+ * тем же JsonSerializer, что настроен в KafkaConfig (base64 QR - основная часть сообщения)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmployeeEventSerializationBenchmark {
+
+    private static final String TOPIC = "employee-sync-topic";
+
+    private Employee employee;
+    private EmployeeEvent event;
+    private JsonSerializer<EmployeeEvent> serializer;
+
+    @Setup
+    public void setUp() {
+        employee = Employee.builder()
+                .id(42L)
+                .personalCode("EMP-1700000000-AB12")
+                .firstName("Иван")
+                .lastName("Петров")
+                .department("Разработка")
+                .age(34)
+                .post("Ведущий инженер")
+                .qrCodeBase64(Base64.getEncoder().encodeToString(new byte[1100]))
+                .createdAt(LocalDateTime.of(2024, 3, 1, 9, 30))
+                .updatedAt(LocalDateTime.of(2024, 3, 2, 10, 0))
+                .build();
+        event = event(EmployeeKafkaDto.fromEntity(employee));
+
+        serializer = new JsonSerializer<>();
+        serializer.configure(Map.of(JsonSerializer.ADD_TYPE_INFO_HEADERS, false), false);
+    }
+
+    @TearDown
+    public void tearDown() {
+        serializer.close();
+    }
+
+    @Benchmark
+    public EmployeeKafkaDto fromEntity() {
+        return EmployeeKafkaDto.fromEntity(employee);
+    }
+
+    @Benchmark
+    public byte[] serializeEvent() {
+        return serializer.serialize(TOPIC, event);
+    }
+
+    @Benchmark
+    public byte[] fromEntityAndSerialize() {
+        return serializer.serialize(TOPIC, event(EmployeeKafkaDto.fromEntity(employee)));
+    }
+
+    private static EmployeeEvent event(EmployeeKafkaDto dto) {
+        return EmployeeEvent.builder()
+                .eventId(UUID.randomUUID().toString())
+                .eventType("EMPLOYEE_CREATED")
+                .timestamp(LocalDateTime.now())
+                .employee(dto)
+                .sourceService("employee-mvc-service")
+                .build();
+    }
+}
@@ -0,0 +1,146 @@
+package org.example.mytestprojectmvc.kafka.producer;
+
+import org.apache.kafka.common.record.CompressionType;
+import org.apache.kafka.common.record.MemoryRecords;
+import org.apache.kafka.common.record.MemoryRecordsBuilder;
+import org.apache.kafka.common.record.Record;
+import org.apache.kafka.common.record.RecordBatch;
+import org.apache.kafka.common.record.TimestampType;
+import org.example.mytestprojectmvc.kafka.producer.EmployeeKafkaProducer.EmployeeEvent;
+import org.example.mytestprojectmvc.kafka.producer.EmployeeKafkaProducer.EmployeeKafkaDto;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сборка пачки продюсера (тот же MemoryRecordsBuilder, что в RecordAccumulator) из событий сотрудников
+ * для профилей из app.kafka.producer.profiles:
+ *   low-latency     - lz4, batch 16384 (при linger 0 под малой нагрузкой пачки еще и неполные)
+ *   high-throughput - zstd, batch 262144
+ *   durable         - lz4, batch 16384
+ *
+ * Вспомогательные счетчики: records - записей в секунду, wireBytes - байт пачек в секунду
+ * (то, что уходит в сеть); wireBytes / records - байт на запись.
+ *
+ *   mvn -Pjmh test-compile exec:exec -Djmh.args="ProducerBatchBenchmark -f 1 -wi 3 -i 5"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProducerBatchBenchmark {
+
+    private static final String TOPIC = "employee-bulk-sync";
+    private static final int DISTINCT_EVENTS = 1024;
+
+    @Param({"none", "lz4", "zstd", "gzip"})
+    public String compression;
+
+    @Param({"16384", "262144"})
+    public int batchSize;
+
+    private CompressionType compressionType;
+    private byte[][] keys;
+    private byte[][] values;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        compressionType = CompressionType.forName(compression);
+
+        JsonSerializer<EmployeeEvent> serializer = new JsonSerializer<>();
+        serializer.configure(Map.of(JsonSerializer.ADD_TYPE_INFO_HEADERS, false), false);
+        Random random = new Random(42);
+        keys = new byte[DISTINCT_EVENTS][];
+        values = new byte[DISTINCT_EVENTS][];
+        for (int i = 0; i < DISTINCT_EVENTS; i++) {
+            EmployeeEvent event = event(i, "Отдел " + (i % 12), random);
+            // Ключ записи - personal code, как в EmployeeKafkaProducer
+            keys[i] = event.getEmployee().getPersonalCode().getBytes(StandardCharsets.UTF_8);
+            values[i] = serializer.serialize(TOPIC, event);
+        }
+        serializer.close();
+    }
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class WireStats {
+        public long records;
+        public long wireBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            records = 0;
+            wireBytes = 0;
+        }
+    }
+
+    /**
+     * Одна заполненная пачка: добавляем записи, пока сборщик говорит, что место есть
+     */
+    @Benchmark
+    public MemoryRecords buildBatch(WireStats stats) {
+        MemoryRecordsBuilder builder = MemoryRecords.builder(ByteBuffer.allocate(batchSize),
+                RecordBatch.CURRENT_MAGIC_VALUE, compressionType, TimestampType.CREATE_TIME, 0L);
+        long timestamp = System.currentTimeMillis();
+        do {
+            int i = next++ & (DISTINCT_EVENTS - 1);
+            builder.append(timestamp, keys[i], values[i]);
+        } while (builder.hasRoomFor(timestamp, keys[next & (DISTINCT_EVENTS - 1)],
+                values[next & (DISTINCT_EVENTS - 1)], Record.EMPTY_HEADERS));
+
+        MemoryRecords records = builder.build();
+        stats.records += builder.numRecords();
+        stats.wireBytes += records.sizeInBytes();
+        return records;
+    }
+
+    /**
+     * Событие как в EmployeeKafkaProducer; base64 QR из случайных байт - PNG уже сжат и почти не жмется
+     */
+    private static EmployeeEvent event(int i, String department, Random random) {
+        byte[] qr = new byte[1100];
+        random.nextBytes(qr);
+        EmployeeKafkaDto dto = EmployeeKafkaDto.builder()
+                .id(1000L + i)
+                .personalCode("EMP-" + (1700000000 + i) + "-" + Integer.toHexString(random.nextInt(0x10000)).toUpperCase())
+                .firstName("Иван" + i)
+                .lastName("Петров" + i)
+                .age(20 + i % 40)
+                .department(department)
+                .post(i % 3 == 0 ? "Ведущий инженер" : "Разработчик")
+                .qrCodeBase64(Base64.getEncoder().encodeToString(qr))
+                .createdAt(LocalDateTime.of(2024, 3, 1, 9, 30).plusMinutes(i))
+                .updatedAt(LocalDateTime.of(2024, 3, 2, 10, 0).plusMinutes(i))
+                .build();
+        return EmployeeEvent.builder()
+                .eventId(UUID.randomUUID().toString())
+                .eventType("EMPLOYEE_BULK_SYNC")
+                .timestamp(LocalDateTime.now())
+                .employee(dto)
+                .sourceService("employee-mvc-service")
+                .build();
+    }
+}
@@ -0,0 +1,45 @@
+package org.example.mytestprojectmvc.scheduler;
+
+import org.example.mytestprojectmvc.entity.Employee;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ключ сопоставления сотрудников при синхронизации с удаленным API (строится для каждой записи обеих сторон)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmployeeKeyBenchmark {
+
+    private Employee employee;
+
+    @Setup
+    public void setUp() {
+        employee = Employee.builder()
+                .firstName("Иван")
+                .lastName("Петров")
+                .department("Разработка")
+                .age(34)
+                .post("Ведущий инженер")
+                .build();
+    }
+
+    @Benchmark
+    public String createEmployeeKey() {
+        return EmployeeSyncScheduler.createEmployeeKey(employee);
+    }
+}
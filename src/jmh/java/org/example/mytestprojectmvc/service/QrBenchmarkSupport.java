@@ -0,0 +1,54 @@
+package org.example.mytestprojectmvc.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.mytestprojectmvc.cache.EmployeeCaches;
+import org.example.mytestprojectmvc.cache.SharedCacheManager;
+import org.example.mytestprojectmvc.cache.SharedCacheStore;
+import org.example.mytestprojectmvc.entity.Employee;
+import org.example.mytestprojectmvc.storage.DatabaseQrImageStore;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Генератор QR с настройками из application.yaml, но без Spring-контекста и Redis
+ * (кэш изображений - только в памяти процесса)
+ */
+public final class QrBenchmarkSupport {
+
+    private QrBenchmarkSupport() {
+    }
+
+    public static EmployeeQrCodeGenerator generator() {
+        SharedCacheManager cacheManager = new SharedCacheManager(
+                new StaticListableBeanFactory().getBeanProvider(SharedCacheStore.class),
+                new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        ReflectionTestUtils.setField(cacheManager, "keyPrefix", "bench:");
+        EmployeeCaches caches = new EmployeeCaches(cacheManager,
+                10_000, Duration.ofMinutes(30), 2_000, Duration.ofHours(24), 1_000, Duration.ofMinutes(5));
+
+        EmployeeQrCodeGenerator generator = new EmployeeQrCodeGenerator(caches, new DatabaseQrImageStore(), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(generator, "width", 250);
+        ReflectionTestUtils.setField(generator, "height", 250);
+        ReflectionTestUtils.setField(generator, "storageFormat", "PNG");
+        ReflectionTestUtils.setField(generator, "maxSize", 2048);
+        ReflectionTestUtils.setField(generator, "payloadTimestamp", "created-at");
+        return generator;
+    }
+
+    public static Employee employee() {
+        return Employee.builder()
+                .id(42L)
+                .personalCode("EMP-1700000000-AB12")
+                .firstName("Иван")
+                .lastName("Петров")
+                .department("Разработка")
+                .age(34)
+                .post("Ведущий инженер")
+                .createdAt(LocalDateTime.of(2024, 3, 1, 9, 30))
+                .build();
+    }
+}
@@ -0,0 +1,49 @@
+package org.example.mytestprojectmvc.service;
+
+import org.example.mytestprojectmvc.entity.Employee;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * generateQrCodeBase64ForEmployee: повторный вызов для того же сотрудника (данные QR
+ * детерминированы - попадание в кэш) и для каждый раз нового personal code (промах, рендер)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QrCodeBase64Benchmark {
+
+    private EmployeeQrCodeGenerator generator;
+    private Employee employee;
+    private long sequence;
+
+    @Setup
+    public void setUp() {
+        generator = QrBenchmarkSupport.generator();
+        employee = QrBenchmarkSupport.employee();
+    }
+
+    @Benchmark
+    public String base64CacheHit() throws Exception {
+        return generator.generateQrCodeBase64ForEmployee(employee);
+    }
+
+    @Benchmark
+    public String base64CacheMiss() throws Exception {
+        employee.setPersonalCode("EMP-1700000000-" + Long.toHexString(sequence++));
+        return generator.generateQrCodeBase64ForEmployee(employee);
+    }
+}
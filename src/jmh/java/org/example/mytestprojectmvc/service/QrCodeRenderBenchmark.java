@@ -0,0 +1,51 @@
+package org.example.mytestprojectmvc.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Отрисовка QR-кода без кэша (то, что происходит при промахе qr-png):
+ * PNG 250 - ZXing, остальные размеры PNG - Batik из SVG, SVG - напрямую из матрицы
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QrCodeRenderBenchmark {
+
+    private static final String PAYLOAD = "PERSONAL_CODE:EMP-1700000000-AB12|NAME:Иван Петров|DEPT:Разработка"
+            + "|AGE:34|POST:Ведущий инженер|TIMESTAMP:1709285400";
+
+    @Param({"PNG", "SVG"})
+    private String format;
+
+    @Param({"250", "600", "1200"})
+    private int size;
+
+    private EmployeeQrCodeGenerator generator;
+    private QrImageFormat imageFormat;
+
+    @Setup
+    public void setUp() {
+        generator = QrBenchmarkSupport.generator();
+        imageFormat = QrImageFormat.of(format);
+    }
+
+    @Benchmark
+    public byte[] render() {
+        return generator.render(PAYLOAD, imageFormat, size);
+    }
+}
@@ -0,0 +1,74 @@
+package org.example.mytestprojectmvc.service;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.imageio.ImageIO;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Цена уровня коррекции ошибок: генератор использует H, здесь тот же путь ZXing -> PNG
+ * со всеми уровнями (чем выше уровень, тем больше модулей в матрице)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QrErrorCorrectionBenchmark {
+
+    private static final String PAYLOAD = "PERSONAL_CODE:EMP-1700000000-AB12|NAME:Иван Петров|DEPT:Разработка"
+            + "|AGE:34|POST:Ведущий инженер|TIMESTAMP:1709285400";
+
+    @Param({"L", "M", "Q", "H"})
+    private String errorCorrection;
+
+    @Param({"250", "600"})
+    private int size;
+
+    private final QRCodeWriter writer = new QRCodeWriter();
+    private Map<EncodeHintType, Object> hints;
+
+    @Setup
+    public void setUp() {
+        hints = new EnumMap<>(EncodeHintType.class);
+        hints.put(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.valueOf(errorCorrection));
+        hints.put(EncodeHintType.MARGIN, 1);
+        hints.put(EncodeHintType.CHARACTER_SET, "UTF-8");
+    }
+
+    @Benchmark
+    public BitMatrix encode() throws Exception {
+        return writer.encode(PAYLOAD, BarcodeFormat.QR_CODE, size, size, hints);
+    }
+
+    @Benchmark
+    public byte[] encodeAndWritePng() throws Exception {
+        BitMatrix matrix = writer.encode(PAYLOAD, BarcodeFormat.QR_CODE, size, size, hints);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (!ImageIO.write(MatrixToImageWriter.toBufferedImage(matrix), "PNG", out)) {
+            throw new IOException("PNG writer not found");
+        }
+        return out.toByteArray();
+    }
+}
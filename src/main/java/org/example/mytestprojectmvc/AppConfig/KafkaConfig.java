@@ -1,22 +1,62 @@
 package org.example.mytestprojectmvc.AppConfig;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
 import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.example.mytestprojectmvc.kafka.producer.EmployeeKafkaProducer.EmployeeEvent;
+import org.example.mytestprojectmvc.kafka.producer.EmployeeKafkaTemplates;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaOperations;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerConsumerListener;
+import org.springframework.kafka.core.MicrometerProducerListener;
 import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.util.backoff.BackOff;
+import org.springframework.util.backoff.ExponentialBackOff;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Продюсеры и топики Kafka.
+ *
+ * Для каждого профиля из app.kafka.producer.profiles создается свой KafkaProducer (сжатие, linger,
+ * идемпотентность - настройки продюсера целиком), топики получают KafkaTemplate нужного профиля:
+ * одиночные события - low-latency, массовая синхронизация - high-throughput, DLQ - durable.
+ * Те же топики читает пакетный слушатель EmployeeEventListener (потоков - по числу партиций).
+ * Топик снимков сжимаемый: по ключу personal code хранится последнее состояние сотрудника.
+ */
 @Configuration
+@RequiredArgsConstructor
+@EnableConfigurationProperties(KafkaProducerProfiles.class)
 public class KafkaConfig {
 
+    private final KafkaProducerProfiles producerProfiles;
+    private final MeterRegistry meterRegistry;
+
+    // Один продюсер на профиль, даже если профиль используют несколько топиков
+    private final Map<String, DefaultKafkaProducerFactory<String, Object>> producerFactories = new ConcurrentHashMap<>();
+
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
@@ -26,44 +66,172 @@ public class KafkaConfig {
     @Value("${app.kafka.topic.employee-bulk-sync}")
     private String employeeBulkSyncTopic;
 
+    @Value("${app.kafka.topic.employee-dlq}")
+    private String employeeDeadLetterTopic;
+
+    @Value("${app.kafka.topic.employee-snapshot}")
+    private String employeeSnapshotTopic;
+
     @Value("${app.service.name}")
     private String serviceName;
 
+    @Value("${app.kafka.producer.max-block-ms:10000}")
+    private long maxBlockMs;
+
+    @Value("${app.kafka.producer.sync-profile:low-latency}")
+    private String syncProfile;
+
+    @Value("${app.kafka.producer.bulk-profile:high-throughput}")
+    private String bulkProfile;
+
+    @Value("${app.kafka.producer.dead-letter-profile:durable}")
+    private String deadLetterProfile;
+
+    @Value("${app.kafka.producer.snapshot-profile:high-throughput}")
+    private String snapshotProfile;
+
+    @Value("${app.kafka.partitions.employee-sync:3}")
+    private int employeeSyncPartitions;
+
+    @Value("${app.kafka.partitions.employee-bulk-sync:5}")
+    private int employeeBulkSyncPartitions;
+
+    @Value("${app.kafka.partitions.employee-snapshot:6}")
+    private int employeeSnapshotPartitions;
+
+    @Value("${app.kafka.snapshot.delete-retention-ms:86400000}")
+    private long snapshotDeleteRetentionMs;
+
+    @Value("${spring.kafka.consumer.group-id}")
+    private String consumerGroupId;
+
+    @Value("${spring.kafka.consumer.auto-offset-reset:earliest}")
+    private String autoOffsetReset;
+
+    @Value("${app.kafka.consumer.max-poll-records:500}")
+    private int maxPollRecords;
+
+    /**
+     * Продюсер по профилю: общие настройки (сериализация, буфер, max.block.ms) + настройки профиля
+     */
+    public ProducerFactory<String, Object> producerFactory(String profileName) {
+        return producerFactories.computeIfAbsent(profileName, name -> {
+            Map<String, Object> config = new HashMap<>();
+            config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+            config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG,
+                    org.apache.kafka.common.serialization.StringSerializer.class);
+            config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG,
+                    JsonSerializer.class);
+
+            // Основные настройки продюсера
+            config.put(ProducerConfig.RETRIES_CONFIG, 3);
+            config.put(ProducerConfig.BUFFER_MEMORY_CONFIG, 33554432);
+            // Буфер не переполняется благодаря окну EmployeeKafkaProducer, ждать остается только метаданные
+            // (брокер недоступен) - не держим поток запроса стандартные 60 с
+            config.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, maxBlockMs);
+
+            // acks, linger, batch, сжатие, идемпотентность
+            config.putAll(producerProfiles.get(name).toProducerConfig());
+
+            // Идентификатор клиента (по нему различаются метрики kafka.producer.* профилей)
+            config.put(ProducerConfig.CLIENT_ID_CONFIG, serviceName + "-producer-" + name);
+
+            // Настройки для Spring Kafka JsonSerializer
+            // Если используете custom классы для сериализации
+            config.put(JsonSerializer.TYPE_MAPPINGS,
+                    "employee:org.example.mytestprojectmvc.entity.Employee," +
+                            "employeeKafkaDto:org.example.mytestprojectmvc.kafka.producer.EmployeeKafkaProducer$EmployeeKafkaDto," +
+                            "employeeEvent:org.example.mytestprojectmvc.kafka.producer.EmployeeKafkaProducer$EmployeeEvent");
+
+            // Дополнительные настройки Jackson, если нужно
+            config.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+
+            DefaultKafkaProducerFactory<String, Object> factory = new DefaultKafkaProducerFactory<>(config);
+            factory.addListener(new MicrometerProducerListener<>(meterRegistry));
+            return factory;
+        });
+    }
+
+    @PreDestroy
+    void closeProducers() {
+        producerFactories.values().forEach(DefaultKafkaProducerFactory::destroy);
+    }
+
+    /**
+     * Шаблон по умолчанию - профиль одиночных событий
+     */
     @Bean
-    public ProducerFactory<String, Object> producerFactory() {
+    public KafkaTemplate<String, Object> kafkaTemplate() {
+        return new KafkaTemplate<>(producerFactory(syncProfile));
+    }
+
+    @Bean
+    public EmployeeKafkaTemplates employeeKafkaTemplates(KafkaTemplate<String, Object> kafkaTemplate) {
+        return new EmployeeKafkaTemplates(Map.of(
+                employeeSyncTopic, kafkaTemplate,
+                employeeBulkSyncTopic, new KafkaTemplate<>(producerFactory(bulkProfile)),
+                employeeDeadLetterTopic, new KafkaTemplate<>(producerFactory(deadLetterProfile)),
+                employeeSnapshotTopic, new KafkaTemplate<>(producerFactory(snapshotProfile))));
+    }
+
+    /**
+     * Потребитель событий о сотрудниках: JSON без заголовков типа -> EmployeeEvent,
+     * автокоммит смещений выключен (фиксирует EmployeeEventListener после записи в БД)
+     */
+    @Bean
+    public ConsumerFactory<String, EmployeeEvent> employeeEventConsumerFactory() {
         Map<String, Object> config = new HashMap<>();
-        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG,
-                org.apache.kafka.common.serialization.StringSerializer.class);
-        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG,
-                JsonSerializer.class);
-
-        // Основные настройки продюсера
-        config.put(ProducerConfig.ACKS_CONFIG, "1");
-        config.put(ProducerConfig.RETRIES_CONFIG, 3);
-        config.put(ProducerConfig.LINGER_MS_CONFIG, 5);
-        config.put(ProducerConfig.BATCH_SIZE_CONFIG, 16384);
-        config.put(ProducerConfig.BUFFER_MEMORY_CONFIG, 33554432);
-
-        // Идентификатор клиента
-        config.put(ProducerConfig.CLIENT_ID_CONFIG, serviceName + "-producer");
-
-        // Настройки для Spring Kafka JsonSerializer
-        // Если используете custom классы для сериализации
-        config.put(JsonSerializer.TYPE_MAPPINGS,
-                "employee:org.example.mytestprojectmvc.entity.Employee," +
-                        "employeeKafkaDto:org.example.mytestprojectmvc.kafka.producer.EmployeeKafkaProducer$EmployeeKafkaDto," +
-                        "employeeEvent:org.example.mytestprojectmvc.kafka.producer.EmployeeKafkaProducer$EmployeeEvent");
-
-        // Дополнительные настройки Jackson, если нужно
-        config.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
-
-        return new DefaultKafkaProducerFactory<>(config);
+        config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ConsumerConfig.GROUP_ID_CONFIG, consumerGroupId);
+        config.put(ConsumerConfig.CLIENT_ID_CONFIG, serviceName + "-consumer");
+        config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, autoOffsetReset);
+        config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        config.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+
+        config.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        // Битое сообщение приходит в пачке как null, а не роняет poll бесконечно
+        config.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        config.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, JsonDeserializer.class);
+        config.put(JsonDeserializer.VALUE_DEFAULT_TYPE, EmployeeEvent.class.getName());
+        config.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
+        config.put(JsonDeserializer.TRUSTED_PACKAGES, EmployeeEvent.class.getPackageName());
+
+        DefaultKafkaConsumerFactory<String, EmployeeEvent> factory = new DefaultKafkaConsumerFactory<>(config);
+        factory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+        return factory;
     }
 
+    /**
+     * Пакетные слушатели с ручной фиксацией смещений. Ошибка записи пачки (БД недоступна)
+     * повторяется с нарастающей паузой до 10 минут, затем записи пачки уходят в DLQ
+     */
     @Bean
-    public KafkaTemplate<String, Object> kafkaTemplate() {
-        return new KafkaTemplate<>(producerFactory());
+    public ConcurrentKafkaListenerContainerFactory<String, EmployeeEvent> employeeBatchListenerFactory(
+            EmployeeKafkaTemplates employeeKafkaTemplates) {
+        ConcurrentKafkaListenerContainerFactory<String, EmployeeEvent> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(employeeEventConsumerFactory());
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+
+        ExponentialBackOff backOff = new ExponentialBackOff(1000, 2.0);
+        backOff.setMaxInterval(30000);
+        backOff.setMaxElapsedTime(600000);
+        factory.setCommonErrorHandler(batchErrorHandler(
+                employeeKafkaTemplates.forTopic(employeeDeadLetterTopic), employeeDeadLetterTopic, backOff));
+        return factory;
+    }
+
+    /**
+     * Когда повторы исчерпаны, каждая запись пачки публикуется в DLQ (с заголовками kafka_dlt-* о причине),
+     * и только потом фиксируются смещения - долгий сбой БД не теряет события. Если не удалась и запись в DLQ,
+     * пачка не фиксируется и читается заново
+     */
+    static DefaultErrorHandler batchErrorHandler(KafkaOperations<String, Object> deadLetterTemplate,
+                                                 String deadLetterTopic, BackOff backOff) {
+        // Партиция -1: DLQ выбирает партицию по ключу, а не по номеру партиции исходного топика
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(deadLetterTemplate,
+                (record, ex) -> new TopicPartition(deadLetterTopic, -1));
+        return new DefaultErrorHandler(recoverer, backOff);
     }
 
     /**
@@ -72,7 +240,7 @@ public class KafkaConfig {
     @Bean
     public NewTopic employeeSyncTopic() {
         return TopicBuilder.name(employeeSyncTopic)
-                .partitions(3)
+                .partitions(employeeSyncPartitions)
                 .replicas(1)
                 .config("retention.ms", "604800000") // 7 дней
                 .build();
@@ -84,10 +252,40 @@ public class KafkaConfig {
     @Bean
     public NewTopic employeeBulkSyncTopic() {
         return TopicBuilder.name(employeeBulkSyncTopic)
-                .partitions(5)
+                .partitions(employeeBulkSyncPartitions)
                 .replicas(1)
                 .config("retention.ms", "86400000") // 1 день
                 .config("cleanup.policy", "delete")
                 .build();
     }
+
+    /**
+     * Топик снимков: compaction оставляет по каждому personal code только последнюю запись,
+     * tombstone удаляет ключ. Новый потребитель читает его с начала и получает всех сотрудников
+     */
+    @Bean
+    public NewTopic employeeSnapshotTopic() {
+        return TopicBuilder.name(employeeSnapshotTopic)
+                .partitions(employeeSnapshotPartitions)
+                .replicas(1)
+                .compact()
+                // Сжимать, когда перезаписана хотя бы десятая часть лога
+                .config("min.cleanable.dirty.ratio", "0.1")
+                // Сколько tombstone живет после компактации: отстающий потребитель должен успеть его прочитать
+                .config("delete.retention.ms", Long.toString(snapshotDeleteRetentionMs))
+                .build();
+    }
+
+    /**
+     * Dead-letter топик: события, которые не удалось отправить за все попытки,
+     * и принятые события, которые не удалось записать в БД
+     */
+    @Bean
+    public NewTopic employeeDeadLetterTopic() {
+        return TopicBuilder.name(employeeDeadLetterTopic)
+                .partitions(1)
+                .replicas(1)
+                .config("retention.ms", "1209600000") // 14 дней на разбор
+                .build();
+    }
 }
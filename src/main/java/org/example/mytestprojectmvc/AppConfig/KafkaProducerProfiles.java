@@ -0,0 +1,54 @@
+package org.example.mytestprojectmvc.AppConfig;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Именованные профили продюсера Kafka (app.kafka.producer.profiles.*).
+ *
+ * Сжатие, linger/batch и идемпотентность задаются на весь продюсер, а не на сообщение,
+ * поэтому каждому профилю соответствует свой KafkaProducer, а топику - профиль
+ * (app.kafka.producer.sync-profile, bulk-profile, dead-letter-profile).
+ */
+@ConfigurationProperties(prefix = "app.kafka.producer")
+public record KafkaProducerProfiles(Map<String, Profile> profiles) {
+
+    public Profile get(String name) {
+        Profile profile = profiles == null ? null : profiles.get(name);
+        if (profile == null) {
+            throw new IllegalStateException("Профиль продюсера Kafka не найден: " + name
+                    + " (доступны: " + (profiles == null ? "[]" : profiles.keySet()) + ")");
+        }
+        return profile;
+    }
+
+    /**
+     * @param acks                 "0", "1" или "all" (идемпотентность требует "all")
+     * @param lingerMs             сколько ждать добора пачки перед отправкой
+     * @param batchSize            размер пачки на партицию, байт
+     * @param compressionType      none, lz4, zstd, snappy, gzip (сжимается пачка целиком)
+     * @param enableIdempotence    без дублей и переупорядочивания при повторах продюсера
+     * @param maxInFlightRequests  неподтвержденных запросов на соединение (с идемпотентностью не больше 5)
+     */
+    public record Profile(String acks,
+                          int lingerMs,
+                          int batchSize,
+                          String compressionType,
+                          boolean enableIdempotence,
+                          int maxInFlightRequests) {
+
+        public Map<String, Object> toProducerConfig() {
+            Map<String, Object> config = new HashMap<>();
+            config.put(ProducerConfig.ACKS_CONFIG, acks);
+            config.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+            config.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+            config.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+            config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, enableIdempotence);
+            config.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, maxInFlightRequests);
+            return config;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package org.example.mytestprojectmvc.AppConfig;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Метрики приложения (Micrometer, /actuator/metrics и /actuator/prometheus).
+ *
+ * Spring Data-репозитории Spring Boot замеряет сам (spring.data.repository.invocations),
+ * JDBC-репозитории помечены @Timed("repository.jdbc") - их обрабатывает TimedAspect.
+ * Гистограммы для p99 включаются в application.yaml (management.metrics.distribution).
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+}
@@ -0,0 +1,52 @@
+package org.example.mytestprojectmvc.AppConfig;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.util.regex.Pattern;
+
+/**
+ * Метрика remote.api.requests: время каждого вызова удаленного API
+ * с тегами method, uri, status и outcome (SUCCESS, CLIENT_ERROR, SERVER_ERROR, IO_ERROR).
+ *
+ * URL собираются уже подставленными (/api/employees/42), поэтому числовые сегменты
+ * пути заменяются на {id} - иначе каждый ID стал бы отдельным временным рядом.
+ */
+class RemoteApiMetricsInterceptor implements ClientHttpRequestInterceptor {
+
+    private static final Pattern NUMERIC_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
+
+    private final MeterRegistry meterRegistry;
+
+    RemoteApiMetricsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body,
+                                        ClientHttpRequestExecution execution) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String status = "IO_ERROR";
+        String outcome = "IO_ERROR";
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            int code = response.getStatusCode().value();
+            status = String.valueOf(code);
+            outcome = code >= 500 ? "SERVER_ERROR" : code >= 400 ? "CLIENT_ERROR" : "SUCCESS";
+            return response;
+        } finally {
+            sample.stop(Timer.builder("remote.api.requests")
+                    .description("Вызовы удаленного API сотрудников")
+                    .tag("method", request.getMethod().name())
+                    .tag("uri", NUMERIC_SEGMENT.matcher(request.getURI().getPath()).replaceAll("/{id}"))
+                    .tag("status", status)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package org.example.mytestprojectmvc.AppConfig;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.client.RestTemplate;
@@ -8,7 +9,10 @@ import org.springframework.web.client.RestTemplate;
 public class RestTemplateConfig {
 
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(MeterRegistry meterRegistry) {
+        RestTemplate restTemplate = new RestTemplate();
+        // Задержка и ошибки каждого вызова удаленного API -> remote.api.requests
+        restTemplate.getInterceptors().add(new RemoteApiMetricsInterceptor(meterRegistry));
+        return restTemplate;
     }
 }
@@ -1,8 +1,20 @@
 package org.example.mytestprojectmvc.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.mytestprojectmvc.scheduler.LaneTaskScheduler;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Function;
 
 /**
  * КОНФИГУРАЦИЯ ШЕДУЛЕРА (ПЛАНИРОВЩИКА)
@@ -14,7 +26,14 @@ import org.springframework.scheduling.annotation.EnableScheduling;
  * Аннотация @ConditionalOnProperty проверяет настройку из application.yaml:
  * - Если scheduling.enabled=true - конфигурация включается
  * - Если scheduling.enabled=false или отсутствует - конфигурация игнорируется
+ *
+ * Планировщик берет из application.yaml:
+ * - scheduling.pool.size - размер общего пула
+ * - scheduling.thread-name-prefix - префикс имен потоков
+ * - scheduling.lanes.enabled - отдельный поток ("дорожка") на каждый @Scheduled-метод
+ * - scheduling.virtual-threads - потоки пула и дорожек виртуальные (нужна Java 21+)
  */
+@Slf4j
 @Configuration
 @EnableScheduling  // ВКЛЮЧАЕМ поддержку шедулеров (планировщиков задач)
 @ConditionalOnProperty(
@@ -23,4 +42,47 @@ import org.springframework.scheduling.annotation.EnableScheduling;
         matchIfMissing = true         // Если свойство отсутствует - считать true (включено по умолчанию)
 )
 public class SchedulerConfig {
+
+    @Value("${scheduling.pool.size:2}")
+    private int poolSize;
+
+    @Value("${scheduling.thread-name-prefix:scheduler-}")
+    private String threadNamePrefix;
+
+    @Value("${scheduling.lanes.enabled:true}")
+    private boolean lanesEnabled;
+
+    @Value("${scheduling.virtual-threads:false}")
+    private boolean virtualThreads;
+
+    @Bean
+    public LaneTaskScheduler taskScheduler(ObjectProvider<MeterRegistry> meterRegistry) {
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+
+        // Виртуальные потоки меняют только потоки пула и дорожек: каждая задача по-прежнему
+        // на своей дорожке, долгая задача не задерживает остальные
+        Function<String, ThreadFactory> threadFactory = virtualThreads ? virtualThreadFactory() : null;
+
+        ThreadPoolTaskScheduler shared = new ThreadPoolTaskScheduler();
+        shared.setPoolSize(poolSize);
+        shared.setThreadNamePrefix(threadNamePrefix);
+        if (threadFactory != null) {
+            shared.setThreadFactory(threadFactory.apply(threadNamePrefix));
+        }
+        shared.setRemoveOnCancelPolicy(true);
+        shared.initialize();
+
+        log.info("Планировщик: общий пул {} потоков, отдельные дорожки для задач: {}, виртуальные потоки: {}",
+                poolSize, lanesEnabled, threadFactory != null);
+        return new LaneTaskScheduler(shared, lanesEnabled, threadNamePrefix, threadFactory, registry);
+    }
+
+    private Function<String, ThreadFactory> virtualThreadFactory() {
+        if (Runtime.version().feature() < 21) {
+            log.warn("scheduling.virtual-threads=true, но Java {} не поддерживает виртуальные потоки - используем пул",
+                    Runtime.version().feature());
+            return null;
+        }
+        return prefix -> new VirtualThreadTaskExecutor(prefix).getVirtualThreadFactory();
+    }
 }
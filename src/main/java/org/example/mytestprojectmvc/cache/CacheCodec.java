@@ -0,0 +1,11 @@
+package org.example.mytestprojectmvc.cache;
+
+/**
+ * Бинарная сериализация ключей и значений для общего кэша
+ */
+public interface CacheCodec<T> {
+
+    byte[] encode(T value);
+
+    T decode(byte[] bytes);
+}
@@ -0,0 +1,115 @@
+package org.example.mytestprojectmvc.cache;
+
+import org.example.mytestprojectmvc.entity.DTO.EmployeeSummary;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.HexFormat;
+
+/**
+ * Кодеки для общего кэша. Все форматы бинарные: long - 8 байт, SHA-256 - 32 байта
+ * вместо 64 hex-символов, сводка сотрудника - компактная запись DataOutput.
+ */
+public final class CacheCodecs {
+
+    private static final byte SUMMARY_FORMAT_V1 = 1;
+
+    private CacheCodecs() {
+    }
+
+    public static final CacheCodec<Long> LONG = new CacheCodec<>() {
+        @Override
+        public byte[] encode(Long value) {
+            return ByteBuffer.allocate(Long.BYTES).putLong(value).array();
+        }
+
+        @Override
+        public Long decode(byte[] bytes) {
+            return ByteBuffer.wrap(bytes).getLong();
+        }
+    };
+
+    /**
+     * Hex-строка хэша (ключ ближнего кэша) <-> сырые байты хэша (ключ в Redis)
+     */
+    public static final CacheCodec<String> HEX = new CacheCodec<>() {
+        @Override
+        public byte[] encode(String value) {
+            return HexFormat.of().parseHex(value);
+        }
+
+        @Override
+        public String decode(byte[] bytes) {
+            return HexFormat.of().formatHex(bytes);
+        }
+    };
+
+    public static final CacheCodec<byte[]> BYTES = new CacheCodec<>() {
+        @Override
+        public byte[] encode(byte[] value) {
+            return value;
+        }
+
+        @Override
+        public byte[] decode(byte[] bytes) {
+            return bytes;
+        }
+    };
+
+    public static final CacheCodec<EmployeeSummary> EMPLOYEE_SUMMARY = new CacheCodec<>() {
+        @Override
+        public byte[] encode(EmployeeSummary value) {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(96);
+            try (DataOutputStream out = new DataOutputStream(buffer)) {
+                out.writeByte(SUMMARY_FORMAT_V1);
+                out.writeLong(value.getId() != null ? value.getId() : -1L);
+                writeNullable(out, value.getPersonalCode());
+                writeNullable(out, value.getFirstName());
+                writeNullable(out, value.getLastName());
+                writeNullable(out, value.getDepartment());
+                out.writeInt(value.getAge() != null ? value.getAge() : -1);
+                writeNullable(out, value.getPost());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return buffer.toByteArray();
+        }
+
+        @Override
+        public EmployeeSummary decode(byte[] bytes) {
+            try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+                byte format = in.readByte();
+                if (format != SUMMARY_FORMAT_V1) {
+                    throw new IllegalStateException("Неизвестный формат сводки сотрудника: " + format);
+                }
+                long id = in.readLong();
+                String personalCode = readNullable(in);
+                String firstName = readNullable(in);
+                String lastName = readNullable(in);
+                String department = readNullable(in);
+                int age = in.readInt();
+                String post = readNullable(in);
+                return new EmployeeSummary(id >= 0 ? id : null, personalCode, firstName, lastName,
+                        department, age >= 0 ? age : null, post);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    };
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
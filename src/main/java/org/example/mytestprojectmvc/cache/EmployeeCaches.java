@@ -0,0 +1,32 @@
+package org.example.mytestprojectmvc.cache;
+
+import lombok.Getter;
+import org.example.mytestprojectmvc.entity.DTO.EmployeeSummary;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Кэши сотрудников, общие для всех экземпляров приложения:
+ * - qrPng: отрисованные PNG QR-кодов по SHA-256 содержимого (инвалидация не нужна)
+ * - remoteLookups: ответы удаленного API по ID сотрудника
+ */
+@Getter
+@Component
+public class EmployeeCaches {
+
+    private final TwoLevelCache<String, byte[]> qrPng;
+    private final TwoLevelCache<Long, EmployeeSummary> remoteLookups;
+
+    public EmployeeCaches(SharedCacheManager cacheManager,
+                          @Value("${app.cache.qr-png.near-max-size:2000}") long qrPngMaxSize,
+                          @Value("${app.cache.qr-png.ttl:24h}") Duration qrPngTtl,
+                          @Value("${app.cache.remote-lookups.near-max-size:1000}") long remoteMaxSize,
+                          @Value("${app.cache.remote-lookups.ttl:5m}") Duration remoteTtl) {
+        this.qrPng = cacheManager.create("qr-png", CacheCodecs.HEX, CacheCodecs.BYTES,
+                qrPngMaxSize, qrPngTtl);
+        this.remoteLookups = cacheManager.create("remote", CacheCodecs.LONG, CacheCodecs.EMPLOYEE_SUMMARY,
+                remoteMaxSize, remoteTtl);
+    }
+}
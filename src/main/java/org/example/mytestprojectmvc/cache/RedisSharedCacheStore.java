@@ -0,0 +1,89 @@
+package org.example.mytestprojectmvc.cache;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * Общий уровень кэша в Redis: ключи и значения пишутся как есть (без JDK/JSON сериализаторов),
+ * инвалидация рассылается через pub/sub.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.cache.redis.enabled", havingValue = "true")
+public class RedisSharedCacheStore implements SharedCacheStore {
+
+    private final RedisConnectionFactory connectionFactory;
+    private final RedisTemplate<byte[], byte[]> redisTemplate = new RedisTemplate<>();
+    private final RedisMessageListenerContainer listenerContainer = new RedisMessageListenerContainer();
+
+    @Value("${app.cache.redis.channel:employee-cache-invalidation}")
+    private String channel;
+
+    private byte[] channelBytes;
+
+    public RedisSharedCacheStore(RedisConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory;
+    }
+
+    @PostConstruct
+    void init() {
+        redisTemplate.setConnectionFactory(connectionFactory);
+        redisTemplate.setEnableDefaultSerializer(false);
+        redisTemplate.afterPropertiesSet();
+
+        listenerContainer.setConnectionFactory(connectionFactory);
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.start();
+
+        channelBytes = channel.getBytes(StandardCharsets.UTF_8);
+        log.info("Общий кэш Redis подключен, канал инвалидации: {}", channel);
+    }
+
+    @PreDestroy
+    void shutdown() throws Exception {
+        listenerContainer.destroy();
+    }
+
+    @Override
+    public byte[] get(byte[] key) {
+        return redisTemplate.execute((RedisCallback<byte[]>) connection -> connection.stringCommands().get(key));
+    }
+
+    @Override
+    public void put(byte[] key, byte[] value, Duration ttl) {
+        redisTemplate.execute((RedisCallback<Boolean>) connection -> connection.stringCommands()
+                .set(key, value, Expiration.from(ttl), RedisStringCommands.SetOption.upsert()));
+    }
+
+    @Override
+    public boolean putIfAbsent(byte[] key, byte[] value, Duration ttl) {
+        return Boolean.TRUE.equals(redisTemplate.execute((RedisCallback<Boolean>) connection -> connection.stringCommands()
+                .set(key, value, Expiration.from(ttl), RedisStringCommands.SetOption.ifAbsent())));
+    }
+
+    @Override
+    public void publish(byte[] message) {
+        redisTemplate.execute((RedisCallback<Long>) connection -> connection.publish(channelBytes, message));
+    }
+
+    @Override
+    public void subscribe(Consumer<byte[]> listener) {
+        listenerContainer.addMessageListener((message, pattern) -> listener.accept(message.getBody()),
+                new ChannelTopic(channel));
+    }
+}
@@ -0,0 +1,229 @@
+package org.example.mytestprojectmvc.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Реестр двухуровневых кэшей (ближний Caffeine в JVM + общий Redis).
+ *
+ * Держит единственную подписку на канал инвалидации и раздает сообщения кэшам
+ * по имени. Если общий уровень недоступен, кэши на время failureBackoff
+ * работают только с ближним уровнем, а не ждут таймаутов Redis на каждом запросе.
+ *
+ * Инвалидация не удаляет ключ, а ставит на его место пустой маркер на invalidationGuard:
+ * загрузки из БД пишут в общий уровень только через SET NX и не могут вернуть туда
+ * значение, прочитанное до инвалидации.
+ *
+ * Через тот же канал можно рассылать инвалидации без кэша значений (publishInvalidation):
+ * например, чтобы соседи сбросили свой локальный second-level cache Hibernate.
+ */
+@Slf4j
+@Component
+public class SharedCacheManager {
+
+    private static final byte[] INVALIDATED = new byte[0];
+
+    private final SharedCacheStore sharedStore;
+    private final MeterRegistry meterRegistry;
+    private final long instanceId = new SecureRandom().nextLong();
+    private final Map<String, TwoLevelCache<?, ?>> caches = new ConcurrentHashMap<>();
+    private final Map<String, List<Consumer<byte[]>>> invalidationListeners = new ConcurrentHashMap<>();
+
+    @Value("${app.cache.redis.key-prefix:mvc:}")
+    private String keyPrefix;
+
+    @Value("${app.cache.redis.failure-backoff-ms:30000}")
+    private long failureBackoffMs;
+
+    @Value("${app.cache.redis.invalidation-guard-ms:10000}")
+    private long invalidationGuardMs;
+
+    private volatile long sharedRetryAt;
+
+    public SharedCacheManager(ObjectProvider<SharedCacheStore> sharedStore,
+                              ObjectProvider<MeterRegistry> meterRegistry) {
+        this.sharedStore = sharedStore.getIfAvailable();
+        this.meterRegistry = meterRegistry.getIfAvailable();
+    }
+
+    @PostConstruct
+    void init() {
+        if (sharedStore == null) {
+            log.info("Общий кэш отключен (app.cache.redis.enabled=false), работает только кэш в памяти");
+            return;
+        }
+        sharedStore.subscribe(this::onInvalidation);
+        log.info("Двухуровневый кэш: общий уровень {}", sharedStore.getClass().getSimpleName());
+    }
+
+    /**
+     * Создать и зарегистрировать кэш
+     */
+    public <K, V> TwoLevelCache<K, V> create(String name, CacheCodec<K> keyCodec, CacheCodec<V> valueCodec,
+                                             long nearMaxSize, Duration ttl) {
+        byte[] namespace = (keyPrefix + name + ":").getBytes(StandardCharsets.UTF_8);
+        TwoLevelCache<K, V> cache = new TwoLevelCache<>(name, namespace, keyCodec, valueCodec, nearMaxSize, ttl, this);
+        if (caches.putIfAbsent(name, cache) != null) {
+            throw new IllegalStateException("Кэш с именем " + name + " уже зарегистрирован");
+        }
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, cache.nearCache(), name);
+        }
+        return cache;
+    }
+
+    /**
+     * Сообщить остальным экземплярам об изменении ключей канала name.
+     * Только сообщение: общий уровень не трогается, без Redis вызов ничего не делает
+     */
+    public <K> void publishInvalidation(String name, CacheCodec<K> keyCodec, Collection<K> keys) {
+        if (sharedStore == null || keys.isEmpty()) {
+            return;
+        }
+        try {
+            sharedStore.publish(encodeMessage(name, keys.stream().map(keyCodec::encode).toList()));
+        } catch (RuntimeException e) {
+            sharedFailed(e);
+        }
+    }
+
+    /**
+     * Подписка на инвалидации канала name, пришедшие от других экземпляров
+     */
+    public <K> void onRemoteInvalidation(String name, CacheCodec<K> keyCodec, Consumer<K> listener) {
+        if (caches.containsKey(name)) {
+            throw new IllegalStateException("Имя " + name + " занято кэшем - подписывайтесь через TwoLevelCache");
+        }
+        invalidationListeners.computeIfAbsent(name, key -> new CopyOnWriteArrayList<>())
+                .add(raw -> listener.accept(keyCodec.decode(raw)));
+    }
+
+    // ============= ОБЩИЙ УРОВЕНЬ (вызывается из TwoLevelCache) =============
+
+    boolean sharedAvailable() {
+        return sharedStore != null && System.currentTimeMillis() >= sharedRetryAt;
+    }
+
+    byte[] sharedGet(byte[] key) {
+        try {
+            byte[] value = sharedStore.get(key);
+            return value == null || value.length == 0 ? null : value;
+        } catch (RuntimeException e) {
+            sharedFailed(e);
+            return null;
+        }
+    }
+
+    void sharedPut(byte[] key, byte[] value, Duration ttl) {
+        try {
+            sharedStore.put(key, value, ttl);
+        } catch (RuntimeException e) {
+            sharedFailed(e);
+        }
+    }
+
+    /**
+     * Записать загруженное из БД значение, если ключ не занят маркером инвалидации или более свежим значением
+     */
+    void sharedPutIfAbsent(byte[] key, byte[] value, Duration ttl) {
+        try {
+            sharedStore.putIfAbsent(key, value, ttl);
+        } catch (RuntimeException e) {
+            sharedFailed(e);
+        }
+    }
+
+    /**
+     * Удалить ключи из общего уровня и сообщить остальным экземплярам
+     */
+    void sharedInvalidate(String cacheName, List<byte[]> keys, List<byte[]> sharedKeys) {
+        if (sharedStore == null) {
+            return;
+        }
+        // Инвалидация не пропускается даже в период backoff - иначе соседи останутся со старыми данными
+        try {
+            Duration guard = Duration.ofMillis(invalidationGuardMs);
+            sharedKeys.forEach(key -> sharedStore.put(key, INVALIDATED, guard));
+            sharedStore.publish(encodeMessage(cacheName, keys));
+        } catch (RuntimeException e) {
+            sharedFailed(e);
+        }
+    }
+
+    private void sharedFailed(RuntimeException e) {
+        long now = System.currentTimeMillis();
+        if (now >= sharedRetryAt) {
+            log.warn("⚠️ Общий кэш недоступен, {} мс работаем только с кэшем в памяти: {}",
+                    failureBackoffMs, e.getMessage());
+        }
+        sharedRetryAt = now + failureBackoffMs;
+    }
+
+    // ============= ИНВАЛИДАЦИЯ МЕЖДУ ЭКЗЕМПЛЯРАМИ =============
+
+    /**
+     * Формат: [instanceId:8][имя кэша:UTF][кол-во ключей:4]([длина:4][ключ])*
+     */
+    private byte[] encodeMessage(String cacheName, List<byte[]> keys) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(32 + keys.size() * 16);
+        try (DataOutputStream out = new DataOutputStream(buffer)) {
+            out.writeLong(instanceId);
+            out.writeUTF(cacheName);
+            out.writeInt(keys.size());
+            for (byte[] key : keys) {
+                out.writeInt(key.length);
+                out.write(key);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    private void onInvalidation(byte[] message) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(message))) {
+            if (in.readLong() == instanceId) {
+                return; // свой ближний кэш уже очищен
+            }
+            String name = in.readUTF();
+            TwoLevelCache<?, ?> cache = caches.get(name);
+            List<Consumer<byte[]>> listeners = invalidationListeners.getOrDefault(name, List.of());
+            if (cache == null && listeners.isEmpty()) {
+                return;
+            }
+            int count = in.readInt();
+            Collection<byte[]> keys = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                keys.add(in.readNBytes(in.readInt()));
+            }
+            if (cache != null) {
+                cache.invalidateNear(keys);
+            }
+            keys.forEach(key -> listeners.forEach(listener -> listener.accept(key)));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Не удалось разобрать сообщение инвалидации кэша: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package org.example.mytestprojectmvc.cache;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * Общий (межсерверный) уровень кэша: ключи и значения - сырые байты.
+ *
+ * В проде это Redis, в тестах - локальная реализация в памяти.
+ */
+public interface SharedCacheStore {
+
+    byte[] get(byte[] key);
+
+    void put(byte[] key, byte[] value, Duration ttl);
+
+    /**
+     * Записать, только если ключа нет (SET NX). false - ключ уже есть
+     */
+    boolean putIfAbsent(byte[] key, byte[] value, Duration ttl);
+
+    /**
+     * Разослать сообщение об инвалидации всем экземплярам приложения
+     */
+    void publish(byte[] message);
+
+    /**
+     * Подписаться на сообщения об инвалидации (включая свои собственные)
+     */
+    void subscribe(Consumer<byte[]> listener);
+}
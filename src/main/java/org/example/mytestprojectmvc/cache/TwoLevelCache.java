@@ -0,0 +1,160 @@
+package org.example.mytestprojectmvc.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Двухуровневый кэш: ближний Caffeine в JVM и общий уровень (Redis) между экземплярами.
+ *
+ * Чтение: ближний -> общий -> loader, найденное значение кладется в уровни выше.
+ * Запись в БД должна вызывать invalidate: ключ удаляется из обоих уровней,
+ * а остальные экземпляры получают сообщение и чистят свои ближние кэши.
+ * Загрузка из loader не перезаписывает общий уровень: если ключ за время загрузки
+ * инвалидировали, устаревшее значение в Redis не попадет.
+ */
+@Slf4j
+public class TwoLevelCache<K, V> {
+
+    private final String name;
+    private final byte[] namespace;
+    private final CacheCodec<K> keyCodec;
+    private final CacheCodec<V> valueCodec;
+    private final Duration ttl;
+    private final SharedCacheManager manager;
+    private final Cache<K, V> nearCache;
+    private final List<Consumer<K>> remoteInvalidationListeners = new CopyOnWriteArrayList<>();
+
+    TwoLevelCache(String name, byte[] namespace, CacheCodec<K> keyCodec, CacheCodec<V> valueCodec,
+                  long nearMaxSize, Duration ttl, SharedCacheManager manager) {
+        this.name = name;
+        this.namespace = namespace;
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+        this.ttl = ttl;
+        this.manager = manager;
+        this.nearCache = Caffeine.newBuilder()
+                .maximumSize(nearMaxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Значение из кэша или из loader (null от loader не кэшируется).
+     * Параллельные запросы одного ключа внутри JVM ждут одну загрузку.
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        return nearCache.get(key, k -> loadShared(k, loader));
+    }
+
+    public V getIfPresent(K key) {
+        V value = nearCache.getIfPresent(key);
+        if (value != null || !manager.sharedAvailable()) {
+            return value;
+        }
+        value = readShared(key);
+        if (value != null) {
+            nearCache.put(key, value);
+        }
+        return value;
+    }
+
+    public void put(K key, V value) {
+        nearCache.put(key, value);
+        if (manager.sharedAvailable()) {
+            manager.sharedPut(sharedKey(keyCodec.encode(key)), valueCodec.encode(value), ttl);
+        }
+    }
+
+    public void invalidate(K key) {
+        invalidateAll(List.of(key));
+    }
+
+    /**
+     * Удалить ключи на всех уровнях и во всех экземплярах приложения
+     */
+    public void invalidateAll(Collection<K> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        nearCache.invalidateAll(keys);
+
+        List<byte[]> encoded = new ArrayList<>(keys.size());
+        List<byte[]> sharedKeys = new ArrayList<>(keys.size());
+        for (K key : keys) {
+            byte[] raw = keyCodec.encode(key);
+            encoded.add(raw);
+            sharedKeys.add(sharedKey(raw));
+        }
+        manager.sharedInvalidate(name, encoded, sharedKeys);
+    }
+
+    /**
+     * Подписка на инвалидации, пришедшие от других экземпляров
+     */
+    public void onRemoteInvalidation(Consumer<K> listener) {
+        remoteInvalidationListeners.add(listener);
+    }
+
+    Cache<K, V> nearCache() {
+        return nearCache;
+    }
+
+    void invalidateNear(Collection<byte[]> rawKeys) {
+        for (byte[] raw : rawKeys) {
+            K key = keyCodec.decode(raw);
+            nearCache.invalidate(key);
+            remoteInvalidationListeners.forEach(listener -> listener.accept(key));
+        }
+        log.debug("Кэш {}: по сообщению другого экземпляра сброшено ключей: {}", name, rawKeys.size());
+    }
+
+    private V loadShared(K key, Function<? super K, ? extends V> loader) {
+        boolean shared = manager.sharedAvailable();
+        if (shared) {
+            V value = readShared(key);
+            if (value != null) {
+                return value;
+            }
+        }
+
+        V value = loader.apply(key);
+        if (value != null && shared) {
+            manager.sharedPutIfAbsent(sharedKey(keyCodec.encode(key)), valueCodec.encode(value), ttl);
+        }
+        return value;
+    }
+
+    private V readShared(K key) {
+        byte[] bytes = manager.sharedGet(sharedKey(keyCodec.encode(key)));
+        if (bytes == null) {
+            return null;
+        }
+        try {
+            return valueCodec.decode(bytes);
+        } catch (RuntimeException e) {
+            log.warn("Кэш {}: не удалось прочитать значение из общего кэша: {}", name, e.getMessage());
+            return null;
+        }
+    }
+
+    private byte[] sharedKey(byte[] rawKey) {
+        byte[] key = new byte[namespace.length + rawKey.length];
+        System.arraycopy(namespace, 0, key, 0, namespace.length);
+        System.arraycopy(rawKey, 0, key, namespace.length, rawKey.length);
+        return key;
+    }
+}
@@ -1,13 +1,16 @@
 package org.example.mytestprojectmvc.comand;
 
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.example.mytestprojectmvc.entity.DTO.EmployeeDTO;
 import org.example.mytestprojectmvc.entity.Employee;
 import org.example.mytestprojectmvc.entity.EmployeeMapper;
 import org.example.mytestprojectmvc.kafka.producer.EmployeeKafkaProducer;
+import org.example.mytestprojectmvc.logging.LogSampler;
 import org.example.mytestprojectmvc.repository.EmployeeRepository;
 import org.example.mytestprojectmvc.service.EmployeeQrCodeGenerator;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,6 +24,16 @@ public class AddLocalCommand implements AddEmployeeCommand {
     private final EmployeeQrCodeGenerator qrCodeGenerator;
     private final EmployeeKafkaProducer kafkaProducer;
 
+    @Value("${app.logging.success-sample-rate:1}")
+    private int successSampleRate;
+
+    private LogSampler createdLog;
+
+    @PostConstruct
+    void init() {
+        createdLog = new LogSampler(successSampleRate);
+    }
+
     @Override
     @Transactional
     public Employee execute(EmployeeDTO employeeDTO) {
@@ -43,11 +56,14 @@ public class AddLocalCommand implements AddEmployeeCommand {
             log.warn("Не удалось обновить DTO: {}", e.getMessage());
         }
 
-        log.info("✅ Сотрудник успешно создан: {} {} (ID: {}, Personal Code: {})",
-                savedEmployee.getFirstName(),
-                savedEmployee.getLastName(),
-                savedEmployee.getId(),
-                savedEmployee.getPersonalCode());
+        if (createdLog.sample()) {
+            log.info("✅ Сотрудник успешно создан: {} {} (ID: {}, Personal Code: {}; всего создано: {}, в лог каждое {}-е)",
+                    savedEmployee.getFirstName(),
+                    savedEmployee.getLastName(),
+                    savedEmployee.getId(),
+                    savedEmployee.getPersonalCode(),
+                    createdLog.count(), createdLog.rate());
+        }
 
         sendToKafka(savedEmployee);
 
@@ -57,7 +73,8 @@ public class AddLocalCommand implements AddEmployeeCommand {
     private void sendToKafka(Employee employee) {
         try {
             kafkaProducer.sendEmployeeCreated(employee);
-            log.info("📤 Событие о создании сотрудника отправлено в Kafka. Employee ID: {}",
+            // Отправка асинхронная: подтверждение (или ошибку) логирует EmployeeKafkaProducer
+            log.debug("📤 Событие о создании сотрудника передано в Kafka. Employee ID: {}",
                     employee.getId());
         } catch (Exception e) {
             log.error("❌ Ошибка при отправке в Kafka для сотрудника ID: {}. Ошибка: {}",
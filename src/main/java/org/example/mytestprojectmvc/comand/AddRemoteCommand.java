@@ -1,6 +1,7 @@
 package org.example.mytestprojectmvc.comand;
 
 import lombok.RequiredArgsConstructor;
+import org.example.mytestprojectmvc.cache.EmployeeCaches;
 import org.example.mytestprojectmvc.entity.DTO.EmployeeDTO;
 import org.example.mytestprojectmvc.entity.Employee;
 import org.example.mytestprojectmvc.entity.EmployeeMapper;
@@ -21,6 +22,7 @@ public class AddRemoteCommand implements AddEmployeeCommand{
     private final EmployeeMapper mapper;
     private final EmployeeQrCodeGenerator qrCodeGenerator;
     private final EmployeeRepository employeeRepository;
+    private final EmployeeCaches employeeCaches;
 
     @Value("${employee.api.base-url}")
     private String baseUrl;
@@ -47,6 +49,11 @@ public class AddRemoteCommand implements AddEmployeeCommand{
 
         Employee emp = response.getBody();
 
+        // Удаленная запись изменилась - старый ответ по этому ID больше не актуален
+        if (emp != null && emp.getId() != null) {
+            employeeCaches.getRemoteLookups().invalidate(emp.getId());
+        }
+
         emp = qrCodeGenerator.generateAndSaveQrCodeToDb(emp);
 
         return emp;
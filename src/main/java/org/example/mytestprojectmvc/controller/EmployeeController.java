@@ -1,24 +1,55 @@
 package org.example.mytestprojectmvc.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.example.mytestprojectmvc.entity.DTO.DepartmentStats;
 import org.example.mytestprojectmvc.entity.DTO.EmployeeDTO;
+import org.example.mytestprojectmvc.entity.DTO.EmployeePage;
+import org.example.mytestprojectmvc.entity.DTO.EmployeeSummary;
+import org.example.mytestprojectmvc.entity.DTO.QrVerificationResult;
 import org.example.mytestprojectmvc.entity.Employee;
+import org.example.mytestprojectmvc.exceptions.QrDecoderBusyException;
+import org.example.mytestprojectmvc.readmodel.EmployeeReadModel;
+import org.example.mytestprojectmvc.readmodel.ReadModelStats;
+import org.example.mytestprojectmvc.repository.EmployeeJdbcRepository.DeletedEmployee;
 import org.example.mytestprojectmvc.scheduler.EmployeeBulkSyncToKafkaScheduler;
+import org.example.mytestprojectmvc.scheduler.job.SyncJobExecutor;
+import org.example.mytestprojectmvc.scheduler.job.SyncJobInfo;
 import org.example.mytestprojectmvc.service.EmployeeApiService;
 import org.example.mytestprojectmvc.service.EmployeeCommandService;
+import org.example.mytestprojectmvc.service.EmployeeDeleteService;
 import org.example.mytestprojectmvc.service.EmployeeQrCodeGenerator;
+import org.example.mytestprojectmvc.service.EmployeeQrExportService;
+import org.example.mytestprojectmvc.service.EmployeeQrStorageService;
+import org.example.mytestprojectmvc.service.EmployeeQrVerificationService;
+import org.example.mytestprojectmvc.service.QrImageFormat;
+import org.example.mytestprojectmvc.service.SyncStatusBroadcaster;
+import org.example.mytestprojectmvc.storage.QrBlobSegmentStore;
+import org.example.mytestprojectmvc.storage.QrImageRegion;
+import org.example.mytestprojectmvc.storage.QrImageStore;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @Slf4j
 @Controller
@@ -26,16 +57,33 @@ import java.util.List;
 @RequiredArgsConstructor
 public class EmployeeController {
 
+    private static final int MAX_PAGE_SIZE = 500;
+
+    // Атрибуты запроса Tomcat для отдачи участка файла через sendfile
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
     private final EmployeeApiService employeeService;
     private final EmployeeCommandService commandService;
+    private final EmployeeDeleteService deleteService;
     private final EmployeeQrCodeGenerator qrCodeGenerator;
+    private final EmployeeQrExportService qrExportService;
     private final HttpSession session;
     private final EmployeeBulkSyncToKafkaScheduler bulkSyncScheduler;
+    private final SyncStatusBroadcaster syncStatusBroadcaster;
+    private final SyncJobExecutor syncJobExecutor;
+    private final EmployeeReadModel readModel;
+    private final EmployeeQrVerificationService qrVerificationService;
+    private final EmployeeQrStorageService qrStorageService;
+    private final QrImageStore qrImageStore;
 
     // 1. ГЛАВНАЯ СТРАНИЦА - список сотрудников (оба метода должны быть одинаковыми)
     @GetMapping
     public String showEmployees(Model model) {
-        List<Employee> employees = employeeService.getAllEmployees();
+        // Для таблицы нужны только краткие данные - берем их из read model, без QR-колонок
+        List<EmployeeSummary> employees = employeeService.getEmployeeSummaries();
         model.addAttribute("employees", employees);
 
         // Добавляем сообщение о синхронизации, если она была запущена
@@ -96,7 +144,7 @@ public class EmployeeController {
 
             redirectAttributes.addFlashAttribute("success", message);
 
-            log.info("Успешно добавлен сотрудник: {} {} (ID: {}, Personal Code: {})",
+            log.debug("Успешно добавлен сотрудник: {} {} (ID: {}, Personal Code: {})",
                     employee.getFirstName(), employee.getLastName(),
                     employee.getId(), employee.getPersonalCode());
 
@@ -127,15 +175,13 @@ public class EmployeeController {
 
             // Генерируем QR-код для отображения
             try {
-                byte[] qrCodeImage = qrCodeGenerator.generatePreviewQrCodeForEmployee(employee);
-                String qrCodeBase64 = java.util.Base64.getEncoder().encodeToString(qrCodeImage);
-                model.addAttribute("qrCodeBase64", qrCodeBase64);
+                model.addAttribute("qrCodeUri", qrCodeGenerator.generatePreviewQrCodeSvgDataUriForEmployee(employee));
                 log.debug("Сгенерирован QR-код предпросмотра для удаленного сотрудника ID: {}", id);
             } catch (Exception e) {
                 log.warn("Не удалось сгенерировать QR-код для удаленного сотрудника", e);
             }
 
-            log.info("Найден удаленный сотрудник: {} {} (ID: {})",
+            log.debug("Найден удаленный сотрудник: {} {} (ID: {})",
                     employee.getFirstName(), employee.getLastName(), employee.getId());
 
         } catch (Exception e) {
@@ -166,21 +212,19 @@ public class EmployeeController {
             // Генерируем QR-код для отображения
             try {
                 if (employee.getQrCodeData() != null) {
-                    String qrCodeBase64 = qrCodeGenerator.generateQrCodeBase64ForEmployee(employee);
-                    model.addAttribute("qrCodeBase64", qrCodeBase64);
+                    model.addAttribute("qrCodeUri", qrCodeGenerator.generateQrCodeSvgDataUriForEmployee(employee));
                     log.debug("Использован сохраненный QR-код для сотрудника ID: {}", id);
                 } else {
                     log.warn("У сотрудника ID: {} отсутствует QR-код в БД, генерируем...", id);
                     employee = qrCodeGenerator.generateQrCodeForEmployee(employee);
-                    String qrCodeBase64 = qrCodeGenerator.generateQrCodeBase64ForEmployee(employee);
-                    model.addAttribute("qrCodeBase64", qrCodeBase64);
+                    model.addAttribute("qrCodeUri", qrCodeGenerator.generateQrCodeSvgDataUriForEmployee(employee));
                 }
             } catch (Exception e) {
                 log.error("Ошибка при генерации QR-кода для сотрудника ID: {}", id, e);
                 model.addAttribute("qrError", "Не удалось сгенерировать QR-код");
             }
 
-            log.info("Показан локальный сотрудник: {} {} (ID: {}, Personal Code: {})",
+            log.debug("Показан локальный сотрудник: {} {} (ID: {}, Personal Code: {})",
                     employee.getFirstName(), employee.getLastName(),
                     employee.getId(), employee.getPersonalCode());
 
@@ -199,14 +243,16 @@ public class EmployeeController {
         log.info("Удаление сотрудника с ID: {}", id);
 
         try {
-            Employee employee = employeeService.getLocalEmployeeById(id);
-            employeeService.deleteLocalEmployee(id);
+            Optional<DeletedEmployee> deleted = deleteService.deleteById(id);
 
-            redirectAttributes.addFlashAttribute("success",
-                    String.format("✅ Сотрудник с ID %d удалён (Personal Code: %s)",
-                            id, employee != null ? employee.getPersonalCode() : "N/A"));
-
-            log.info("Успешно удален сотрудник ID: {}", id);
+            if (deleted.isPresent()) {
+                redirectAttributes.addFlashAttribute("success",
+                        String.format("✅ Сотрудник с ID %d удалён (Personal Code: %s)",
+                                id, deleted.get().personalCode() != null ? deleted.get().personalCode() : "N/A"));
+            } else {
+                redirectAttributes.addFlashAttribute("error",
+                        String.format("Сотрудник с ID %d не найден", id));
+            }
 
         } catch (Exception e) {
             log.error("Ошибка при удалении сотрудника ID: {}", id, e);
@@ -217,37 +263,71 @@ public class EmployeeController {
         return "redirect:/employees";
     }
 
-    // 8. ПОЛУЧЕНИЕ QR-КОДА КАК ИЗОБРАЖЕНИЯ (PNG)
+    // 7.1 МАССОВОЕ УДАЛЕНИЕ: ПО СПИСКУ ID ИЛИ ЦЕЛЫМ ОТДЕЛОМ (JSON)
+    @PostMapping("/delete")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> deleteEmployees(@RequestParam(required = false) List<Long> ids,
+                                                               @RequestParam(required = false) String department) {
+        boolean byIds = ids != null && !ids.isEmpty();
+        boolean byDepartment = department != null && !department.isBlank();
+        if (byIds == byDepartment) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Укажите либо ids, либо department"));
+        }
+
+        List<DeletedEmployee> deleted = byIds
+                ? deleteService.deleteByIds(ids)
+                : deleteService.deleteByDepartment(department);
+        return ResponseEntity.ok(Map.of(
+                "deleted", deleted.size(),
+                "personalCodes", deleted.stream().map(DeletedEmployee::personalCode).toList()));
+    }
+
+    // 8. ПОЛУЧЕНИЕ QR-КОДА КАК ИЗОБРАЖЕНИЯ (?format=png|svg&size=)
     @GetMapping("/{id}/qrcode")
-    public ResponseEntity<byte[]> getEmployeeQrCode(@PathVariable Long id) {
-        log.debug("Запрос QR-кода для сотрудника ID: {}", id);
+    public ResponseEntity<byte[]> getEmployeeQrCode(@PathVariable Long id,
+                                                    @RequestParam(defaultValue = "png") String format,
+                                                    @RequestParam(required = false) Integer size,
+                                                    HttpServletRequest request,
+                                                    HttpServletResponse response) {
+        log.debug("Запрос QR-кода для сотрудника ID: {}, формат: {}, размер: {}", id, format, size);
 
         try {
+            QrImageFormat imageFormat = QrImageFormat.of(format);
             Employee employee = employeeService.getLocalEmployeeById(id);
 
             if (employee == null) {
                 return ResponseEntity.notFound().build();
             }
 
+            int imageSize = size != null ? size : qrCodeGenerator.getDefaultSize();
             byte[] qrCodeBytes;
             String fileName;
 
             if (employee.getQrCodeData() != null && employee.getPersonalCode() != null) {
-                qrCodeBytes = qrCodeGenerator.generateQrCodeImageForEmployee(employee);
-                fileName = String.format("employee_%s_qrcode.png", employee.getPersonalCode());
+                fileName = String.format("employee_%s_qrcode.%s", employee.getPersonalCode(), imageFormat.getExtension());
+                if (qrCodeGenerator.isStoredImageCurrent(employee, imageFormat, imageSize)
+                        && streamStoredQrCode(employee, imageFormat, fileName, request, response)) {
+                    log.debug("Сохраненный QR-код отдан из файлового хранилища");
+                    return null;
+                }
+                qrCodeBytes = qrCodeGenerator.generateQrCodeImageForEmployee(employee, imageFormat, imageSize);
                 log.debug("Использован сохраненный QR-код для скачивания");
             } else {
-                qrCodeBytes = qrCodeGenerator.generatePreviewQrCodeForEmployee(employee);
-                fileName = String.format("employee_%d_qrcode_preview.png", employee.getId());
+                qrCodeBytes = qrCodeGenerator.generatePreviewQrCodeForEmployee(employee, imageFormat, imageSize);
+                fileName = String.format("employee_%d_qrcode_preview.%s", employee.getId(), imageFormat.getExtension());
                 log.debug("Сгенерирован QR-код предпросмотра для скачивания");
             }
 
             return ResponseEntity.ok()
                     .header(HttpHeaders.CONTENT_DISPOSITION,
                             "inline; filename=\"" + fileName + "\"")
-                    .contentType(MediaType.IMAGE_PNG)
+                    .contentType(MediaType.parseMediaType(imageFormat.getMediaType()))
                     .body(qrCodeBytes);
 
+        } catch (IllegalArgumentException e) {
+            log.warn("Некорректный запрос QR-кода ID: {}: {}", id, e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             log.error("Ошибка при генерации QR-кода для скачивания ID: {}", id, e);
             return ResponseEntity.internalServerError().build();
@@ -280,6 +360,13 @@ public class EmployeeController {
         return bulkSyncScheduler.getSyncStatus();
     }
 
+    // 10.1 ПОДПИСКА НА СТАТУС СИНХРОНИЗАЦИИ (SERVER-SENT EVENTS)
+    @GetMapping(value = "/sync-status/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ResponseBody
+    public SseEmitter streamSyncStatus() {
+        return syncStatusBroadcaster.subscribe();
+    }
+
     // 11. ОСТАНОВКА СИНХРОНИЗАЦИИ
     @PostMapping("/stop-sync")
     @ResponseBody
@@ -288,8 +375,168 @@ public class EmployeeController {
         return "Синхронизация остановлена";
     }
 
+    // 11.1 ЗАДАЧИ СИНХРОНИЗАЦИИ: ВЫПОЛНЯЮЩИЕСЯ И ИСТОРИЯ ЗАПУСКОВ
+    @GetMapping("/sync-jobs")
+    @ResponseBody
+    public Map<String, List<SyncJobInfo>> getSyncJobs() {
+        return Map.of(
+                "active", syncJobExecutor.getActiveJobs(),
+                "history", syncJobExecutor.getHistory());
+    }
+
+    // 11.2 ОТМЕНА ЗАДАЧИ СИНХРОНИЗАЦИИ ПО ID
+    @PostMapping("/sync-jobs/{jobId}/cancel")
+    @ResponseBody
+    public ResponseEntity<String> cancelSyncJob(@PathVariable long jobId) {
+        return syncJobExecutor.cancel(jobId)
+                ? ResponseEntity.ok("Отмена задачи " + jobId + " запрошена")
+                : ResponseEntity.notFound().build();
+    }
+
+    // 12. ВЫГРУЗКА QR-КОДОВ ОТДЕЛА (ИЛИ ВСЕХ СОТРУДНИКОВ) ОДНИМ ZIP-АРХИВОМ
+    @GetMapping("/qrcodes/export")
+    public ResponseEntity<StreamingResponseBody> exportQrCodes(@RequestParam(required = false) String department) {
+        log.info("Запрос выгрузки QR-кодов. Отдел: {}", department != null ? department : "ВСЕ");
+
+        String fileName = department != null
+                ? String.format("qrcodes_%s.zip", department)
+                : "qrcodes_all.zip";
+
+        StreamingResponseBody body = out -> qrExportService.exportQrCodesZip(department, out);
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(fileName, StandardCharsets.UTF_8).build().toString())
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .body(body);
+    }
+
+    // 13. ПОИСК ПО ОТДЕЛУ И ВОЗРАСТУ С ПАГИНАЦИЕЙ (JSON, ИЗ READ MODEL)
+    @GetMapping("/query")
+    @ResponseBody
+    public EmployeePage queryEmployees(@RequestParam(required = false) String department,
+                                       @RequestParam(required = false) Integer minAge,
+                                       @RequestParam(required = false) Integer maxAge,
+                                       @RequestParam(defaultValue = "0") int page,
+                                       @RequestParam(defaultValue = "50") int size) {
+        return employeeService.findEmployees(department, minAge, maxAge,
+                Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE));
+    }
+
+    // 13.1 СОСТОЯНИЕ READ MODEL: РАЗМЕР, РАСПРЕДЕЛЕНИЯ, ЗАНИМАЕМАЯ ПАМЯТЬ
+    @GetMapping("/read-model/stats")
+    @ResponseBody
+    public ReadModelStats getReadModelStats() {
+        return readModel.stats();
+    }
+
+    // 14. СТАТИСТИКА ПО ОТДЕЛАМ: ЧИСЛЕННОСТЬ, СРЕДНИЙ ВОЗРАСТ, РАСПРЕДЕЛЕНИЯ (JSON)
+    @GetMapping("/stats")
+    @ResponseBody
+    public List<DepartmentStats> getDepartmentStats(@RequestParam(required = false) String department) {
+        return employeeService.getDepartmentStats(department);
+    }
+
+    // 14.1 ПЕРЕСЧЕТ СТАТИСТИКИ ПО ОТДЕЛАМ С НУЛЯ
+    @PostMapping("/stats/rebuild")
+    @ResponseBody
+    public List<DepartmentStats> rebuildDepartmentStats() {
+        log.warn("Запрошен полный пересчет статистики по отделам");
+        return employeeService.rebuildDepartmentStats();
+    }
+
+    // 15. ПОИСК ЛОКАЛЬНЫХ СОТРУДНИКОВ ПО ТЕКСТУ (ИМЯ, ФАМИЛИЯ, ОТДЕЛ, ДОЛЖНОСТЬ, ЛИЧНЫЙ КОД)
+    @GetMapping("/search/local")
+    @ResponseBody
+    public EmployeePage searchLocalEmployees(@RequestParam String q,
+                                             @RequestParam(defaultValue = "0") int page,
+                                             @RequestParam(defaultValue = "20") int size) {
+        return employeeService.searchEmployees(q, Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE));
+    }
+
+    // 16. ПРОВЕРКА ОТСКАНИРОВАННОГО QR-КОДА ПО ТЕКСТУ (ТУРНИКЕТЫ)
+    @PostMapping(value = "/qrcode/verify", consumes = MediaType.TEXT_PLAIN_VALUE)
+    @ResponseBody
+    public QrVerificationResult verifyQrPayload(@RequestBody String payload) {
+        return qrVerificationService.verify(payload);
+    }
+
+    // 16.1 ПРОВЕРКА QR-КОДА ПО ИЗОБРАЖЕНИЮ (РАСПОЗНАВАНИЕ НА ОТДЕЛЬНОМ ПУЛЕ)
+    @PostMapping(value = "/qrcode/verify", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @ResponseBody
+    public ResponseEntity<QrVerificationResult> verifyQrImage(@RequestParam("image") MultipartFile image) {
+        try {
+            return ResponseEntity.ok(qrVerificationService.verifyImage(image.getBytes()));
+        } catch (QrDecoderBusyException e) {
+            log.warn("Проверка QR по изображению отклонена: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(QrVerificationResult.unknown("DECODER_BUSY", null, 0));
+        } catch (IllegalArgumentException | IOException e) {
+            return ResponseEntity.badRequest()
+                    .body(QrVerificationResult.unknown("BAD_IMAGE", null, 0));
+        }
+    }
+
+    // 17. ПЕРЕНОС QR-КОДОВ ИЗ БД В ФАЙЛОВОЕ ХРАНИЛИЩЕ (qr.code.storage.backend=segment)
+    @PostMapping("/qrcode/storage/migrate")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> migrateQrStorage() {
+        try {
+            int migrated = qrStorageService.migrateFromDatabase();
+            return ResponseEntity.ok(Map.of("migrated", migrated, "storage", qrStorageService.stats()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // 17.1 КОМПАКТАЦИЯ ФАЙЛОВОГО ХРАНИЛИЩА QR-КОДОВ
+    @PostMapping("/qrcode/storage/compact")
+    @ResponseBody
+    public ResponseEntity<QrBlobSegmentStore.CompactionResult> compactQrStorage() {
+        try {
+            return ResponseEntity.ok(qrStorageService.compact());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    // 17.2 СОСТОЯНИЕ ФАЙЛОВОГО ХРАНИЛИЩА QR-КОДОВ
+    @GetMapping("/qrcode/storage")
+    @ResponseBody
+    public ResponseEntity<QrBlobSegmentStore.Stats> getQrStorageStats() {
+        try {
+            return ResponseEntity.ok(qrStorageService.stats());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
     // ============= ВСПОМОГАТЕЛЬНЫЕ МЕТОДЫ =============
 
+    /**
+     * Отдает сохраненный QR-код прямо из файла: PNG - через sendfile Tomcat (файл копирует ядро),
+     * SVG - через transferTo в поток ответа, чтобы его сжимал gzip. false - изображение не в файле
+     */
+    private boolean streamStoredQrCode(Employee employee, QrImageFormat format, String fileName,
+                                       HttpServletRequest request, HttpServletResponse response) throws IOException {
+        QrImageRegion region = qrImageStore.locate(employee);
+        if (region == null) {
+            return false;
+        }
+        response.setContentType(format.getMediaType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + fileName + "\"");
+
+        if (format == QrImageFormat.PNG && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            response.setContentLengthLong(region.length());
+            request.setAttribute(SENDFILE_FILENAME, region.file().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, region.position());
+            request.setAttribute(SENDFILE_END, region.position() + region.length());
+            return true;
+        }
+        return qrImageStore.transferTo(employee, Channels.newChannel(response.getOutputStream()));
+    }
+
     private String getSuccessMessage(String saveOption, Employee employee) {
         return switch (saveOption.toUpperCase()) {
             case "LOCAL" -> String.format("✅ Сотрудник %s %s сохранён локально (ID: %d)",
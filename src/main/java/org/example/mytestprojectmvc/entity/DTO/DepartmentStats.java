@@ -0,0 +1,20 @@
+package org.example.mytestprojectmvc.entity.DTO;
+
+import lombok.Data;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Статистика отдела: численность, средний возраст,
+ * распределение по возрасту (корзины по 10 лет, "20-29") и по должностям
+ */
+@Data
+public class DepartmentStats {
+
+    private String department;
+    private long headcount;
+    private double averageAge;
+    private Map<String, Long> ageDistribution = new LinkedHashMap<>();
+    private Map<String, Long> posts = new LinkedHashMap<>();
+}
@@ -0,0 +1,26 @@
+package org.example.mytestprojectmvc.entity.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Страница кратких данных сотрудников; source - откуда взят ответ (memory или db).
+ * totalCapped - совпадений больше, чем ранжирует поиск, total показывает только ранжированные
+ */
+@Data
+@AllArgsConstructor
+public class EmployeePage {
+
+    private long total;
+    private int page;
+    private int size;
+    private String source;
+    private List<EmployeeSummary> items;
+    private boolean totalCapped;
+
+    public EmployeePage(long total, int page, int size, String source, List<EmployeeSummary> items) {
+        this(total, page, size, source, items, false);
+    }
+}
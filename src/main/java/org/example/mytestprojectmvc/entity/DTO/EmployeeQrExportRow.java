@@ -0,0 +1,24 @@
+package org.example.mytestprojectmvc.entity.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Строка выгрузки QR-кодов (проекция без привязки к persistence context)
+ */
+@Data
+@AllArgsConstructor
+public class EmployeeQrExportRow {
+    private Long id;
+    private String personalCode;
+    private String firstName;
+    private String lastName;
+    private String department;
+    private Integer age;
+    private String post;
+    private byte[] qrCodeImage;
+    private String qrContentHash;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,49 @@
+package org.example.mytestprojectmvc.entity.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.mytestprojectmvc.entity.Employee;
+
+/**
+ * Краткие данные сотрудника без QR-колонок (для кэшей и быстрых ответов)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeSummary {
+
+    private Long id;
+    private String personalCode;
+    private String firstName;
+    private String lastName;
+    private String department;
+    private Integer age;
+    private String post;
+
+    public static EmployeeSummary from(Employee employee) {
+        return new EmployeeSummary(
+                employee.getId(),
+                employee.getPersonalCode(),
+                employee.getFirstName(),
+                employee.getLastName(),
+                employee.getDepartment(),
+                employee.getAge(),
+                employee.getPost());
+    }
+
+    /**
+     * Новый (отсоединенный) экземпляр сущности с этими данными
+     */
+    public Employee toEmployee() {
+        return Employee.builder()
+                .id(id)
+                .personalCode(personalCode)
+                .firstName(firstName)
+                .lastName(lastName)
+                .department(department)
+                .age(age)
+                .post(post)
+                .build();
+    }
+}
@@ -0,0 +1,33 @@
+package org.example.mytestprojectmvc.entity.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Результат проверки отсканированного QR-кода.
+ * VALID - сотрудник найден и данные в QR актуальны,
+ * STALE - сотрудник найден, но поля mismatchedFields изменились после печати пропуска,
+ * UNKNOWN - код не распознан или сотрудника нет (причина в reason).
+ * source - где найден сотрудник (memory или db), tookMicros - время проверки.
+ */
+@Data
+@AllArgsConstructor
+public class QrVerificationResult {
+
+    public enum Status { VALID, STALE, UNKNOWN }
+
+    private Status status;
+    private String reason;
+    private String personalCode;
+    private Long employeeId;
+    private String employeeName;
+    private List<String> mismatchedFields;
+    private String source;
+    private long tookMicros;
+
+    public static QrVerificationResult unknown(String reason, String personalCode, long tookMicros) {
+        return new QrVerificationResult(Status.UNKNOWN, reason, personalCode, null, null, List.of(), null, tookMicros);
+    }
+}
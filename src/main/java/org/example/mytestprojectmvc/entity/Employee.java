@@ -5,6 +5,12 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.example.mytestprojectmvc.repository.EmployeeChangeListener;
+import org.example.mytestprojectmvc.service.QrImageFormat;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import java.time.LocalDateTime;
 import java.util.Base64;
@@ -12,6 +18,10 @@ import java.util.Base64;
 @Entity
 @Data
 @Table(name = "employees")
+@EntityListeners(EmployeeChangeListener.class)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "employees")
+@NaturalIdCache(region = "employee-natural-ids")
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
@@ -21,6 +31,7 @@ public class Employee {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @NaturalId(mutable = true)
     @Column(name = "personal_code", unique = true, nullable = false)
     private String personalCode;
 
@@ -48,6 +59,10 @@ public class Employee {
     @Column(name = "qr_code_base64", columnDefinition = "TEXT")
     private String qrCodeBase64;
 
+    // SHA-256 данных QR и настроек отрисовки, из которых построено qr_code_image
+    @Column(name = "qr_content_hash", length = 64)
+    private String qrContentHash;
+
     private LocalDateTime createdAt;
 
     private LocalDateTime updatedAt;
@@ -88,12 +103,19 @@ public class Employee {
     }
 
     /**
-     * Установка QR-кода в Base64 формате
+     * Установка QR-кода в Base64 формате (формат определяется по содержимому)
      */
     public void setQrCodeFromBytes(byte[] qrCodeBytes) {
+        setQrCodeFromBytes(qrCodeBytes, qrCodeBytes != null ? QrImageFormat.detect(qrCodeBytes).getMediaType() : null);
+    }
+
+    /**
+     * Установка QR-кода с указанием формата (image/png или image/svg+xml)
+     */
+    public void setQrCodeFromBytes(byte[] qrCodeBytes, String mediaType) {
         this.qrCodeImage = qrCodeBytes;
         if (qrCodeBytes != null) {
-            this.qrCodeBase64 = "data:image/png;base64," +
+            this.qrCodeBase64 = "data:" + mediaType + ";base64," +
                     Base64.getEncoder().encodeToString(qrCodeBytes);
         } else {
             this.qrCodeBase64 = null;
@@ -108,7 +130,8 @@ public class Employee {
             return this.qrCodeBase64;
         }
         if (this.qrCodeImage != null) {
-            return "data:image/png;base64," +
+            // Формат по содержимому: в колонке может лежать и SVG
+            return "data:" + QrImageFormat.detect(this.qrCodeImage).getMediaType() + ";base64," +
                     Base64.getEncoder().encodeToString(this.qrCodeImage);
         }
         return null;
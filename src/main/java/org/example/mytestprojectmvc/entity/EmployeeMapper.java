@@ -15,6 +15,7 @@ public interface EmployeeMapper {
     @Mapping(target = "qrCodeData", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "qrContentHash", ignore = true)
     Employee toEntity(EmployeeDTO dto);
 
     // Правильный маппинг - если в DTO есть firstName и lastName
@@ -23,6 +24,7 @@ public interface EmployeeMapper {
     EmployeeDTO toDTO(Employee employee);
 
     @Mapping(target = "id", ignore = true)
+    @Mapping(target = "qrContentHash", ignore = true)
     void updateEntity(@MappingTarget Employee entity, EmployeeDTO dto);
 
 }
\ No newline at end of file
@@ -0,0 +1,7 @@
+package org.example.mytestprojectmvc.exceptions;
+
+public class KafkaBackpressureException extends RuntimeException {
+    public KafkaBackpressureException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package org.example.mytestprojectmvc.exceptions;
+
+public class QrDecoderBusyException extends RuntimeException {
+    public QrDecoderBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,142 @@
+package org.example.mytestprojectmvc.kafka.consumer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.example.mytestprojectmvc.kafka.producer.EmployeeKafkaProducer;
+import org.example.mytestprojectmvc.kafka.producer.EmployeeKafkaProducer.EmployeeEvent;
+import org.example.mytestprojectmvc.kafka.producer.EmployeeKafkaProducer.EmployeeKafkaDto;
+import org.example.mytestprojectmvc.repository.EmployeeJdbcRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Запись пачки событий о сотрудниках из Kafka в локальную БД.
+ *
+ * Пачка (один poll) сначала схлопывается в памяти: пропускаются собственные события сервиса
+ * (они уже в БД), повторы по eventId и устаревшие версии одного сотрудника (по personalCode побеждает
+ * более позднее событие пачки, в том числе удаление). Остаток пишется одним upsert-запросом и одним DELETE
+ * в одной транзакции. Повторная доставка той же пачки после сбоя безопасна: upsert не меняет строку
+ * с теми же данными, а повторное удаление ничего не находит.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EmployeeEventIngestService {
+
+    private final EmployeeJdbcRepository employeeJdbcRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.service.name}")
+    private String serviceName;
+
+    @Transactional
+    public IngestResult ingest(List<ConsumerRecord<String, EmployeeEvent>> records) {
+        Map<String, EmployeeEvent> latest = new LinkedHashMap<>();
+        Set<String> eventIds = new HashSet<>();
+        int own = 0;
+        int duplicates = 0;
+        int invalid = 0;
+
+        for (ConsumerRecord<String, EmployeeEvent> record : records) {
+            EmployeeEvent event = record.value();
+            // null - сообщение не десериализовалось (ErrorHandlingDeserializer); без обязательных полей
+            // запись нарушила бы NOT NULL и повторялась бы вечно
+            if (event == null || !isComplete(event)) {
+                invalid++;
+                log.warn("⚠️ Пропущено некорректное событие: {}-{}@{}", record.topic(), record.partition(), record.offset());
+                continue;
+            }
+            if (serviceName.equals(event.getSourceService())) {
+                own++;
+                continue;
+            }
+            if (event.getEventId() != null && !eventIds.add(event.getEventId())) {
+                duplicates++;
+                continue;
+            }
+            if (latest.put(event.getEmployee().getPersonalCode(), event) != null) {
+                duplicates++;
+            }
+        }
+
+        List<EmployeeKafkaDto> upserts = new ArrayList<>();
+        List<String> deletes = new ArrayList<>();
+        for (EmployeeEvent event : latest.values()) {
+            if (isDelete(event)) {
+                deletes.add(event.getEmployee().getPersonalCode());
+            } else {
+                upserts.add(event.getEmployee());
+            }
+        }
+
+        List<Long> changedIds = employeeJdbcRepository.upsertFromEvents(upserts);
+        int deleted = employeeJdbcRepository.deleteByPersonalCodes(deletes).size();
+        IngestResult result = new IngestResult(records.size(), changedIds.size(), deleted,
+                latest.size() - changedIds.size() - deleted, own, duplicates, invalid);
+        record(records.isEmpty() ? "unknown" : records.get(0).topic(), result);
+        return result;
+    }
+
+    private void record(String topic, IngestResult result) {
+        count(topic, "changed", result.changed());
+        count(topic, "deleted", result.deleted());
+        count(topic, "unchanged", result.unchanged());
+        count(topic, "own", result.own());
+        count(topic, "duplicate", result.duplicates());
+        count(topic, "invalid", result.invalid());
+    }
+
+    private void count(String topic, String outcome, int amount) {
+        if (amount > 0) {
+            meterRegistry.counter("kafka.consume.records", "topic", topic, "outcome", outcome).increment(amount);
+        }
+    }
+
+    /**
+     * Для удаления достаточно personal code, для вставки нужны все NOT NULL поля
+     */
+    private static boolean isComplete(EmployeeEvent event) {
+        EmployeeKafkaDto employee = event.getEmployee();
+        if (employee == null || isBlank(employee.getPersonalCode())) {
+            return false;
+        }
+        if (isDelete(event)) {
+            return true;
+        }
+        return !isBlank(employee.getFirstName())
+                && !isBlank(employee.getLastName())
+                && employee.getAge() != null
+                && !isBlank(employee.getDepartment());
+    }
+
+    private static boolean isDelete(EmployeeEvent event) {
+        return EmployeeKafkaProducer.EMPLOYEE_DELETED.equals(event.getEventType());
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    /**
+     * @param received   сообщений в пачке
+     * @param changed    вставлено или изменено строк
+     * @param deleted    удалено строк
+     * @param unchanged  сотрудник уже в БД с теми же данными (или уже удален)
+     * @param own        собственные события сервиса
+     * @param duplicates повторы по eventId и вытесненные более поздним событием о том же сотруднике
+     * @param invalid    не разобраны
+     */
+    public record IngestResult(int received, int changed, int deleted, int unchanged, int own, int duplicates,
+                               int invalid) {
+    }
+}
@@ -0,0 +1,65 @@
+package org.example.mytestprojectmvc.kafka.consumer;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.example.mytestprojectmvc.kafka.consumer.EmployeeEventIngestService.IngestResult;
+import org.example.mytestprojectmvc.kafka.producer.EmployeeKafkaProducer.EmployeeEvent;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Прием событий о сотрудниках из топиков синхронизации пачками.
+ *
+ * Потоков столько же, сколько партиций у топика (app.kafka.partitions.*): больше - простаивают.
+ * Смещения фиксируются вручную после коммита транзакции в БД - при падении между ними
+ * пачка придет повторно и будет безопасно записана еще раз.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmployeeEventListener {
+
+    private final EmployeeEventIngestService ingestService;
+
+    @KafkaListener(
+            id = "employee-sync-ingest",
+            topics = "${app.kafka.topic.employee-sync}",
+            containerFactory = "employeeBatchListenerFactory",
+            concurrency = "${app.kafka.partitions.employee-sync:3}",
+            autoStartup = "${app.kafka.consumer.enabled:true}"
+    )
+    public void onEmployeeSync(List<ConsumerRecord<String, EmployeeEvent>> records, Acknowledgment ack) {
+        ingest(records, ack);
+    }
+
+    @KafkaListener(
+            id = "employee-bulk-sync-ingest",
+            topics = "${app.kafka.topic.employee-bulk-sync}",
+            containerFactory = "employeeBatchListenerFactory",
+            concurrency = "${app.kafka.partitions.employee-bulk-sync:5}",
+            autoStartup = "${app.kafka.consumer.enabled:true}"
+    )
+    public void onEmployeeBulkSync(List<ConsumerRecord<String, EmployeeEvent>> records, Acknowledgment ack) {
+        ingest(records, ack);
+    }
+
+    private void ingest(List<ConsumerRecord<String, EmployeeEvent>> records, Acknowledgment ack) {
+        long start = System.nanoTime();
+        // Транзакция закрыта к возврату из ingest - только после этого фиксируем смещения
+        IngestResult result = ingestService.ingest(records);
+        ack.acknowledge();
+
+        if (result.changed() > 0 || result.deleted() > 0) {
+            log.info("📥 Пачка из Kafka: {} сообщений, записано {}, удалено {}, без изменений {}, свои {}, повторы {}, ошибочные {}, {} мс",
+                    result.received(), result.changed(), result.deleted(), result.unchanged(), result.own(),
+                    result.duplicates(), result.invalid(), (System.nanoTime() - start) / 1_000_000);
+        } else {
+            log.debug("Пачка из Kafka без изменений: {} сообщений, свои {}, повторы {}, ошибочные {}",
+                    result.received(), result.own(), result.duplicates(), result.invalid());
+        }
+    }
+}
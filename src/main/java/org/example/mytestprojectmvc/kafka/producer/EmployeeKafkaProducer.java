@@ -1,23 +1,73 @@
 package org.example.mytestprojectmvc.kafka.producer;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.*;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.example.mytestprojectmvc.entity.Employee;
+import org.example.mytestprojectmvc.exceptions.KafkaBackpressureException;
+import org.example.mytestprojectmvc.logging.LogRateLimiter;
+import org.example.mytestprojectmvc.logging.LogSampler;
+import org.example.mytestprojectmvc.repository.EmployeeJdbcRepository;
+import org.example.mytestprojectmvc.repository.EmployeeRepository;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Отправка событий о сотрудниках в Kafka с ограниченным окном неподтвержденных сообщений.
+ *
+ * Каждая отправка занимает место в окне (app.kafka.producer.max-in-flight) до ответа брокера.
+ * Пока окно не заполнено, буфер продюсера (buffer.memory) не переполняется и send() не блокирует поток
+ * на max.block.ms. При заполненном окне срабатывает политика app.kafka.producer.overflow-policy.
+ *
+ * Неудачная отправка повторяется через KafkaRetryQueue с экспоненциальной задержкой,
+ * после app.kafka.retry.max-attempts попыток событие уходит в app.kafka.topic.employee-dlq.
+ *
+ * Каждое событие сопровождается снимком сотрудника в сжимаемом топике app.kafka.topic.employee-snapshot
+ * (ключ - personal code, удаление - tombstone); итоги события и снимка возвращаются раздельно (EmployeeSendResult).
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class EmployeeKafkaProducer {
 
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    // Число попыток, с которым событие ушло в DLQ
+    static final String SEND_ATTEMPTS_HEADER = "x-send-attempts";
+
+    public static final String EMPLOYEE_DELETED = "EMPLOYEE_DELETED";
+
+    // Тип записи для логов: снимок состояния и его удаление в топике снимков
+    private static final String SNAPSHOT_TYPE = "EMPLOYEE_SNAPSHOT";
+    private static final String TOMBSTONE_TYPE = "EMPLOYEE_TOMBSTONE";
+
+    // Сколько копить ID перед одним UPDATE synced_to_kafka = false
+    private static final Duration UNSYNCED_FLUSH_DELAY = Duration.ofMillis(100);
+
+    private final EmployeeKafkaTemplates kafkaTemplates;
+    private final MeterRegistry meterRegistry;
+    private final EmployeeRepository employeeRepository;
+    private final EmployeeJdbcRepository employeeJdbcRepository;
+    private final KafkaRetryQueue retryQueue;
 
     @Value("${app.kafka.topic.employee-sync}")
     private String employeeSyncTopic;
@@ -25,66 +75,402 @@ public class EmployeeKafkaProducer {
     @Value("${app.kafka.topic.employee-bulk-sync}")
     private String employeeBulkSyncTopic;
 
+    @Value("${app.kafka.topic.employee-dlq}")
+    private String deadLetterTopic;
+
+    @Value("${app.kafka.topic.employee-snapshot}")
+    private String snapshotTopic;
+
     @Value("${app.service.name}")
     private String serviceName;
 
+    @Value("${app.kafka.producer.max-in-flight:1000}")
+    private int maxInFlight;
+
+    @Value("${app.kafka.producer.overflow-policy:BLOCK}")
+    private OverflowPolicy overflowPolicy;
+
+    @Value("${app.kafka.producer.block-timeout-ms:5000}")
+    private long blockTimeoutMs;
+
+    @Value("${app.logging.success-sample-rate:1}")
+    private int successSampleRate;
+
+    @Value("${app.logging.failure-log-interval-ms:0}")
+    private long failureLogIntervalMs;
+
+    // Свободные места в окне неподтвержденных отправок
+    private Semaphore inFlight;
+
+    // Сотрудники, которых нужно вернуть массовой синхронизации: сбрасываются одним UPDATE на пачку
+    private final Set<Long> pendingUnsynced = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean unsyncedFlushScheduled = new AtomicBoolean();
+
+    // Лог на каждое успешное событие под нагрузкой дороже самой отправки - пишем каждое N-е.
+    // Ошибки не прореживаются по счету, а ограничиваются по времени: одиночная ошибка всегда в логе
+    private LogSampler sentLog;
+    private LogRateLimiter failedLog;
+    private LogRateLimiter overflowLog;
+
+    @PostConstruct
+    void init() {
+        inFlight = new Semaphore(maxInFlight);
+        sentLog = new LogSampler(successSampleRate);
+        failedLog = new LogRateLimiter(Duration.ofMillis(failureLogIntervalMs));
+        overflowLog = new LogRateLimiter(Duration.ofMillis(failureLogIntervalMs));
+
+        Gauge.builder("kafka.send.in.flight", inFlight, permits -> maxInFlight - permits.availablePermits())
+                .description("Отправки в Kafka, ожидающие подтверждения брокера")
+                .register(meterRegistry);
+        log.info("Продюсер Kafka: окно {} неподтвержденных отправок, при заполнении - {}", maxInFlight, overflowPolicy);
+    }
+
     /**
-     * Отправляет событие о создании/обновлении сотрудника в Kafka
+     * Отправляет событие о создании/обновлении сотрудника в Kafka с политикой переполнения из настроек
      */
-    public void sendEmployeeEvent(Employee employee, String eventType, String targetTopic) {
-        try {
-            // Создаем ключ для партиционирования (например, по ID или отделу)
-            String key = employee.getDepartment() != null ?
-                    employee.getDepartment().hashCode() + "" :
-                    "default";
-
-            // Создаем DTO для отправки (исключаем бинарные данные)
-            EmployeeKafkaDto kafkaDto = EmployeeKafkaDto.fromEntity(employee);
-
-            EmployeeEvent event = EmployeeEvent.builder()
-                    .eventId(UUID.randomUUID().toString())
-                    .eventType(eventType)
-                    .timestamp(java.time.LocalDateTime.now())
-                    .employee(kafkaDto)
-                    .sourceService(serviceName)
-                    .build();
+    public EmployeeSendResult sendEmployeeEvent(Employee employee, String eventType, String targetTopic) {
+        return sendEmployeeEvent(employee, eventType, targetTopic, overflowPolicy);
+    }
+
+    /**
+     * Отправляет событие и снимок асинхронно. Каждая future завершается ACKED после подтверждения брокером
+     * (возможно, не с первой попытки), SPILLED - если запись отложена политикой SPILL,
+     * исключением - если все попытки неудачны и запись ушла в DLQ,
+     * или KafkaBackpressureException, если место в окне так и не освободилось
+     */
+    public EmployeeSendResult sendEmployeeEvent(Employee employee, String eventType,
+                                                String targetTopic, OverflowPolicy policy) {
+        // Ключ - personal code: события одного сотрудника идут по порядку в одну партицию,
+        // а сотрудники распределяются по партициям равномерно (ключ по отделу давал горячие партиции)
+        String key = recordKey(employee);
+
+        // Создаем DTO для отправки (исключаем бинарные данные)
+        EmployeeKafkaDto kafkaDto = EmployeeKafkaDto.fromEntity(employee);
+
+        CompletableFuture<SendOutcome> eventSent =
+                publish(targetTopic, key, eventType, event(eventType, kafkaDto), employee.getId(), policy);
+        // Последнее состояние сотрудника в сжимаемый топик: по нему потребитель восстанавливает всю базу без БД
+        CompletableFuture<SendOutcome> snapshotSent =
+                publish(snapshotTopic, key, SNAPSHOT_TYPE, kafkaDto, employee.getId(), policy);
+        return new EmployeeSendResult(eventSent, snapshotSent);
+    }
+
+    /**
+     * Событие удаления в основной топик и tombstone в топик снимков
+     */
+    public EmployeeSendResult sendEmployeeDeleted(EmployeeKafkaDto employee) {
+        return sendEmployeeDeleted(employee, employeeSyncTopic);
+    }
+
+    /**
+     * Событие удаления для массовых удалений - в топик массовой синхронизации (крупные пачки продюсера)
+     */
+    public EmployeeSendResult sendEmployeeDeletedForBulk(EmployeeKafkaDto employee) {
+        return sendEmployeeDeleted(employee, employeeBulkSyncTopic);
+    }
 
+    /**
+     * Строки уже нет - отложить событие до массовой синхронизации (SPILL) нельзя, а ждать окна (BLOCK)
+     * в потоке запроса после коммита дорого. Удаление не ждет: при заполненном окне запись уходит
+     * в очередь повторов (DEFER) и дальше - обычные повторы и DLQ
+     */
+    private EmployeeSendResult sendEmployeeDeleted(EmployeeKafkaDto employee, String targetTopic) {
+        String key = employee.getPersonalCode();
+        CompletableFuture<SendOutcome> eventSent = publish(targetTopic, key, EMPLOYEE_DELETED,
+                event(EMPLOYEE_DELETED, employee), employee.getId(), OverflowPolicy.DEFER);
+        if (key == null) {
+            // Без ключа в сжимаемом топике удалять нечего
+            return new EmployeeSendResult(eventSent, CompletableFuture.completedFuture(SendOutcome.ACKED));
+        }
+        return new EmployeeSendResult(eventSent, sendEmployeeTombstone(key));
+    }
+
+    /**
+     * Tombstone (null по ключу personal code) в топик снимков: после компактации сотрудник исчезает из топика
+     */
+    public CompletableFuture<SendOutcome> sendEmployeeTombstone(String personalCode) {
+        return publish(snapshotTopic, personalCode, TOMBSTONE_TYPE, null, null, OverflowPolicy.DEFER);
+    }
+
+    private EmployeeEvent event(String eventType, EmployeeKafkaDto employee) {
+        return EmployeeEvent.builder()
+                .eventId(UUID.randomUUID().toString())
+                .eventType(eventType)
+                .timestamp(LocalDateTime.now())
+                .employee(employee)
+                .sourceService(serviceName)
+                .build();
+    }
+
+    /**
+     * Занимает место в окне и отправляет запись; value = null - tombstone
+     */
+    private CompletableFuture<SendOutcome> publish(String topic, String key, String type, Object value,
+                                                   Long employeeId, OverflowPolicy policy) {
+        OutgoingEvent outgoing = new OutgoingEvent(topic, key, type, value, employeeId);
+        if (!acquire(policy)) {
+            return overflow(outgoing, policy);
+        }
+        dispatch(outgoing);
+        return outgoing.result;
+    }
+
+    private static String recordKey(Employee employee) {
+        if (employee.getPersonalCode() != null) {
+            return employee.getPersonalCode();
+        }
+        return employee.getId() != null ? employee.getId().toString() : "default";
+    }
+
+    /**
+     * Одна попытка отправки. Место в окне уже занято вызывающим и освобождается по ответу брокера
+     */
+    private void dispatch(OutgoingEvent outgoing) {
+        outgoing.attempts++;
+        // От send() до подтверждения брокера (или ошибки) -> kafka.send с тегами topic и result
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
             // Отправляем асинхронно с обработкой результата
             CompletableFuture<SendResult<String, Object>> future =
-                    kafkaTemplate.send(targetTopic, key, event);
+                    kafkaTemplates.forTopic(outgoing.topic).send(outgoing.topic, outgoing.key, outgoing.value);
 
             future.whenComplete((result, ex) -> {
+                inFlight.release();
+                recordSend(sample, outgoing.topic, ex == null);
                 if (ex == null) {
-                    log.info("✅ Employee event sent successfully. Type: {}, Employee ID: {}, Topic: {}, Partition: {}",
-                            eventType,
-                            employee.getId(),
-                            result.getRecordMetadata().topic(),
-                            result.getRecordMetadata().partition());
+                    if (sentLog.sample()) {
+                        log.info("✅ Employee event sent successfully. Type: {}, Employee ID: {}, Topic: {}, Partition: {}, " +
+                                        "attempt: {} (sent total: {}, logging 1 of {})",
+                                outgoing.type,
+                                outgoing.employeeId,
+                                result.getRecordMetadata().topic(),
+                                result.getRecordMetadata().partition(),
+                                outgoing.attempts,
+                                sentLog.count(), sentLog.rate());
+                    }
+                    outgoing.result.complete(SendOutcome.ACKED);
                 } else {
-                    log.error("❌ Failed to send employee event. Employee ID: {}, Error: {}",
-                            employee.getId(), ex.getMessage());
-                    // Здесь можно добавить retry логику
+                    onFailure(outgoing, ex);
                 }
             });
 
         } catch (Exception e) {
-            log.error("❌ Error sending employee event to Kafka. Employee ID: {}", employee.getId(), e);
-            // Не бросаем исключение, чтобы не ломать основной поток
+            inFlight.release();
+            recordSend(sample, outgoing.topic, false);
+            // Не бросаем исключение, чтобы не ломать основной поток - повторим через очередь
+            onFailure(outgoing, e);
         }
     }
 
+    /**
+     * Неудачная попытка: повтор с экспоненциальной задержкой, после последней - dead-letter топик.
+     * Вызывается и из сетевого потока продюсера, поэтому здесь только постановка в очередь
+     */
+    private void onFailure(OutgoingEvent outgoing, Throwable ex) {
+        Throwable cause = NestedExceptionUtils.getMostSpecificCause(ex);
+        if (outgoing.attempts < retryQueue.maxAttempts()) {
+            Duration delay = retryQueue.backoff(outgoing.attempts);
+            meterRegistry.counter("kafka.send.retry", "topic", outgoing.topic).increment();
+            if (failedLog.tryAcquire()) {
+                log.warn("⚠️ Failed to send employee event, retry in {} ms. Employee ID: {}, attempt {}/{}, Error: {} " +
+                                "(similar failures suppressed: {})",
+                        delay.toMillis(), outgoing.employeeId, outgoing.attempts, retryQueue.maxAttempts(),
+                        cause.getMessage(), failedLog.drainSuppressed());
+            }
+            retryQueue.schedule(() -> retry(outgoing), delay);
+        } else {
+            // Запись в DLQ и сброс флага в БД - в потоке очереди, а не в сетевом потоке продюсера
+            retryQueue.schedule(() -> deadLetter(outgoing, cause), Duration.ZERO);
+        }
+    }
+
+    /**
+     * Повтор из очереди: поток очереди не ждет места в окне, а откладывает повтор, не тратя попытку.
+     * Запись топика снимков не повторяется как есть: пока она ждала, мог уйти более новый снимок
+     * или tombstone, и старое значение легло бы в сжатый лог последним. Повтор отправляет текущее
+     * состояние сотрудника из БД (или tombstone, если строки уже нет)
+     */
+    private void retry(OutgoingEvent outgoing) {
+        if (outgoing.topic.equals(snapshotTopic)) {
+            try {
+                refreshSnapshot(outgoing);
+            } catch (Exception e) {
+                log.warn("⚠️ Не удалось прочитать текущее состояние сотрудника {} для повтора снимка: {}",
+                        outgoing.key, e.getMessage());
+                retryQueue.schedule(() -> retry(outgoing), retryQueue.backoff(outgoing.attempts));
+                return;
+            }
+        }
+        if (!inFlight.tryAcquire()) {
+            retryQueue.schedule(() -> retry(outgoing), retryQueue.backoff(outgoing.attempts));
+            return;
+        }
+        dispatch(outgoing);
+    }
+
+    private void refreshSnapshot(OutgoingEvent outgoing) {
+        EmployeeKafkaDto current = employeeRepository.findByPersonalCode(outgoing.key)
+                .map(EmployeeKafkaDto::fromEntity)
+                .orElse(null);
+        outgoing.value = current;
+        outgoing.type = current != null ? SNAPSHOT_TYPE : TOMBSTONE_TYPE;
+    }
+
+    /**
+     * Попытки исчерпаны: событие уходит в dead-letter топик с причиной в заголовках,
+     * а сотрудник снова помечается неотправленным, чтобы его подобрала массовая синхронизация
+     */
+    private void deadLetter(OutgoingEvent outgoing, Throwable cause) {
+        meterRegistry.counter("kafka.send.dead.letter", "topic", outgoing.topic).increment();
+        log.error("❌ Employee event moved to DLQ {} after {} attempts. Employee ID: {}, Topic: {}, Error: {}",
+                deadLetterTopic, outgoing.attempts, outgoing.employeeId, outgoing.topic, cause.getMessage());
+
+        ProducerRecord<String, Object> record = new ProducerRecord<>(deadLetterTopic, outgoing.key, outgoing.value);
+        record.headers()
+                .add(KafkaHeaders.DLT_ORIGINAL_TOPIC, outgoing.topic.getBytes(StandardCharsets.UTF_8))
+                .add(KafkaHeaders.DLT_EXCEPTION_FQCN, cause.getClass().getName().getBytes(StandardCharsets.UTF_8))
+                .add(KafkaHeaders.DLT_EXCEPTION_MESSAGE, String.valueOf(cause.getMessage()).getBytes(StandardCharsets.UTF_8))
+                .add(SEND_ATTEMPTS_HEADER, Integer.toString(outgoing.attempts).getBytes(StandardCharsets.UTF_8));
+        try {
+            kafkaTemplates.forTopic(deadLetterTopic).send(record).whenComplete((result, ex) -> {
+                if (ex != null) {
+                    log.error("❌ Failed to write to DLQ {}. Employee ID: {}, Error: {}",
+                            deadLetterTopic, outgoing.employeeId, NestedExceptionUtils.getMostSpecificCause(ex).getMessage());
+                }
+            });
+        } catch (Exception e) {
+            log.error("❌ Failed to write to DLQ {}. Employee ID: {}, Error: {}",
+                    deadLetterTopic, outgoing.employeeId, e.getMessage());
+        }
+
+        if (outgoing.employeeId != null) {
+            markUnsynced(outgoing.employeeId);
+        }
+        outgoing.result.completeExceptionally(cause);
+    }
+
+    /**
+     * Занимает место в окне: BLOCK ждет не дольше block-timeout-ms, остальные политики не ждут
+     */
+    private boolean acquire(OverflowPolicy policy) {
+        if (policy != OverflowPolicy.BLOCK) {
+            return inFlight.tryAcquire();
+        }
+        try {
+            return inFlight.tryAcquire(blockTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Окно заполнено: SPILL оставляет сотрудника массовой синхронизации, DEFER - очереди повторов,
+     * остальные политики - ошибка
+     */
+    private CompletableFuture<SendOutcome> overflow(OutgoingEvent outgoing, OverflowPolicy policy) {
+        Long employeeId = outgoing.employeeId;
+        Counter.builder("kafka.send.overflow")
+                .description("Отправки, не поместившиеся в окно неподтвержденных сообщений")
+                .tag("topic", outgoing.topic)
+                .tag("policy", policy.name())
+                .register(meterRegistry)
+                .increment();
+        if (overflowLog.tryAcquire()) {
+            log.warn("⚠️ Окно отправки в Kafka заполнено ({} сообщений), политика {}. Employee ID: {} " +
+                            "(пропущено похожих: {})",
+                    maxInFlight, policy, employeeId, overflowLog.drainSuppressed());
+        }
+
+        if (policy == OverflowPolicy.DEFER) {
+            // Дальше - обычный путь повторов: ждем места в окне, не тратя попытки, затем ретраи и DLQ
+            retryQueue.schedule(() -> retry(outgoing), retryQueue.backoff(1));
+            return outgoing.result;
+        }
+        if (policy == OverflowPolicy.SPILL && employeeId != null) {
+            // Флаг synced_to_kafka - очередь на отправку массовой синхронизации
+            markUnsynced(employeeId);
+            return CompletableFuture.completedFuture(SendOutcome.SPILLED);
+        }
+        return CompletableFuture.failedFuture(new KafkaBackpressureException(
+                "Окно отправки в Kafka заполнено (" + maxInFlight + " сообщений), политика " + policy));
+    }
+
+    /**
+     * Вернуть сотрудника массовой синхронизации. При переполнении окна таких сотрудников сотни в секунду,
+     * поэтому флаг сбрасывается не по одному, а пачкой из потока очереди повторов
+     */
+    private void markUnsynced(Long employeeId) {
+        pendingUnsynced.add(employeeId);
+        if (unsyncedFlushScheduled.compareAndSet(false, true)) {
+            retryQueue.schedule(this::flushUnsynced, UNSYNCED_FLUSH_DELAY);
+        }
+    }
+
+    private void flushUnsynced() {
+        // Флаг снимается до чтения пачки: добавленные после этого ID запланируют следующий сброс
+        unsyncedFlushScheduled.set(false);
+        List<Long> ids = new ArrayList<>(pendingUnsynced);
+        if (ids.isEmpty()) {
+            return;
+        }
+        pendingUnsynced.removeAll(ids);
+        try {
+            employeeJdbcRepository.markUnsynced(ids);
+        } catch (Exception e) {
+            log.error("❌ Не удалось сбросить флаг synced_to_kafka для {} сотрудников, повтор через {} мс. Ошибка: {}",
+                    ids.size(), retryQueue.backoff(1).toMillis(), e.getMessage());
+            pendingUnsynced.addAll(ids);
+            if (unsyncedFlushScheduled.compareAndSet(false, true)) {
+                retryQueue.schedule(this::flushUnsynced, retryQueue.backoff(1));
+            }
+        }
+    }
+
+    private void recordSend(Timer.Sample sample, String topic, boolean acknowledged) {
+        sample.stop(Timer.builder("kafka.send")
+                .description("Отправка события в Kafka до подтверждения брокером")
+                .tag("topic", topic)
+                .tag("result", acknowledged ? "ack" : "failure")
+                .register(meterRegistry));
+    }
+
     /**
      * Отправка события создания в основной топик
      */
-    public void sendEmployeeCreated(Employee employee) {
-        sendEmployeeEvent(employee, "EMPLOYEE_CREATED", employeeSyncTopic);
+    public EmployeeSendResult sendEmployeeCreated(Employee employee) {
+        return sendEmployeeEvent(employee, "EMPLOYEE_CREATED", employeeSyncTopic);
     }
 
     /**
-     * Отправка события в топик для массовой синхронизации
+     * Отправка события в топик для массовой синхронизации.
+     * Фоновой задаче некуда откладывать события - она всегда ждет места в окне (BLOCK)
      */
-    public void sendEmployeeForBulkSync(Employee employee) {
-        sendEmployeeEvent(employee, "EMPLOYEE_BULK_SYNC", employeeBulkSyncTopic);
+    public EmployeeSendResult sendEmployeeForBulkSync(Employee employee) {
+        return sendEmployeeEvent(employee, "EMPLOYEE_BULK_SYNC", employeeBulkSyncTopic, OverflowPolicy.BLOCK);
+    }
+
+    /**
+     * Событие в пути: переживает повторы и хранит future, которую получил вызывающий
+     */
+    private static final class OutgoingEvent {
+        private final String topic;
+        private final String key;
+        private final Long employeeId;
+        private final CompletableFuture<SendOutcome> result = new CompletableFuture<>();
+        // Меняются только владельцем события: сетевым потоком продюсера или потоком очереди повторов по очереди
+        // (type и value - при повторе записи топика снимков)
+        private String type;
+        private Object value;
+        private int attempts;
+
+        private OutgoingEvent(String topic, String key, String type, Object value, Long employeeId) {
+            this.topic = topic;
+            this.key = key;
+            this.type = type;
+            this.value = value;
+            this.employeeId = employeeId;
+        }
     }
 
     /**
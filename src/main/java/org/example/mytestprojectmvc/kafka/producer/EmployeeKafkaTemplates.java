@@ -0,0 +1,25 @@
+package org.example.mytestprojectmvc.kafka.producer;
+
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.util.Map;
+
+/**
+ * KafkaTemplate для каждого топика сотрудников - со своим профилем продюсера (см. KafkaConfig)
+ */
+public class EmployeeKafkaTemplates {
+
+    private final Map<String, KafkaTemplate<String, Object>> byTopic;
+
+    public EmployeeKafkaTemplates(Map<String, KafkaTemplate<String, Object>> byTopic) {
+        this.byTopic = Map.copyOf(byTopic);
+    }
+
+    public KafkaTemplate<String, Object> forTopic(String topic) {
+        KafkaTemplate<String, Object> template = byTopic.get(topic);
+        if (template == null) {
+            throw new IllegalArgumentException("Для топика " + topic + " не настроен продюсер Kafka");
+        }
+        return template;
+    }
+}
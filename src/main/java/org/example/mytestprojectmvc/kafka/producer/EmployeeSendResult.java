@@ -0,0 +1,21 @@
+package org.example.mytestprojectmvc.kafka.producer;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Итог отправки по сотруднику: событие и запись в топике снимков (снимок или tombstone) завершаются независимо.
+ * snapshot завершен сразу, если записи в топик снимков нет (сотрудник без personal code)
+ *
+ * @param event    событие в основной топик или топик массовой синхронизации
+ * @param snapshot снимок или tombstone в сжимаемый топик
+ */
+public record EmployeeSendResult(CompletableFuture<SendOutcome> event, CompletableFuture<SendOutcome> snapshot) {
+
+    /**
+     * ACKED, только когда брокер подтвердил обе записи: так массовая синхронизация отмечает сотрудника отправленным
+     */
+    public CompletableFuture<SendOutcome> allAcked() {
+        return event.thenCombine(snapshot, (first, second) ->
+                first == SendOutcome.ACKED && second == SendOutcome.ACKED ? SendOutcome.ACKED : SendOutcome.SPILLED);
+    }
+}
@@ -0,0 +1,118 @@
+package org.example.mytestprojectmvc.kafka.producer;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Отложенные повторы отправок в Kafka.
+ *
+ * Задачи лежат в DelayQueue до своего срока, один фоновый поток забирает созревшие и запускает их.
+ * Ни поток запроса, ни сетевой поток продюсера не спят в ожидании повтора: колбэк отправки
+ * только кладет задачу в очередь. Задача должна быть короткой и неблокирующей (сама отправка асинхронна).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class KafkaRetryQueue {
+
+    private final MeterRegistry meterRegistry;
+    private final DelayQueue<DelayedTask> queue = new DelayQueue<>();
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "kafka-retry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${app.kafka.retry.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.kafka.retry.initial-backoff-ms:500}")
+    private long initialBackoffMs;
+
+    @Value("${app.kafka.retry.multiplier:2.0}")
+    private double multiplier;
+
+    @Value("${app.kafka.retry.max-backoff-ms:30000}")
+    private long maxBackoffMs;
+
+    @PostConstruct
+    void start() {
+        Gauge.builder("kafka.retry.queue.size", queue, DelayQueue::size)
+                .description("Отправки в Kafka, ожидающие повтора")
+                .register(meterRegistry);
+        worker.submit(this::drain);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        worker.shutdownNow();
+        if (!queue.isEmpty()) {
+            log.warn("⚠️ Остановка: {} отправок в Kafka не дождались повтора", queue.size());
+        }
+    }
+
+    /**
+     * Сколько всего попыток (включая первую) дается отправке до dead-letter топика
+     */
+    public int maxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Экспоненциальная задержка после failedAttempts неудачных попыток, с ограничением сверху
+     * и случайным разбросом ±20%, чтобы повторы пачки не приходили к брокеру одновременно
+     */
+    public Duration backoff(int failedAttempts) {
+        double delay = initialBackoffMs * Math.pow(multiplier, Math.max(0, failedAttempts - 1));
+        long capped = (long) Math.min(delay, maxBackoffMs);
+        long jitter = (long) (capped * 0.2 * (ThreadLocalRandom.current().nextDouble() * 2 - 1));
+        return Duration.ofMillis(Math.max(0, capped + jitter));
+    }
+
+    public void schedule(Runnable task, Duration delay) {
+        queue.put(new DelayedTask(task, System.nanoTime() + delay.toNanos()));
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    private void drain() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                queue.take().task().run();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.error("❌ Ошибка в задаче повтора отправки в Kafka: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private record DelayedTask(Runnable task, long dueNanos) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueNanos, ((DelayedTask) other).dueNanos);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package org.example.mytestprojectmvc.kafka.producer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Пачка асинхронных отправок: копит future по ID сотрудников и одним ожиданием
+ * собирает, какие из них брокер подтвердил.
+ *
+ * Не потокобезопасна - заполняется и ожидается одним потоком (пачка шарда массовой синхронизации).
+ */
+public class KafkaSendBatch {
+
+    private final List<Long> ids = new ArrayList<>();
+    private final List<CompletableFuture<SendOutcome>> futures = new ArrayList<>();
+
+    public void add(Long id, CompletableFuture<SendOutcome> future) {
+        ids.add(id);
+        futures.add(future);
+    }
+
+    public int size() {
+        return futures.size();
+    }
+
+    /**
+     * Ждет завершения всех отправок, но не дольше timeout.
+     * Не дождавшиеся подтверждения считаются ошибкой - сотрудник остается неотправленным и уйдет при следующем проходе.
+     */
+    public Result await(Duration timeout) {
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                    .get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            // Ошибки и незавершенные отправки разбираем ниже по каждой future
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        List<Long> acked = new ArrayList<>(ids.size());
+        int spilled = 0;
+        int failed = 0;
+        for (int i = 0; i < futures.size(); i++) {
+            CompletableFuture<SendOutcome> future = futures.get(i);
+            if (!future.isDone() || future.isCompletedExceptionally()) {
+                failed++;
+            } else if (future.getNow(null) == SendOutcome.ACKED) {
+                acked.add(ids.get(i));
+            } else {
+                spilled++;
+            }
+        }
+        return new Result(acked, spilled, failed);
+    }
+
+    /**
+     * @param ackedIds ID, запись которых подтверждена брокером
+     * @param spilled  отложено из-за заполненного окна
+     * @param failed   ошибка отправки или не дождались подтверждения
+     */
+    public record Result(List<Long> ackedIds, int spilled, int failed) {
+    }
+}
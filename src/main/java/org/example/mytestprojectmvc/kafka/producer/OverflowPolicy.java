@@ -0,0 +1,18 @@
+package org.example.mytestprojectmvc.kafka.producer;
+
+/**
+ * Что делать с отправкой, когда окно неподтвержденных сообщений продюсера заполнено
+ */
+public enum OverflowPolicy {
+    /** Ждать освобождения места не дольше app.kafka.producer.block-timeout-ms, затем ошибка */
+    BLOCK,
+    /** Сразу завершить отправку ошибкой KafkaBackpressureException */
+    FAIL_FAST,
+    /** Не отправлять, а оставить сотрудника неотправленным (synced_to_kafka = false) - его доставит массовая синхронизация */
+    SPILL,
+    /**
+     * Не ждать и не терять: отложить запись в очередь повторов KafkaRetryQueue, не тратя попытки.
+     * Для записей, у которых нет строки в БД (события удаления, tombstone)
+     */
+    DEFER
+}
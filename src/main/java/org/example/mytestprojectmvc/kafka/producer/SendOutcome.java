@@ -0,0 +1,11 @@
+package org.example.mytestprojectmvc.kafka.producer;
+
+/**
+ * Результат отправки события, если она не завершилась ошибкой
+ */
+public enum SendOutcome {
+    /** Брокер подтвердил запись */
+    ACKED,
+    /** Окно было заполнено, событие отложено до массовой синхронизации */
+    SPILLED
+}
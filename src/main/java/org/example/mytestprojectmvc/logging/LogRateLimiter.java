@@ -0,0 +1,57 @@
+package org.example.mytestprojectmvc.logging;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Ограничение частоты логирования ошибок по времени: не больше одной строки за interval.
+ *
+ * В отличие от LogSampler ошибки не прореживаются по счету: одиночная ошибка попадает
+ * в лог всегда, а при шторме (брокер недоступен) - раз в interval со счетчиком пропущенных.
+ * Нулевой interval - в лог каждая ошибка.
+ *
+ *   if (limiter.tryAcquire()) {
+ *       log.warn("... (пропущено похожих: {})", ..., limiter.drainSuppressed());
+ *   }
+ */
+public final class LogRateLimiter {
+
+    private final long intervalNanos;
+    private final LongSupplier nanoClock;
+    private final AtomicLong nextAllowedAt;
+    private final AtomicLong suppressed = new AtomicLong();
+
+    public LogRateLimiter(Duration interval) {
+        this(interval, System::nanoTime);
+    }
+
+    LogRateLimiter(Duration interval, LongSupplier nanoClock) {
+        this.intervalNanos = Math.max(0, interval.toNanos());
+        this.nanoClock = nanoClock;
+        this.nextAllowedAt = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    /**
+     * true - событие нужно записать в лог; иначе оно учитывается как пропущенное
+     */
+    public boolean tryAcquire() {
+        if (intervalNanos == 0) {
+            return true;
+        }
+        long now = nanoClock.getAsLong();
+        long next = nextAllowedAt.get();
+        if (now - next >= 0 && nextAllowedAt.compareAndSet(next, now + intervalNanos)) {
+            return true;
+        }
+        suppressed.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Сколько событий пропущено с прошлой записи в лог (счетчик обнуляется)
+     */
+    public long drainSuppressed() {
+        return suppressed.getAndSet(0);
+    }
+}
@@ -0,0 +1,43 @@
+package org.example.mytestprojectmvc.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Выборочное логирование частых событий: в лог попадает первое и затем каждое rate-е событие.
+ *
+ * Используется для записей на каждую операцию (успешная отправка в Kafka, создание сотрудника),
+ * которые под нагрузкой дают тысячи строк в секунду. Счетчик событий ведется всегда,
+ * чтобы в попавшей в лог строке было видно, сколько событий она представляет.
+ *
+ *   if (sampler.sample()) {
+ *       log.info("... (всего {}, в лог каждое {}-е)", ..., sampler.count(), sampler.rate());
+ *   }
+ */
+public final class LogSampler {
+
+    private final int rate;
+    private final AtomicLong events = new AtomicLong();
+
+    public LogSampler(int rate) {
+        this.rate = Math.max(1, rate);
+    }
+
+    /**
+     * Учесть событие; true - его нужно записать в лог
+     */
+    public boolean sample() {
+        long ordinal = events.getAndIncrement();
+        return rate == 1 || ordinal % rate == 0;
+    }
+
+    /**
+     * Сколько событий учтено с момента запуска
+     */
+    public long count() {
+        return events.get();
+    }
+
+    public int rate() {
+        return rate;
+    }
+}
@@ -0,0 +1,35 @@
+package org.example.mytestprojectmvc.readmodel;
+
+/**
+ * Оценка размеров объектов в куче (64-битная JVM, сжатые указатели, compact strings)
+ */
+final class ColumnSizes {
+
+    static final int REFERENCE = 4;
+    static final int ARRAY_HEADER = 16;
+
+    private ColumnSizes() {
+    }
+
+    static long stringBytes(String value) {
+        if (value == null) {
+            return 0;
+        }
+        int bytesPerChar = 1;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0xFF) {
+                bytesPerChar = 2; // кириллица хранится в UTF-16
+                break;
+            }
+        }
+        return align(24) + align(ARRAY_HEADER + (long) value.length() * bytesPerChar);
+    }
+
+    static long arrayBytes(int length, int elementBytes) {
+        return align(ARRAY_HEADER + (long) length * elementBytes);
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
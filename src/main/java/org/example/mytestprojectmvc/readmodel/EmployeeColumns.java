@@ -0,0 +1,390 @@
+package org.example.mytestprojectmvc.readmodel;
+
+import org.example.mytestprojectmvc.entity.DTO.EmployeeSummary;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Колоночное хранилище сотрудников на примитивных массивах.
+ *
+ * Строка (row) - позиция в массивах; id, возраст и коды отдела/должности лежат
+ * в long[]/int[], отдел, должность, имя и фамилия закодированы словарями
+ * (значения повторяются, каждое хранится один раз). Индексы:
+ * - битовая карта строк на каждый отдел (и общая карта живых строк);
+ * - гистограмма возрастов для счетчиков без фильтра по отделу;
+ * - LongIntHashMap id -> row;
+ * - LongIntHashMap 64-битный хэш личного кода -> row (строки кода не копируются; при совпадении
+ *   хэшей у разных кодов слот помечается CODE_COLLISION и такой код ищется в БД).
+ * Удаленные строки становятся "дырами" и уплотняются, когда их больше четверти.
+ * Не потокобезопасен: синхронизация - в EmployeeReadModel.
+ */
+public final class EmployeeColumns {
+
+    static final int MAX_AGE = 150;
+    private static final int NO_ROW = -1;
+    private static final int NO_AGE = -1;
+    private static final int CODE_COLLISION = -2;
+    private static final int MIN_COMPACT_HOLES = 1024;
+
+    private long[] ids;
+    private int[] ages;
+    private int[] departmentCodes;
+    private int[] postCodes;
+    private int[] firstNameCodes;
+    private int[] lastNameCodes;
+    private String[] personalCodes;
+
+    private int rows;
+    private int liveRows;
+    private final BitSet live = new BitSet();
+    private final List<BitSet> departmentRows = new ArrayList<>();
+    private final int[] ageHistogram = new int[MAX_AGE + 1];
+    private final LongIntHashMap rowById;
+    private final LongIntHashMap rowByCode;
+    private final StringDictionary departments = new StringDictionary();
+    private final StringDictionary posts = new StringDictionary();
+    private final StringDictionary firstNames = new StringDictionary();
+    private final StringDictionary lastNames = new StringDictionary();
+
+    public EmployeeColumns(int expectedSize) {
+        int capacity = Math.max(expectedSize, 16);
+        ids = new long[capacity];
+        ages = new int[capacity];
+        departmentCodes = new int[capacity];
+        postCodes = new int[capacity];
+        firstNameCodes = new int[capacity];
+        lastNameCodes = new int[capacity];
+        personalCodes = new String[capacity];
+        rowById = new LongIntHashMap(capacity);
+        rowByCode = new LongIntHashMap(capacity);
+    }
+
+    /**
+     * Добавить сотрудника или обновить существующую строку (по id)
+     */
+    public void upsert(EmployeeSummary employee) {
+        long id = employee.getId();
+        int row = rowById.get(id, NO_ROW);
+        if (row == NO_ROW) {
+            row = appendRow(id);
+        } else {
+            unindex(row);
+        }
+
+        ages[row] = employee.getAge() != null ? employee.getAge() : NO_AGE;
+        departmentCodes[row] = departments.encode(employee.getDepartment());
+        postCodes[row] = posts.encode(employee.getPost());
+        firstNameCodes[row] = firstNames.encode(employee.getFirstName());
+        lastNameCodes[row] = lastNames.encode(employee.getLastName());
+        personalCodes[row] = employee.getPersonalCode();
+        index(row);
+    }
+
+    public boolean remove(long id) {
+        int row = rowById.get(id, NO_ROW);
+        if (row == NO_ROW) {
+            return false;
+        }
+        unindex(row);
+        rowById.remove(id);
+        personalCodes[row] = null;
+
+        int holes = rows - liveRows;
+        if (holes >= MIN_COMPACT_HOLES && holes > rows / 4) {
+            compact();
+        }
+        return true;
+    }
+
+    public boolean contains(long id) {
+        return rowById.get(id, NO_ROW) != NO_ROW;
+    }
+
+    public int size() {
+        return liveRows;
+    }
+
+    /**
+     * Количество сотрудников по фильтру (любой параметр может быть null)
+     */
+    public int count(String department, Integer minAge, Integer maxAge) {
+        BitSet candidates = candidates(department);
+        if (candidates == null) {
+            return 0;
+        }
+        boolean ageFilter = minAge != null || maxAge != null;
+        if (!ageFilter) {
+            return candidates.cardinality();
+        }
+        int from = minAge != null ? Math.max(minAge, 0) : 0;
+        int to = maxAge != null ? Math.min(maxAge, MAX_AGE) : MAX_AGE;
+        if (from > to) {
+            return 0;
+        }
+        if (department == null) {
+            int total = 0;
+            for (int age = from; age <= to; age++) {
+                total += ageHistogram[age];
+            }
+            return total;
+        }
+        int total = 0;
+        for (int row = candidates.nextSetBit(0); row >= 0; row = candidates.nextSetBit(row + 1)) {
+            if (ageMatches(row, from, to)) {
+                total++;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Страница сотрудников по фильтру в порядке строк (для загруженных сканом - по возрастанию id)
+     */
+    public List<EmployeeSummary> page(String department, Integer minAge, Integer maxAge, int offset, int limit) {
+        BitSet candidates = candidates(department);
+        if (candidates == null || limit <= 0) {
+            return List.of();
+        }
+        int from = minAge != null ? Math.max(minAge, 0) : 0;
+        int to = maxAge != null ? Math.min(maxAge, MAX_AGE) : MAX_AGE;
+        boolean ageFilter = minAge != null || maxAge != null;
+
+        List<EmployeeSummary> result = new ArrayList<>(Math.min(limit, 256));
+        int skipped = 0;
+        for (int row = candidates.nextSetBit(0); row >= 0 && result.size() < limit;
+             row = candidates.nextSetBit(row + 1)) {
+            if (ageFilter && !ageMatches(row, from, to)) {
+                continue;
+            }
+            if (skipped < offset) {
+                skipped++;
+                continue;
+            }
+            result.add(toSummary(row));
+        }
+        return result;
+    }
+
+    public EmployeeSummary get(long id) {
+        int row = rowById.get(id, NO_ROW);
+        return row == NO_ROW ? null : toSummary(row);
+    }
+
+    /**
+     * Сотрудник по личному коду, заданному участком строки source[from, to) - без копирования подстроки.
+     * null - кода нет в модели или его хэш совпал с хэшем другого кода
+     */
+    public EmployeeSummary getByPersonalCode(String source, int from, int to) {
+        int row = rowByCode.get(codeHash(source, from, to), NO_ROW);
+        if (row < 0) {
+            return null;
+        }
+        String code = personalCodes[row];
+        int length = to - from;
+        return code.length() == length && code.regionMatches(0, source, from, length) ? toSummary(row) : null;
+    }
+
+    public Map<String, Integer> departmentCounts() {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (int code = 0; code < departmentRows.size(); code++) {
+            int count = departmentRows.get(code).cardinality();
+            if (count > 0) {
+                counts.put(departments.decode(code), count);
+            }
+        }
+        return counts;
+    }
+
+    public int[] ageHistogram() {
+        return ageHistogram.clone();
+    }
+
+    /**
+     * Оценка занимаемой памяти в байтах (массивы, индексы, словари и строки)
+     */
+    public long footprintBytes() {
+        int capacity = ids.length;
+        long bytes = ColumnSizes.arrayBytes(capacity, 8)
+                + 5 * ColumnSizes.arrayBytes(capacity, 4)
+                + ColumnSizes.arrayBytes(capacity, ColumnSizes.REFERENCE)
+                + rowById.footprintBytes()
+                + rowByCode.footprintBytes()
+                + bitSetBytes(live)
+                + ColumnSizes.arrayBytes(ageHistogram.length, 4)
+                + departments.footprintBytes()
+                + posts.footprintBytes()
+                + firstNames.footprintBytes()
+                + lastNames.footprintBytes();
+        for (BitSet bitmap : departmentRows) {
+            bytes += bitSetBytes(bitmap);
+        }
+        for (int row = live.nextSetBit(0); row >= 0; row = live.nextSetBit(row + 1)) {
+            bytes += ColumnSizes.stringBytes(personalCodes[row]);
+        }
+        return bytes;
+    }
+
+    // ============= ВНУТРЕННЕЕ =============
+
+    private BitSet candidates(String department) {
+        if (department == null) {
+            return live;
+        }
+        int code = departments.find(department);
+        return code == StringDictionary.NULL_CODE || code >= departmentRows.size() ? null : departmentRows.get(code);
+    }
+
+    /**
+     * Возраст сравнивается так же, как считает гистограмма (с ограничением 0..MAX_AGE)
+     */
+    private boolean ageMatches(int row, int from, int to) {
+        if (ages[row] == NO_AGE) {
+            return false;
+        }
+        int bucket = ageBucket(ages[row]);
+        return bucket >= from && bucket <= to;
+    }
+
+    private static int ageBucket(int age) {
+        return Math.min(Math.max(age, 0), MAX_AGE);
+    }
+
+    private int appendRow(long id) {
+        if (rows == ids.length) {
+            grow(rows + (rows >> 1));
+        }
+        int row = rows++;
+        ids[row] = id;
+        rowById.put(id, row);
+        return row;
+    }
+
+    private void index(int row) {
+        live.set(row);
+        liveRows++;
+        int code = departmentCodes[row];
+        if (code != StringDictionary.NULL_CODE) {
+            while (departmentRows.size() <= code) {
+                departmentRows.add(new BitSet());
+            }
+            departmentRows.get(code).set(row);
+        }
+        if (ages[row] != NO_AGE) {
+            ageHistogram[ageBucket(ages[row])]++;
+        }
+        indexCode(row);
+    }
+
+    private void indexCode(int row) {
+        String code = personalCodes[row];
+        if (code == null) {
+            return;
+        }
+        long hash = codeHash(code, 0, code.length());
+        int existing = rowByCode.get(hash, NO_ROW);
+        if (existing == CODE_COLLISION) {
+            return;
+        }
+        if (existing == NO_ROW || existing == row || code.equals(personalCodes[existing])) {
+            rowByCode.put(hash, row);
+        } else {
+            rowByCode.put(hash, CODE_COLLISION);
+        }
+    }
+
+    private void unindex(int row) {
+        live.clear(row);
+        liveRows--;
+        int code = departmentCodes[row];
+        if (code != StringDictionary.NULL_CODE) {
+            departmentRows.get(code).clear(row);
+        }
+        if (ages[row] != NO_AGE) {
+            ageHistogram[ageBucket(ages[row])]--;
+        }
+        String personalCode = personalCodes[row];
+        if (personalCode != null) {
+            long hash = codeHash(personalCode, 0, personalCode.length());
+            // Метка коллизии остается: такие коды и дальше ищутся в БД
+            if (rowByCode.get(hash, NO_ROW) == row) {
+                rowByCode.remove(hash);
+            }
+        }
+    }
+
+    private void compact() {
+        int target = 0;
+        for (int row = live.nextSetBit(0); row >= 0; row = live.nextSetBit(row + 1), target++) {
+            if (row != target) {
+                ids[target] = ids[row];
+                ages[target] = ages[row];
+                departmentCodes[target] = departmentCodes[row];
+                postCodes[target] = postCodes[row];
+                firstNameCodes[target] = firstNameCodes[row];
+                lastNameCodes[target] = lastNameCodes[row];
+                personalCodes[target] = personalCodes[row];
+                rowById.put(ids[target], target);
+                if (personalCodes[target] != null) {
+                    long hash = codeHash(personalCodes[target], 0, personalCodes[target].length());
+                    if (rowByCode.get(hash, NO_ROW) == row) {
+                        rowByCode.put(hash, target);
+                    }
+                }
+            }
+        }
+        Arrays.fill(personalCodes, target, rows, null);
+
+        rows = target;
+        live.clear();
+        live.set(0, rows);
+        departmentRows.forEach(BitSet::clear);
+        for (int row = 0; row < rows; row++) {
+            int code = departmentCodes[row];
+            if (code != StringDictionary.NULL_CODE) {
+                departmentRows.get(code).set(row);
+            }
+        }
+    }
+
+    private void grow(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        ages = Arrays.copyOf(ages, capacity);
+        departmentCodes = Arrays.copyOf(departmentCodes, capacity);
+        postCodes = Arrays.copyOf(postCodes, capacity);
+        firstNameCodes = Arrays.copyOf(firstNameCodes, capacity);
+        lastNameCodes = Arrays.copyOf(lastNameCodes, capacity);
+        personalCodes = Arrays.copyOf(personalCodes, capacity);
+    }
+
+    private EmployeeSummary toSummary(int row) {
+        return new EmployeeSummary(
+                ids[row],
+                personalCodes[row],
+                firstNames.decode(firstNameCodes[row]),
+                lastNames.decode(lastNameCodes[row]),
+                departments.decode(departmentCodes[row]),
+                ages[row] != NO_AGE ? ages[row] : null,
+                posts.decode(postCodes[row]));
+    }
+
+    /**
+     * FNV-1a (64 бита) по символам участка строки
+     */
+    static long codeHash(String source, int from, int to) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = from; i < to; i++) {
+            hash ^= source.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash == Long.MIN_VALUE ? hash + 1 : hash;
+    }
+
+    private static long bitSetBytes(BitSet bitSet) {
+        return 32L + ColumnSizes.arrayBytes((bitSet.size() + 63) / 64, 8);
+    }
+}
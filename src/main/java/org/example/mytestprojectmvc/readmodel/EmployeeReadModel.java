@@ -0,0 +1,232 @@
+package org.example.mytestprojectmvc.readmodel;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.mytestprojectmvc.entity.DTO.EmployeePage;
+import org.example.mytestprojectmvc.entity.DTO.EmployeeSummary;
+import org.example.mytestprojectmvc.repository.EmployeeRepository;
+import org.example.mytestprojectmvc.repository.TransactionHooks;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Read model сотрудников в памяти процесса (EmployeeColumns).
+ *
+ * Строится после старта приложения потоковым сканом employees и дальше
+ * поддерживается записями: JPA - через EmployeeChangeListener, JDBC-батчи -
+ * через refreshAfterCommit. Пока модель не построена, isReady() = false
+ * и вызывающий код должен идти в БД.
+ */
+@Slf4j
+@Component
+public class EmployeeReadModel {
+
+    private final EmployeeRepository repository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Set<Long> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "read-model-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${app.read-model.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.read-model.expected-size:10000}")
+    private int expectedSize;
+
+    private EmployeeColumns columns = new EmployeeColumns(16);
+    private volatile boolean ready;
+    private volatile boolean rebuilding;
+
+    public EmployeeReadModel(EmployeeRepository repository, PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void buildOnStartup() {
+        if (enabled) {
+            rebuildExecutor.submit(this::rebuild);
+        } else {
+            log.info("Read model сотрудников отключена (app.read-model.enabled=false)");
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Полная перестройка модели потоковым сканом таблицы
+     */
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        rebuilding = true;
+        try {
+            EmployeeColumns fresh = new EmployeeColumns(expectedSize);
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<EmployeeSummary> rows = repository.streamSummaries()) {
+                    rows.forEach(fresh::upsert);
+                }
+            });
+
+            Set<Long> missed;
+            lock.writeLock().lock();
+            try {
+                columns = fresh;
+                rebuilding = false;
+                missed = new HashSet<>(changedDuringRebuild);
+                changedDuringRebuild.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            // Записи, закоммиченные во время скана, могли в него не попасть - перечитываем их
+            refresh(missed);
+            ready = true;
+
+            ReadModelStats stats = stats();
+            log.info("✅ Read model сотрудников построена: {} записей, ~{} КБ, {} мс",
+                    stats.getEmployees(), stats.getFootprintBytes() / 1024, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            rebuilding = false;
+            log.error("❌ Не удалось построить read model сотрудников, запросы пойдут в БД", e);
+        }
+    }
+
+    // ============= ОБНОВЛЕНИЯ ИЗ ПУТИ ЗАПИСИ =============
+
+    public void upsertAfterCommit(EmployeeSummary employee) {
+        if (enabled && employee.getId() != null) {
+            TransactionHooks.afterCommit(() -> write(employee.getId(), columns -> columns.upsert(employee)));
+        }
+    }
+
+    public void removeAfterCommit(Long id) {
+        if (enabled && id != null) {
+            TransactionHooks.afterCommit(() -> write(id, columns -> columns.remove(id)));
+        }
+    }
+
+    /**
+     * Убрать удаленные строки после коммита (для удалений в обход JPA)
+     */
+    public void removeAfterCommit(Collection<Long> ids) {
+        if (enabled && !ids.isEmpty()) {
+            List<Long> snapshot = List.copyOf(ids);
+            TransactionHooks.afterCommit(() -> snapshot.forEach(id -> write(id, columns -> columns.remove(id))));
+        }
+    }
+
+    /**
+     * Перечитать строки из БД после коммита (для записей в обход JPA)
+     */
+    public void refreshAfterCommit(Collection<Long> ids) {
+        if (enabled && !ids.isEmpty()) {
+            List<Long> snapshot = List.copyOf(ids);
+            TransactionHooks.afterCommit(() -> refresh(snapshot));
+        }
+    }
+
+    private void refresh(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        Set<Long> missing = new HashSet<>(ids);
+        for (EmployeeSummary employee : repository.findSummariesByIdIn(ids)) {
+            missing.remove(employee.getId());
+            write(employee.getId(), columns -> columns.upsert(employee));
+        }
+        missing.forEach(id -> write(id, columns -> columns.remove(id)));
+    }
+
+    private void write(Long id, Consumer<EmployeeColumns> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(columns);
+            if (rebuilding) {
+                changedDuringRebuild.add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ============= ЗАПРОСЫ =============
+
+    public int count(String department, Integer minAge, Integer maxAge) {
+        return read(columns -> columns.count(department, minAge, maxAge));
+    }
+
+    /**
+     * Счетчик и страница по фильтру, согласованные между собой (под одной блокировкой)
+     */
+    public EmployeePage query(String department, Integer minAge, Integer maxAge, int page, int size) {
+        return read(columns -> new EmployeePage(
+                columns.count(department, minAge, maxAge),
+                page,
+                size,
+                "memory",
+                columns.page(department, minAge, maxAge, page * size, size)));
+    }
+
+    public List<EmployeeSummary> all() {
+        return read(columns -> columns.page(null, null, null, 0, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Поиск по личному коду, заданному участком строки (например, полем распознанного QR).
+     * null - нет в памяти, вызывающий код идет в БД
+     */
+    public EmployeeSummary findByPersonalCode(String source, int from, int to) {
+        return read(columns -> columns.getByPersonalCode(source, from, to));
+    }
+
+    public ReadModelStats stats() {
+        return read(columns -> {
+            Map<String, Integer> departments = columns.departmentCounts();
+            long footprint = columns.footprintBytes();
+            return new ReadModelStats(
+                    ready,
+                    columns.size(),
+                    departments,
+                    columns.ageHistogram(),
+                    footprint,
+                    columns.size() > 0 ? footprint / columns.size() : 0);
+        });
+    }
+
+    private <T> T read(Function<EmployeeColumns, T> query) {
+        lock.readLock().lock();
+        try {
+            return query.apply(columns);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
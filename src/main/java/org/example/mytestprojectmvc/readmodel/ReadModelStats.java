@@ -0,0 +1,21 @@
+package org.example.mytestprojectmvc.readmodel;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * Состояние read model: размер, распределения и оценка занимаемой памяти
+ */
+@Data
+@AllArgsConstructor
+public class ReadModelStats {
+
+    private boolean ready;
+    private int employees;
+    private Map<String, Integer> departments;
+    private int[] ageHistogram;
+    private long footprintBytes;
+    private long bytesPerEmployee;
+}
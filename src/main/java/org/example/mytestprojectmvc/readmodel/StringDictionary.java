@@ -0,0 +1,57 @@
+package org.example.mytestprojectmvc.readmodel;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Словарное кодирование строк: каждое уникальное значение хранится один раз,
+ * в колонках лежит его int-код. null кодируется как -1. Не потокобезопасен.
+ */
+final class StringDictionary {
+
+    static final int NULL_CODE = -1;
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    int encode(String value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = values.size();
+            codes.put(value, code);
+            values.add(value);
+        }
+        return code;
+    }
+
+    /**
+     * Код без добавления нового значения (NULL_CODE, если значения нет)
+     */
+    int find(String value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+        return codes.getOrDefault(value, NULL_CODE);
+    }
+
+    String decode(int code) {
+        return code == NULL_CODE ? null : values.get(code);
+    }
+
+    int size() {
+        return values.size();
+    }
+
+    long footprintBytes() {
+        long bytes = 64L + values.size() * 48L;
+        for (String value : values) {
+            bytes += ColumnSizes.stringBytes(value);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,92 @@
+package org.example.mytestprojectmvc.repository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.mytestprojectmvc.cache.CacheCodecs;
+import org.example.mytestprojectmvc.cache.SharedCacheManager;
+import org.example.mytestprojectmvc.entity.Employee;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Сброс кэшей сотрудников после записей в employees.
+ *
+ * JPQL-апдейты (например updateSyncStatusByIds) Hibernate инвалидирует сам,
+ * а про JDBC-батчи он не знает - их нужно сбрасывать явно и только после коммита,
+ * иначе параллельная транзакция успеет положить в кэш старое значение.
+ * Second-level cache у каждого экземпляра свой, поэтому о любой записи (и через JPA -
+ * EmployeeChangeListener) остальные экземпляры узнают сообщением в канале инвалидации
+ * и сбрасывают у себя эти записи.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmployeeCacheEvictor {
+
+    private static final String INVALIDATION_CHANNEL = "employee";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final SharedCacheManager cacheManager;
+
+    @PostConstruct
+    void init() {
+        cacheManager.onRemoteInvalidation(INVALIDATION_CHANNEL, CacheCodecs.LONG,
+                id -> hibernateCache().evictEntityData(Employee.class, id));
+    }
+
+    /**
+     * Сброс всех кэшей после записи в обход JPA
+     */
+    public void evictAfterCommit(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<Long> snapshot = List.copyOf(ids);
+        TransactionHooks.afterCommit(() -> evict(snapshot));
+    }
+
+    /**
+     * Сброс после смены одного флага synced_to_kafka в обход JPA: только записи этих сотрудников
+     * в second-level cache и кэши запросов (счетчик неотправленных). Краткие данные флаг не содержат
+     */
+    public void evictSyncFlagAfterCommit(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<Long> snapshot = List.copyOf(ids);
+        TransactionHooks.afterCommit(() -> {
+            org.hibernate.Cache cache = hibernateCache();
+            snapshot.forEach(id -> cache.evictEntityData(Employee.class, id));
+            cache.evictQueryRegions();
+        });
+    }
+
+    /**
+     * Сообщить другим экземплярам о записи через JPA (свой second-level cache Hibernate обновляет сам)
+     */
+    public void evictSharedAfterCommit(Long id) {
+        if (id == null) {
+            return;
+        }
+        TransactionHooks.afterCommit(() ->
+                cacheManager.publishInvalidation(INVALIDATION_CHANNEL, CacheCodecs.LONG, List.of(id)));
+    }
+
+    private void evict(List<Long> ids) {
+        org.hibernate.Cache cache = hibernateCache();
+        ids.forEach(id -> cache.evictEntityData(Employee.class, id));
+        cache.evictNaturalIdData(Employee.class);
+        cache.evictQueryRegions();
+        cacheManager.publishInvalidation(INVALIDATION_CHANNEL, CacheCodecs.LONG, ids);
+        log.debug("Сброшен кэш Hibernate для {} сотрудников", ids.size());
+    }
+
+    private org.hibernate.Cache hibernateCache() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+}
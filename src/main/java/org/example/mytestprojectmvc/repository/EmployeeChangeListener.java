@@ -0,0 +1,38 @@
+package org.example.mytestprojectmvc.repository;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.example.mytestprojectmvc.entity.DTO.EmployeeSummary;
+import org.example.mytestprojectmvc.entity.Employee;
+import org.example.mytestprojectmvc.readmodel.EmployeeReadModel;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA-слушатель записей Employee (Spring-бин: Hibernate берет его из контекста).
+ * Сами действия выполняются после коммита транзакции. Зависимости берутся лениво:
+ * слушатель создается вместе с EntityManagerFactory, а им самим нужна готовая фабрика.
+ */
+@Component
+@RequiredArgsConstructor
+public class EmployeeChangeListener {
+
+    private final ObjectProvider<EmployeeCacheEvictor> cacheEvictor;
+    private final ObjectProvider<EmployeeReadModel> readModel;
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Employee employee) {
+        cacheEvictor.getObject().evictSharedAfterCommit(employee.getId());
+        // Снимок берем сейчас: к моменту коммита сущность может измениться еще раз
+        readModel.getObject().upsertAfterCommit(EmployeeSummary.from(employee));
+    }
+
+    @PostRemove
+    public void onRemove(Employee employee) {
+        cacheEvictor.getObject().evictSharedAfterCommit(employee.getId());
+        readModel.getObject().removeAfterCommit(employee.getId());
+    }
+}
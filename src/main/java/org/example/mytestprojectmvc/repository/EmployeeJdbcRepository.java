@@ -0,0 +1,303 @@
+package org.example.mytestprojectmvc.repository;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.example.mytestprojectmvc.entity.Employee;
+import org.example.mytestprojectmvc.kafka.producer.EmployeeKafkaProducer.EmployeeKafkaDto;
+import org.example.mytestprojectmvc.readmodel.EmployeeReadModel;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Пакетные операции над employees в обход JPA (без загрузки сущностей и dirty checking)
+ */
+@Timed("repository.jdbc")
+@Repository
+@RequiredArgsConstructor
+public class EmployeeJdbcRepository {
+
+    // Что нужно об удаленном сотруднике для события и лога - без QR-колонок
+    private static final String DELETE_RETURNING = """
+            DELETE FROM employees
+            WHERE %s
+            RETURNING id, personal_code, first_name, last_name, department
+            """;
+
+    private static final RowMapper<DeletedEmployee> DELETED_EMPLOYEE = (rs, rowNum) -> new DeletedEmployee(
+            rs.getLong("id"),
+            rs.getString("personal_code"),
+            rs.getString("first_name"),
+            rs.getString("last_name"),
+            rs.getString("department"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EmployeeCacheEvictor cacheEvictor;
+    private final EmployeeReadModel readModel;
+
+    /**
+     * Записывает personal code, данные и изображение QR-кода одним JDBC-батчем.
+     * Строки, где qr_content_hash уже совпадает, не перезаписываются
+     */
+    public int batchUpdateQrCodes(List<Employee> employees) {
+        if (employees.isEmpty()) {
+            return 0;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        int[] updated = jdbcTemplate.batchUpdate("""
+                UPDATE employees
+                SET personal_code = ?, qr_data = ?, qr_code_image = ?, qr_code_base64 = ?, qr_content_hash = ?,
+                    created_at = COALESCE(created_at, ?), updated_at = ?
+                WHERE id = ? AND qr_content_hash IS DISTINCT FROM ?
+                """, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Employee employee = employees.get(i);
+                ps.setString(1, employee.getPersonalCode());
+                ps.setString(2, employee.getQrCodeData());
+                ps.setBytes(3, employee.getQrCodeImage());
+                ps.setString(4, employee.getQrCodeBase64());
+                ps.setString(5, employee.getQrContentHash());
+                ps.setTimestamp(6, employee.getCreatedAt() != null ? Timestamp.valueOf(employee.getCreatedAt()) : now);
+                ps.setTimestamp(7, now);
+                ps.setLong(8, employee.getId());
+                ps.setString(9, employee.getQrContentHash());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return employees.size();
+            }
+        });
+
+        List<Long> ids = employees.stream().map(Employee::getId).toList();
+        cacheEvictor.evictAfterCommit(ids);
+        readModel.refreshAfterCommit(ids);
+
+        int total = 0;
+        for (int count : updated) {
+            total += Math.max(count, 0);
+        }
+        return total;
+    }
+
+    /**
+     * Вставка или обновление сотрудников из событий Kafka одним запросом (массивы + unnest) по personal_code.
+     * Строка меняется, только если данные отличаются (повтор события ничего не пишет);
+     * при изменении QR сбрасывается и перегенерируется QrEmpLocalSync. personal_code в списке должны быть уникальны.
+     * Возвращает ID вставленных и измененных строк
+     */
+    public List<Long> upsertFromEvents(List<EmployeeKafkaDto> employees) {
+        if (employees.isEmpty()) {
+            return List.of();
+        }
+        int size = employees.size();
+        String[] personalCodes = new String[size];
+        String[] firstNames = new String[size];
+        String[] lastNames = new String[size];
+        Integer[] ages = new Integer[size];
+        String[] departments = new String[size];
+        String[] posts = new String[size];
+        Timestamp[] createdAt = new Timestamp[size];
+        for (int i = 0; i < size; i++) {
+            EmployeeKafkaDto employee = employees.get(i);
+            personalCodes[i] = employee.getPersonalCode();
+            firstNames[i] = employee.getFirstName();
+            lastNames[i] = employee.getLastName();
+            ages[i] = employee.getAge();
+            departments[i] = employee.getDepartment();
+            posts[i] = employee.getPost();
+            createdAt[i] = employee.getCreatedAt() != null ? Timestamp.valueOf(employee.getCreatedAt()) : null;
+        }
+
+        List<Long> ids = jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement("""
+                    INSERT INTO employees (personal_code, first_name, last_name, age, department, post,
+                                           created_at, updated_at, synced_to_kafka, kafka_sync_date)
+                    SELECT e.personal_code, e.first_name, e.last_name, e.age, e.department, e.post,
+                           COALESCE(e.created_at, now()), now(), TRUE, now()
+                    FROM unnest(?::varchar[], ?::varchar[], ?::varchar[], ?::int[], ?::varchar[], ?::varchar[], ?::timestamp[])
+                         AS e(personal_code, first_name, last_name, age, department, post, created_at)
+                    ON CONFLICT (personal_code) DO UPDATE
+                    SET first_name = EXCLUDED.first_name, last_name = EXCLUDED.last_name, age = EXCLUDED.age,
+                        department = EXCLUDED.department, post = EXCLUDED.post, updated_at = now(),
+                        qr_data = NULL, qr_code_image = NULL, qr_code_base64 = NULL, qr_content_hash = NULL
+                    WHERE (employees.first_name, employees.last_name, employees.age, employees.department, employees.post)
+                          IS DISTINCT FROM
+                          (EXCLUDED.first_name, EXCLUDED.last_name, EXCLUDED.age, EXCLUDED.department, EXCLUDED.post)
+                    RETURNING id
+                    """);
+            ps.setArray(1, connection.createArrayOf("varchar", personalCodes));
+            ps.setArray(2, connection.createArrayOf("varchar", firstNames));
+            ps.setArray(3, connection.createArrayOf("varchar", lastNames));
+            ps.setArray(4, connection.createArrayOf("int4", ages));
+            ps.setArray(5, connection.createArrayOf("varchar", departments));
+            ps.setArray(6, connection.createArrayOf("varchar", posts));
+            ps.setArray(7, connection.createArrayOf("timestamp", createdAt));
+            return ps;
+        }, (rs, rowNum) -> rs.getLong(1));
+
+        cacheEvictor.evictAfterCommit(ids);
+        readModel.refreshAfterCommit(ids);
+        return ids;
+    }
+
+    /**
+     * Снова поставить сотрудников в очередь массовой синхронизации одним запросом.
+     * Не через JPQL: bulk-апдейт Hibernate сбросил бы весь регион employees в second-level cache
+     */
+    public int markUnsynced(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        int updated = jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                    "UPDATE employees SET synced_to_kafka = false WHERE id = ANY (?) AND synced_to_kafka IS NOT FALSE");
+            ps.setArray(1, connection.createArrayOf("int8", ids.toArray()));
+            return ps;
+        });
+        cacheEvictor.evictSyncFlagAfterCommit(ids);
+        return updated;
+    }
+
+    /**
+     * Удаление по списку ID одним запросом. Несуществующие ID просто не попадают в результат
+     */
+    public List<DeletedEmployee> deleteByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return afterDelete(jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(DELETE_RETURNING.formatted("id = ANY (?)"));
+            ps.setArray(1, connection.createArrayOf("int8", ids.toArray()));
+            return ps;
+        }, DELETED_EMPLOYEE));
+    }
+
+    /**
+     * Удаление всего отдела одним запросом
+     */
+    public List<DeletedEmployee> deleteByDepartment(String department) {
+        return afterDelete(jdbcTemplate.query(DELETE_RETURNING.formatted("department = ?"),
+                DELETED_EMPLOYEE, department));
+    }
+
+    /**
+     * Удаление по personal code (события удаления из Kafka) одним запросом
+     */
+    public List<DeletedEmployee> deleteByPersonalCodes(Collection<String> personalCodes) {
+        if (personalCodes.isEmpty()) {
+            return List.of();
+        }
+        return afterDelete(jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(DELETE_RETURNING.formatted("personal_code = ANY (?)"));
+            ps.setArray(1, connection.createArrayOf("varchar", personalCodes.toArray()));
+            return ps;
+        }, DELETED_EMPLOYEE));
+    }
+
+    /**
+     * Агрегаты по отделам пересчитывают триггеры в той же транзакции; кэши и read model - после коммита
+     */
+    private List<DeletedEmployee> afterDelete(List<DeletedEmployee> deleted) {
+        List<Long> ids = deleted.stream().map(DeletedEmployee::id).toList();
+        cacheEvictor.evictAfterCommit(ids);
+        readModel.removeAfterCommit(ids);
+        return deleted;
+    }
+
+    /**
+     * Изображения QR, которые еще лежат в колонке qr_code_image (keyset-пагинация по id)
+     */
+    public List<StoredQrImage> findStoredQrImagesAfter(long lastId, int limit) {
+        return jdbcTemplate.query("""
+                SELECT id, qr_data, qr_code_image, qr_content_hash
+                FROM employees
+                WHERE id > ? AND qr_code_image IS NOT NULL
+                ORDER BY id
+                LIMIT ?
+                """, (rs, rowNum) -> new StoredQrImage(
+                rs.getLong("id"),
+                rs.getString("qr_data"),
+                rs.getBytes("qr_code_image"),
+                rs.getString("qr_content_hash")), lastId, limit);
+    }
+
+    /**
+     * Убирает перенесенные во внешнее хранилище изображения из колонки и записывает их хэш.
+     * Строка, QR которой перегенерирован после чтения (хэш изменился), не трогается
+     */
+    public int detachQrImages(List<StoredQrImage> images, List<String> contentHashes) {
+        if (images.isEmpty()) {
+            return 0;
+        }
+        int[] updated = jdbcTemplate.batchUpdate("""
+                UPDATE employees
+                SET qr_code_image = NULL, qr_content_hash = ?
+                WHERE id = ? AND qr_code_image IS NOT NULL AND qr_content_hash IS NOT DISTINCT FROM ?
+                """, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setString(1, contentHashes.get(i));
+                ps.setLong(2, images.get(i).id());
+                ps.setString(3, images.get(i).contentHash());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return images.size();
+            }
+        });
+
+        cacheEvictor.evictAfterCommit(images.stream().map(StoredQrImage::id).toList());
+
+        int total = 0;
+        for (int count : updated) {
+            total += Math.max(count, 0);
+        }
+        return total;
+    }
+
+    /**
+     * Потоковый обход хэшей содержимого всех QR-кодов (вызывать в транзакции - иначе драйвер
+     * Postgres прочитает весь результат в память)
+     */
+    public void forEachQrContentHash(Consumer<String> action) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                    "SELECT qr_content_hash FROM employees WHERE qr_content_hash IS NOT NULL");
+            ps.setFetchSize(1000);
+            return ps;
+        }, (RowCallbackHandler) rs -> action.accept(rs.getString(1)));
+    }
+
+    public record StoredQrImage(long id, String qrData, byte[] image, String contentHash) {
+    }
+
+    public record DeletedEmployee(long id, String personalCode, String firstName, String lastName, String department) {
+
+        /**
+         * Данные для события EMPLOYEE_DELETED
+         */
+        public EmployeeKafkaDto toKafkaDto() {
+            return EmployeeKafkaDto.builder()
+                    .id(id)
+                    .personalCode(personalCode)
+                    .firstName(firstName)
+                    .lastName(lastName)
+                    .department(department)
+                    .build();
+        }
+    }
+}
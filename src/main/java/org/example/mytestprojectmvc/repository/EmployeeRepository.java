@@ -1,21 +1,44 @@
 package org.example.mytestprojectmvc.repository;
 
+import jakarta.persistence.QueryHint;
+import org.example.mytestprojectmvc.entity.DTO.EmployeeQrExportRow;
+import org.example.mytestprojectmvc.entity.DTO.EmployeeSummary;
 import org.example.mytestprojectmvc.entity.Employee;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface EmployeeRepository extends JpaRepository<Employee, Long> {
 
     List<Employee> findByQrCodeImageIsNull();
 
+    /**
+     * Следующая пачка id сотрудников без QR-кода после afterId (keyset-пагинация).
+     * При файловом хранилище qr_code_image пуст, сгенерированный QR узнается по qr_content_hash
+     */
+    @Query("SELECT e.id FROM Employee e WHERE e.qrCodeImage IS NULL AND e.qrContentHash IS NULL " +
+            "AND e.id > :afterId ORDER BY e.id")
+    List<Long> findIdsWithoutQrCodeAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Сколько сотрудников ждут догенерации QR (то же условие, что и в findIdsWithoutQrCodeAfter)
+     */
+    @Query("SELECT COUNT(e) FROM Employee e WHERE e.qrCodeImage IS NULL AND e.qrContentHash IS NULL")
+    long countWithoutQrCode();
+
     @Query("SELECT e FROM Employee e WHERE " +
             "e.firstName IN :firstNames AND " +
             "e.lastName IN :lastNames AND " +
@@ -27,14 +50,80 @@ public interface EmployeeRepository extends JpaRepository<Employee, Long> {
             @Param("ages") List<Integer> ages,
             @Param("departments") List<String> departments);
 
+    /**
+     * Сотрудник по personal code в обход кэша natural id (текущее состояние для повтора снимка в Kafka)
+     */
+    Optional<Employee> findByPersonalCode(String personalCode);
+
     @Query("SELECT e from Employee e where e.syncedToKafka = false")
     List<Employee> findAllSyncedToKafkaIsFalse();
 
+    /**
+     * Следующая пачка неотправленных в Kafka сотрудников шарда после afterId (keyset-пагинация).
+     * Шард - остаток id по модулю shardCount (при shardCount = 1 - все записи).
+     */
+    @Query("SELECT e FROM Employee e WHERE e.syncedToKafka = false AND e.id > :afterId " +
+            "AND MOD(e.id, :shardCount) = :shard ORDER BY e.id")
+    List<Employee> findUnsyncedChunk(@Param("afterId") Long afterId,
+                                     @Param("shardCount") int shardCount,
+                                     @Param("shard") int shard,
+                                     Pageable pageable);
+
     @Modifying
     @Query("UPDATE Employee e SET e.syncedToKafka = true, e.kafkaSyncDate = CURRENT_TIMESTAMP WHERE e.id IN :ids")
     @Transactional
     int updateSyncStatusByIds(@Param("ids") List<Long> ids);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT COUNT(e) FROM Employee e WHERE e.syncedToKafka = false")
     long countBySyncedToKafkaFalse();
+
+    /**
+     * Курсорное чтение QR-кодов для выгрузки (department = null - все сотрудники).
+     * Должно вызываться внутри транзакции, поток нужно закрывать.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new org.example.mytestprojectmvc.entity.DTO.EmployeeQrExportRow(" +
+            "e.id, e.personalCode, e.firstName, e.lastName, e.department, e.age, e.post, e.qrCodeImage, e.qrContentHash, e.createdAt) " +
+            "FROM Employee e WHERE (:department IS NULL OR e.department = :department) ORDER BY e.id")
+    Stream<EmployeeQrExportRow> streamQrExportRows(@Param("department") String department);
+
+    /**
+     * Потоковое чтение кратких данных всех сотрудников (без QR-колонок) для read model
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new org.example.mytestprojectmvc.entity.DTO.EmployeeSummary(" +
+            "e.id, e.personalCode, e.firstName, e.lastName, e.department, e.age, e.post) " +
+            "FROM Employee e ORDER BY e.id")
+    Stream<EmployeeSummary> streamSummaries();
+
+    @Query("SELECT new org.example.mytestprojectmvc.entity.DTO.EmployeeSummary(" +
+            "e.id, e.personalCode, e.firstName, e.lastName, e.department, e.age, e.post) " +
+            "FROM Employee e WHERE e.id IN :ids")
+    List<EmployeeSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT new org.example.mytestprojectmvc.entity.DTO.EmployeeSummary(" +
+            "e.id, e.personalCode, e.firstName, e.lastName, e.department, e.age, e.post) " +
+            "FROM Employee e ORDER BY e.id")
+    List<EmployeeSummary> findAllSummaries();
+
+    /**
+     * Страница кратких данных по фильтру (запасной путь, пока read model не построена)
+     */
+    @Query(value = "SELECT new org.example.mytestprojectmvc.entity.DTO.EmployeeSummary(" +
+            "e.id, e.personalCode, e.firstName, e.lastName, e.department, e.age, e.post) " +
+            "FROM Employee e WHERE (:department IS NULL OR e.department = :department) " +
+            "AND (:minAge IS NULL OR e.age >= :minAge) AND (:maxAge IS NULL OR e.age <= :maxAge) ORDER BY e.id",
+            countQuery = "SELECT COUNT(e) FROM Employee e WHERE (:department IS NULL OR e.department = :department) " +
+                    "AND (:minAge IS NULL OR e.age >= :minAge) AND (:maxAge IS NULL OR e.age <= :maxAge)")
+    Page<EmployeeSummary> findSummaries(@Param("department") String department,
+                                        @Param("minAge") Integer minAge,
+                                        @Param("maxAge") Integer maxAge,
+                                        Pageable pageable);
 }
@@ -0,0 +1,143 @@
+package org.example.mytestprojectmvc.repository;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.example.mytestprojectmvc.entity.DTO.EmployeePage;
+import org.example.mytestprojectmvc.entity.DTO.EmployeeSummary;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Полнотекстовый и триграммный поиск по сотрудникам (колонки search_text / search_vector, см. 008-add-employee-search).
+ *
+ * Строка совпадает, если все слова запроса являются префиксами слов сотрудника (GIN по search_vector)
+ * или весь запрос входит подстрокой в имя/фамилию/отдел/должность/личный код (GIN gin_trgm_ops по search_text).
+ * Ранжируются не больше maxCandidates совпадений - первых, что отдали индексы, без сортировки всех совпадений
+ * (широкий запрос вроде отдела совпадает с сотнями тысяч строк), плюс точное совпадение личного кода,
+ * которое берется по уникальному индексу и не вытесняется лимитом. Итоговый ранг: точный личный код,
+ * вес поля (ts_rank), похожесть строки. Если совпадений больше лимита, в ответе totalCapped.
+ * Тот же запрос замеряет src/test/resources/db/search-benchmark.sql.
+ */
+@Timed("repository.jdbc")
+@Repository
+@RequiredArgsConstructor
+public class EmployeeSearchRepository {
+
+    /**
+     * Короче трех символов триграммный индекс не помогает - такие запросы ищутся только по префиксам слов
+     */
+    private static final int MIN_SUBSTRING_LENGTH = 3;
+
+    /**
+     * Кандидаты на ранжирование: точный личный код (личные коды хранятся в верхнем регистре)
+     * и первые candidateLimit совпадений. ORDER BY до LIMIT не ставим: ради него БД прочитала бы
+     * и оценила все совпадения, и лимит перестал бы ограничивать стоимость запроса.
+     * candidateLimit на единицу больше maxCandidates - лишняя строка показывает, что совпадения обрезаны
+     */
+    private static final String CANDIDATES = """
+            SELECT id, personal_code, first_name, last_name, department, age, post,
+                   search_text, search_vector, true AS exact
+            FROM employees
+            WHERE personal_code = upper(:term)
+            UNION ALL
+            (SELECT id, personal_code, first_name, last_name, department, age, post,
+                    search_text, search_vector, false AS exact
+             FROM employees
+             WHERE (search_vector @@ to_tsquery('simple', CAST(:tsQuery AS TEXT))
+                    OR search_text LIKE CAST(:pattern AS TEXT))
+               AND personal_code <> upper(:term)
+             LIMIT :candidateLimit)
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Value("${app.search.max-candidates:1000}")
+    private int maxCandidates;
+
+    public EmployeePage search(String query, int page, int size) {
+        String term = normalize(query);
+        String tsQuery = toPrefixTsQuery(term);
+        boolean substring = term.length() >= MIN_SUBSTRING_LENGTH;
+        if (tsQuery.isEmpty() && !substring) {
+            return new EmployeePage(0, page, size, "search", List.of());
+        }
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("term", term)
+                .addValue("tsQuery", tsQuery.isEmpty() ? null : tsQuery)
+                .addValue("pattern", substring ? "%" + escapeLike(term) + "%" : null)
+                .addValue("candidateLimit", maxCandidates + 1)
+                .addValue("limit", size)
+                .addValue("offset", (long) page * size);
+
+        long[] total = {0};
+        boolean[] capped = {false};
+        List<EmployeeSummary> items = new ArrayList<>(size);
+        jdbcTemplate.query("""
+                SELECT c.id, c.personal_code, c.first_name, c.last_name, c.department, c.age, c.post,
+                       count(*) OVER () AS total,
+                       count(*) FILTER (WHERE NOT c.exact) OVER () AS similar,
+                       CASE WHEN c.exact THEN 10 ELSE 0 END
+                           + ts_rank(c.search_vector, coalesce(to_tsquery('simple', CAST(:tsQuery AS TEXT)), ''::tsquery))
+                           + similarity(c.search_text, :term) AS rank
+                FROM (%s) c
+                ORDER BY rank DESC, c.id
+                LIMIT :limit OFFSET :offset
+                """.formatted(CANDIDATES), params, rs -> {
+            total[0] = rs.getLong("total");
+            capped[0] = rs.getLong("similar") > maxCandidates;
+            items.add(new EmployeeSummary(
+                    rs.getLong("id"),
+                    rs.getString("personal_code"),
+                    rs.getString("first_name"),
+                    rs.getString("last_name"),
+                    rs.getString("department"),
+                    (Integer) rs.getObject("age"),
+                    rs.getString("post")));
+        });
+
+        // Страница за пределами выдачи: окно count(*) OVER () не вернулось, досчитываем отдельно
+        if (items.isEmpty() && page > 0) {
+            jdbcTemplate.query("""
+                    SELECT count(*) AS total, count(*) FILTER (WHERE NOT c.exact) AS similar
+                    FROM (%s) c
+                    """.formatted(CANDIDATES), params, rs -> {
+                total[0] = rs.getLong("total");
+                capped[0] = rs.getLong("similar") > maxCandidates;
+            });
+        }
+        return new EmployeePage(total[0], page, size, "search", items, capped[0]);
+    }
+
+    static String normalize(String query) {
+        return query == null ? "" : query.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * "иван пет" -> "иван:* & пет:*". Из слов остаются только буквы и цифры,
+     * поэтому операторы tsquery из пользовательского ввода не проходят.
+     */
+    static String toPrefixTsQuery(String term) {
+        StringBuilder tsQuery = new StringBuilder();
+        for (String token : term.split("[^\\p{L}\\p{N}]+")) {
+            if (token.isEmpty()) {
+                continue;
+            }
+            if (!tsQuery.isEmpty()) {
+                tsQuery.append(" & ");
+            }
+            tsQuery.append(token).append(":*");
+        }
+        return tsQuery.toString();
+    }
+
+    static String escapeLike(String term) {
+        return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,85 @@
+package org.example.mytestprojectmvc.repository;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.example.mytestprojectmvc.entity.DTO.DepartmentStats;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Агрегаты по отделам (employee_department_*_stats).
+ * Таблицы ведут триггеры на employees в той же транзакции, что и запись сотрудников,
+ * поэтому чтение - это O(отделов), без скана employees.
+ */
+@Timed("repository.jdbc")
+@Repository
+@RequiredArgsConstructor
+public class EmployeeStatsRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Статистика всех отделов или одного (department = null - все)
+     */
+    public List<DepartmentStats> findStats(String department) {
+        Map<String, DepartmentStats> stats = new LinkedHashMap<>();
+
+        jdbcTemplate.query("""
+                SELECT department, headcount, age_sum
+                FROM employee_department_stats
+                WHERE ?::TEXT IS NULL OR department = ?
+                ORDER BY department
+                """, rs -> {
+            DepartmentStats item = new DepartmentStats();
+            item.setDepartment(rs.getString("department"));
+            item.setHeadcount(rs.getLong("headcount"));
+            item.setAverageAge(item.getHeadcount() > 0
+                    ? Math.round(rs.getLong("age_sum") * 10.0 / item.getHeadcount()) / 10.0
+                    : 0);
+            stats.put(item.getDepartment(), item);
+        }, department, department);
+
+        if (stats.isEmpty()) {
+            return List.of();
+        }
+
+        jdbcTemplate.query("""
+                SELECT department, age_bucket, headcount
+                FROM employee_department_age_stats
+                WHERE ?::TEXT IS NULL OR department = ?
+                ORDER BY department, age_bucket
+                """, rs -> {
+            DepartmentStats item = stats.get(rs.getString("department"));
+            if (item != null) {
+                int bucket = rs.getInt("age_bucket");
+                item.getAgeDistribution().put(bucket + "-" + (bucket + 9), rs.getLong("headcount"));
+            }
+        }, department, department);
+
+        jdbcTemplate.query("""
+                SELECT department, post, headcount
+                FROM employee_department_post_stats
+                WHERE ?::TEXT IS NULL OR department = ?
+                ORDER BY department, headcount DESC, post
+                """, rs -> {
+            DepartmentStats item = stats.get(rs.getString("department"));
+            if (item != null) {
+                item.getPosts().put(rs.getString("post"), rs.getLong("headcount"));
+            }
+        }, department, department);
+
+        return new ArrayList<>(stats.values());
+    }
+
+    /**
+     * Полный пересчет агрегатов по employees (после TRUNCATE или правок в обход триггеров)
+     */
+    public void rebuild() {
+        jdbcTemplate.execute("SELECT employee_stats_rebuild()");
+    }
+}
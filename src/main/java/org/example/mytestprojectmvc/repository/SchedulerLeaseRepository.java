@@ -0,0 +1,61 @@
+package org.example.mytestprojectmvc.repository;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+
+/**
+ * Аренды шедулеров в таблице scheduler_leases.
+ * Все сравнения времени идут по часам БД, чтобы не зависеть от расхождения часов узлов.
+ */
+@Timed("repository.jdbc")
+@Repository
+@RequiredArgsConstructor
+public class SchedulerLeaseRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Захватить аренду: получится, если ее нет, она истекла или уже принадлежит owner
+     */
+    public boolean tryAcquire(String leaseName, String ownerId, Duration ttl) {
+        int updated = jdbcTemplate.update("""
+                INSERT INTO scheduler_leases (lease_name, owner_id, lease_until, acquired_at, heartbeat_at)
+                VALUES (?, ?, now() + (? * INTERVAL '1 millisecond'), now(), now())
+                ON CONFLICT (lease_name) DO UPDATE
+                SET owner_id = EXCLUDED.owner_id,
+                    lease_until = EXCLUDED.lease_until,
+                    acquired_at = EXCLUDED.acquired_at,
+                    heartbeat_at = EXCLUDED.heartbeat_at
+                WHERE scheduler_leases.lease_until < now()
+                   OR scheduler_leases.owner_id = EXCLUDED.owner_id
+                """, leaseName, ownerId, ttl.toMillis());
+        return updated == 1;
+    }
+
+    /**
+     * Продлить аренду (heartbeat). false - аренда потеряна
+     */
+    public boolean renew(String leaseName, String ownerId, Duration ttl) {
+        int updated = jdbcTemplate.update("""
+                UPDATE scheduler_leases
+                SET lease_until = now() + (? * INTERVAL '1 millisecond'), heartbeat_at = now()
+                WHERE lease_name = ? AND owner_id = ?
+                """, ttl.toMillis(), leaseName, ownerId);
+        return updated == 1;
+    }
+
+    /**
+     * Освободить аренду, не дожидаясь TTL: другой узел заберет ее, как только пройдет minHold с момента захвата
+     */
+    public void release(String leaseName, String ownerId, Duration minHold) {
+        jdbcTemplate.update("""
+                UPDATE scheduler_leases
+                SET lease_until = GREATEST(now(), acquired_at + (? * INTERVAL '1 millisecond'))
+                WHERE lease_name = ? AND owner_id = ?
+                """, minHold.toMillis(), leaseName, ownerId);
+    }
+}
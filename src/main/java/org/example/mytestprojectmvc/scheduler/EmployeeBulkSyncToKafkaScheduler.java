@@ -1,6 +1,5 @@
 package org.example.mytestprojectmvc.scheduler;
 
-import jakarta.transaction.Transactional;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
@@ -8,16 +7,23 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.time.StopWatch;
 import org.example.mytestprojectmvc.entity.Employee;
 import org.example.mytestprojectmvc.kafka.producer.EmployeeKafkaProducer;
+import org.example.mytestprojectmvc.kafka.producer.KafkaSendBatch;
 import org.example.mytestprojectmvc.repository.EmployeeRepository;
+import org.example.mytestprojectmvc.scheduler.job.SyncJob;
+import org.example.mytestprojectmvc.scheduler.job.SyncJobExecutor;
+import org.example.mytestprojectmvc.scheduler.lease.ClusterLease;
+import org.example.mytestprojectmvc.scheduler.lease.ClusterLeaseManager;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Component
@@ -26,45 +32,96 @@ public class EmployeeBulkSyncToKafkaScheduler {
 
     private final EmployeeRepository employeeRepository;
     private final EmployeeKafkaProducer employeeKafkaProducer;
+    private final SyncJobExecutor jobExecutor;
+    private final ClusterLeaseManager leaseManager;
 
     @Value("${app.kafka.bulk-sync.enabled:true}")
     private boolean bulkSyncEnabled;
 
+    @Value("${app.kafka.bulk-sync.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.kafka.bulk-sync.shards:1}")
+    private int shardCount;
+
+    @Value("${app.kafka.bulk-sync.ack-timeout-ms:30000}")
+    private long ackTimeoutMs;
+
     // Флаги и счетчики для статуса
     private final AtomicBoolean isRunning = new AtomicBoolean(false);
     private final AtomicInteger processedCount = new AtomicInteger(0);
     private final AtomicInteger totalCount = new AtomicInteger(0);
     private volatile String currentStatus = "NOT_STARTED";
     private volatile String currentMessage = "";
+    private volatile SyncJob currentJob;
 
     @Scheduled(
             initialDelayString = "${app.kafka.bulk-sync.initial-delay}",
             fixedDelayString = "${app.kafka.bulk-sync.fixed-delay}"
     )
-    @Transactional
     public void syncAllEmployeesToKafkaScheduled() {
 
         log.info("Запуск синхронизации в кафку по шедулеру, время: {}", LocalDateTime.now());
-        syncAllEmployeesToKafka();
+        try {
+            startSync("bulk-sync-scheduled");
+        } catch (IllegalStateException e) {
+            log.warn("Плановый запуск пропущен: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Ручной запуск синхронизации с проверкой
+     */
+    public void triggerManualSync() {
+        log.info("🔄 Запрос на ручной запуск синхронизации сотрудников");
+        SyncJob job = startSync("bulk-sync-manual");
+        log.info("✅ Запущена фоновая синхронизация, задача ID: {}", job.getId());
     }
 
-    @Transactional
-    public synchronized void syncAllEmployeesToKafka() {
+    /**
+     * Ставит синхронизацию в исполнитель задач, если она еще не выполняется
+     */
+    private SyncJob startSync(String jobName) {
         if (!bulkSyncEnabled) {
             log.info("Массовая синхронизация отключена в настройках");
             currentStatus = "DISABLED";
-            return;
+            throw new IllegalStateException("Массовая синхронизация отключена в настройках");
         }
 
         // Проверяем, не выполняется ли уже синхронизация
         if (!isRunning.compareAndSet(false, true)) {
-            log.warn("❌ Синхронизация уже выполняется, новый запуск невозможен");
+            log.warn("⚠️ Синхронизация уже выполняется, повторный запуск невозможен");
             throw new IllegalStateException("Синхронизация уже выполняется");
         }
 
-        // Сбрасываем счетчики
+        // Сбрасываем старые данные
         processedCount.set(0);
         totalCount.set(0);
+        currentStatus = "STARTING";
+        currentMessage = "Подготовка к синхронизации...";
+
+        SyncJob job = jobExecutor.create(jobName);
+        currentJob = job;
+        try {
+            return jobExecutor.submit(job, this::syncAllEmployeesToKafka);
+        } catch (RuntimeException e) {
+            currentJob = null;
+            isRunning.set(false);
+            currentStatus = "FAILED";
+            currentMessage = "Ошибка: " + e.getMessage();
+            throw e;
+        }
+    }
+
+    /**
+     * Тело задачи: отправляет неотправленных сотрудников пачками по batchSize.
+     * Отмена проверяется через токен задачи между пачками и между записями.
+     *
+     * В кластере записи делятся на shardCount шардов по id (id % shardCount);
+     * шард обрабатывается узлом, захватившим его аренду, так что узлы
+     * параллельно отправляют разные диапазоны и не дублируют сообщения.
+     */
+    private void syncAllEmployeesToKafka(SyncJob job) {
         currentStatus = "RUNNING";
         currentMessage = "Начало синхронизации...";
 
@@ -72,10 +129,10 @@ public class EmployeeBulkSyncToKafkaScheduler {
         log.info("🚀 Начало массовой синхронизации сотрудников в Kafka");
 
         try {
-            // Получаем общее количество сотрудников
-            long totalEmployees = employeeRepository.count();
+            // Количество сотрудников, которых еще нужно отправить
+            long totalEmployees = employeeRepository.countBySyncedToKafkaFalse();
             totalCount.set((int) totalEmployees);
-            log.info("Общее количество записей в БД: {}", totalEmployees);
+            log.info("Записей для синхронизации в БД: {}", totalEmployees);
 
             if (totalEmployees == 0) {
                 log.info("В БД нет записей для синхронизации");
@@ -86,79 +143,24 @@ public class EmployeeBulkSyncToKafkaScheduler {
 
             currentMessage = String.format("Найдено %d сотрудников для обработки", totalEmployees);
 
-            boolean hasMore = true;
-            int processed = 0;
-
-            while (hasMore && !Thread.currentThread().isInterrupted()) {
-                // Получаем сотрудников, которых еще не синхронизировали
-                List<Employee> employees = employeeRepository.findAllSyncedToKafkaIsFalse();
-
-                if (employees.isEmpty()) {
-                    log.debug("Не переданных в кафку записей нет.");
-                    hasMore = false;
-                    break;
+            for (int shard = 0; shard < shardCount && !job.isCancelled(); shard++) {
+                Optional<ClusterLease> lease = leaseManager.tryAcquire(shardLeaseName(shard));
+                if (lease.isEmpty()) {
+                    log.info("Шард {}/{} обрабатывает другой узел, пропускаем", shard, shardCount);
+                    continue;
                 }
-
-                List<Long> employeeIds = employees.stream()
-                        .map(Employee::getId)
-                        .collect(Collectors.toList());
-                log.info("НАЙДЕНЫ СОТРУДНИКИ ДЛЯ СИНХРОНИЗАЦИИ В КАФКУ С ID: {}", employeeIds);
-
-                log.info("Обрабатываем список из {} сотрудников, которые не переданы в Kafka", employees.size());
-                currentMessage = String.format("Обработка пачки из %d сотрудников", employees.size());
-
-                // Отправляем каждого сотрудника в Kafka
-                for (Employee employee : employees) {
-                    if (Thread.currentThread().isInterrupted()) {
-                        log.info("Получен сигнал прерывания, останавливаем синхронизацию");
-                        currentStatus = "STOPPED";
-                        currentMessage = "Синхронизация остановлена пользователем";
-                        return;
-                    }
-
-                    try {
-                        employeeKafkaProducer.sendEmployeeForBulkSync(employee);
-                        processed++;
-                        processedCount.set(processed);
-
-                        // Обновляем статус в реальном времени
-                        if (processed % 5 == 0) {
-                            float progress = (float) processed / totalEmployees * 100;
-                            currentMessage = String.format("Обработано %d из %d (%.1f%%)",
-                                    processed, totalEmployees, progress);
-                            log.info("Прогресс синхронизации: {}/{} ({}%)",
-                                    processed, totalEmployees, String.format("%.1f", progress));
-                        }
-
-                        // Небольшая пауза для корректной работы UI
-                        Thread.sleep(10);
-
-                    } catch (Exception e) {
-                        log.error("Ошибка при отправке сотрудника ID: {} в Kafka. Ошибка: {}",
-                                employee.getId(), e.getMessage());
-                        // Продолжаем со следующим сотрудником
-                    }
-                }
-
-                // Обновляем статус для обработанных сотрудников
-                log.info("Обновляем статус сотрудников c ID: {}", employeeIds);
-                employeeRepository.updateSyncStatusByIds(employeeIds);
-                log.info("Обновлен статус для {} сотрудников", employeeIds.size());
-
-                // Проверяем, есть ли еще необработанные сотрудники
-                long remainingCount = employeeRepository.countBySyncedToKafkaFalse();
-                log.info("Проверка, есть ли еще необработанные сотрудники: {}", remainingCount);
-                if (remainingCount == 0) {
-                    hasMore = false;
-                    log.info("Все сотрудники обработаны");
+                try (ClusterLease shardLease = lease.get()) {
+                    syncShard(job, shard, shardLease, totalEmployees);
                 }
             }
 
             stopWatch.stop();
+            int processed = processedCount.get();
 
-            if (Thread.currentThread().isInterrupted()) {
+            if (job.isCancelled()) {
+                log.info("Получен сигнал отмены, синхронизация остановлена");
                 currentStatus = "STOPPED";
-                currentMessage = String.format("Синхронизация остановлена. Обработано: %d/%d",
+                currentMessage = String.format("Синхронизация остановлена пользователем. Обработано: %d/%d",
                         processed, totalEmployees);
             } else {
                 currentStatus = "COMPLETED";
@@ -173,45 +175,81 @@ public class EmployeeBulkSyncToKafkaScheduler {
             currentStatus = "FAILED";
             currentMessage = "Ошибка при синхронизации: " + e.getMessage();
             log.error("❌ Критическая ошибка при массовой синхронизации: {}", e.getMessage(), e);
+            throw e;
         } finally {
             // Всегда сбрасываем флаг выполнения
+            currentJob = null;
             isRunning.set(false);
         }
     }
 
     /**
-     * Ручной запуск синхронизации с проверкой
+     * Отправка одного шарда. Остановится при отмене задачи или потере аренды шарда.
      */
-    public synchronized void triggerManualSync() {
-        log.info("🔄 Запрос на ручной запуск синхронизации сотрудников");
+    private void syncShard(SyncJob job, int shard, ClusterLease lease, long totalEmployees) {
+        long lastId = 0;
 
-        if (isRunning.get()) {
-            log.warn("⚠️ Синхронизация уже выполняется, повторный запуск невозможен");
-            throw new IllegalStateException("Синхронизация уже выполняется");
-        }
+        while (!job.isCancelled()) {
+            if (!lease.isValid()) {
+                log.warn("⚠️ Аренда шарда {} потеряна, прекращаем его обработку", shard);
+                return;
+            }
 
-        // Сбрасываем старые данные
-        processedCount.set(0);
-        totalCount.set(0);
-        currentStatus = "STARTING";
-        currentMessage = "Подготовка к синхронизации...";
+            // Следующая пачка неотправленных сотрудников шарда (keyset по id)
+            List<Employee> employees = employeeRepository.findUnsyncedChunk(
+                    lastId, shardCount, shard, PageRequest.of(0, batchSize));
+
+            if (employees.isEmpty()) {
+                log.debug("Не переданных в кафку записей в шарде {} нет.", shard);
+                return;
+            }
+            long firstId = employees.get(0).getId();
+            lastId = employees.get(employees.size() - 1).getId();
+            long chunkStart = System.nanoTime();
+
+            currentMessage = String.format("Обработка пачки из %d сотрудников", employees.size());
+
+            // Отправки пачки идут параллельно (в пределах окна продюсера), подтверждения ждем разом
+            KafkaSendBatch batch = new KafkaSendBatch();
+
+            // Отправляем каждого сотрудника в Kafka
+            for (Employee employee : employees) {
+                if (job.isCancelled()) {
+                    break;
+                }
 
-        // Запускаем в отдельном потоке
-        Thread syncThread = new Thread(() -> {
-            try {
-                this.syncAllEmployeesToKafka();
-            } catch (Exception e) {
-                log.error("Ошибка при выполнении ручной синхронизации", e);
-                currentStatus = "FAILED";
-                currentMessage = "Ошибка: " + e.getMessage();
-                isRunning.set(false);
+                // Отправленным считается сотрудник, у которого подтверждены и событие, и снимок
+                batch.add(employee.getId(), employeeKafkaProducer.sendEmployeeForBulkSync(employee).allAcked());
+                int processed = processedCount.incrementAndGet();
+                job.incrementProcessed();
+
+                // Обновляем статус в реальном времени
+                if (processed % 5 == 0) {
+                    float progress = (float) processed / totalEmployees * 100;
+                    currentMessage = String.format("Обработано %d из %d (%.1f%%)",
+                            processed, totalEmployees, progress);
+                }
             }
-        }, "kafka-sync-thread");
 
-        syncThread.setDaemon(true);
-        syncThread.start();
+            KafkaSendBatch.Result result = batch.await(Duration.ofMillis(ackTimeoutMs));
+            for (int i = 0; i < result.failed(); i++) {
+                job.incrementErrors();
+            }
+
+            // Отмечаем только подтвержденных брокером - остальные уйдут при следующем проходе
+            if (!result.ackedIds().isEmpty()) {
+                employeeRepository.updateSyncStatusByIds(result.ackedIds());
+            }
 
-        log.info("✅ Запущена фоновая синхронизация в потоке: {}", syncThread.getName());
+            // Одна итоговая строка на пачку вместо записей на каждого сотрудника
+            log.info("Пачка шарда {} (ID {}..{}): подтверждено {}, ошибок {}, {} мс, всего {}/{}",
+                    shard, firstId, lastId, result.ackedIds().size(), result.failed(),
+                    (System.nanoTime() - chunkStart) / 1_000_000, processedCount.get(), totalEmployees);
+        }
+    }
+
+    private String shardLeaseName(int shard) {
+        return shardCount == 1 ? "employee-bulk-sync" : "employee-bulk-sync-shard-" + shard;
     }
 
     /**
@@ -228,16 +266,13 @@ public class EmployeeBulkSyncToKafkaScheduler {
     }
 
     /**
-     * Остановить текущую синхронизацию
+     * Остановить текущую синхронизацию (кооперативно, через токен задачи)
      */
     public void stopSync() {
-        if (isRunning.get()) {
-            log.info("🛑 Остановка текущей синхронизации");
-
-            // Прерываем поток синхронизации
-            Thread.getAllStackTraces().keySet().stream()
-                    .filter(thread -> "kafka-sync-thread".equals(thread.getName()))
-                    .forEach(Thread::interrupt);
+        SyncJob job = currentJob;
+        if (isRunning.get() && job != null) {
+            log.info("🛑 Остановка текущей синхронизации, задача ID: {}", job.getId());
+            jobExecutor.cancel(job.getId());
 
             currentStatus = "STOPPING";
             currentMessage = "Остановка синхронизации...";
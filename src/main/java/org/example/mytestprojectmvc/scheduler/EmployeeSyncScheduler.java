@@ -5,6 +5,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.example.mytestprojectmvc.entity.Employee;
 import org.example.mytestprojectmvc.repository.EmployeeRepository;
+import org.example.mytestprojectmvc.scheduler.lease.ClusterLeaseManager;
 import org.example.mytestprojectmvc.service.EmployeeApiService;
 import org.example.mytestprojectmvc.service.EmployeeQrCodeGenerator;
 import org.springframework.beans.factory.annotation.Value;
@@ -13,7 +14,9 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -25,12 +28,28 @@ public class EmployeeSyncScheduler {
     private final EmployeeApiService service;
     private final EmployeeRepository repository;
     private final EmployeeQrCodeGenerator qrCodeGenerator;
+    private final ClusterLeaseManager leaseManager;
 
     @Value("${employee.api.ful-name}")
     private String url;
 
-    @Scheduled(fixedRate = 300000)
+    @Value("${employee.sync.enabled:true}")
+    private boolean enabled;
+
+    @Value("${employee.sync.interval-minutes:5}")
+    private long intervalMinutes;
+
+    // Изменения приходят через Kafka (EmployeeEventListener), опрос API - страховка на случай пропусков
+    @Scheduled(fixedRateString = "${employee.sync.interval-minutes:5}", timeUnit = TimeUnit.MINUTES)
     public void syncEmployees() {
+        if (!enabled) {
+            return;
+        }
+        // В кластере опрос удаленного API выполняет только один узел и не чаще раза за период
+        leaseManager.runExclusively("employee-remote-sync", Duration.ofMinutes(intervalMinutes), this::fetchAndSaveEmployees);
+    }
+
+    private void fetchAndSaveEmployees() {
         log.info("Запускаю синхронизацию сотрудников...");
 
         try {
@@ -133,7 +152,7 @@ public class EmployeeSyncScheduler {
     }
 
     // Создание уникального ключа для сотрудника
-    private String createEmployeeKey(Employee employee) {
+    static String createEmployeeKey(Employee employee) {
         return String.format("%s|%s|%d|%s",
                 employee.getFirstName(),
                 employee.getLastName(),
@@ -0,0 +1,202 @@
+package org.example.mytestprojectmvc.scheduler;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.support.ScheduledMethodRunnable;
+import org.springframework.util.ClassUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Планировщик, который разводит @Scheduled-задачи по собственным "дорожкам".
+ *
+ * Каждый @Scheduled-метод получает свой однопоточный планировщик, поэтому долгая
+ * массовая синхронизация не задерживает опрос удаленного API и генерацию QR.
+ * Остальные задачи идут в общий пул. Для каждой задачи пишутся метрики
+ * scheduler.job.run.time (время выполнения) и scheduler.job.queue.delay
+ * (опоздание старта относительно расписания, для trigger/cron - относительно
+ * времени, которое вернул Trigger).
+ *
+ * laneThreadFactory задает потоки дорожек (например, виртуальные); null - обычные потоки пула.
+ */
+@Slf4j
+public class LaneTaskScheduler implements TaskScheduler, DisposableBean {
+
+    private static final long UNKNOWN = Long.MIN_VALUE;
+
+    private final TaskScheduler sharedScheduler;
+    private final boolean lanesEnabled;
+    private final String threadNamePrefix;
+    private final Function<String, ThreadFactory> laneThreadFactory;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, ThreadPoolTaskScheduler> lanes = new ConcurrentHashMap<>();
+
+    public LaneTaskScheduler(TaskScheduler sharedScheduler, boolean lanesEnabled, String threadNamePrefix,
+                             Function<String, ThreadFactory> laneThreadFactory, MeterRegistry meterRegistry) {
+        this.sharedScheduler = sharedScheduler;
+        this.lanesEnabled = lanesEnabled;
+        this.threadNamePrefix = threadNamePrefix;
+        this.laneThreadFactory = laneThreadFactory;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable task, Trigger trigger) {
+        MonitoredTask monitored = monitored(task, Mode.TRIGGER, UNKNOWN, 0);
+        // Планировщик спрашивает Trigger о следующем запуске перед каждым запуском - запоминаем ожидаемое время
+        Trigger tracking = context -> {
+            Instant next = trigger.nextExecution(context);
+            if (next != null) {
+                monitored.expectedStartNanos = toNanos(next);
+            }
+            return next;
+        };
+        return target(task).schedule(monitored, tracking);
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable task, Instant startTime) {
+        return target(task).schedule(monitored(task, Mode.ONCE, toNanos(startTime), 0), startTime);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, Instant startTime, Duration period) {
+        return target(task).scheduleAtFixedRate(
+                monitored(task, Mode.FIXED_RATE, toNanos(startTime), period.toNanos()), startTime, period);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, Duration period) {
+        return target(task).scheduleAtFixedRate(
+                monitored(task, Mode.FIXED_RATE, System.nanoTime(), period.toNanos()), period);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, Instant startTime, Duration delay) {
+        return target(task).scheduleWithFixedDelay(
+                monitored(task, Mode.FIXED_DELAY, toNanos(startTime), delay.toNanos()), startTime, delay);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, Duration delay) {
+        return target(task).scheduleWithFixedDelay(
+                monitored(task, Mode.FIXED_DELAY, System.nanoTime(), delay.toNanos()), delay);
+    }
+
+    @Override
+    public void destroy() {
+        lanes.values().forEach(ThreadPoolTaskScheduler::shutdown);
+        if (sharedScheduler instanceof DisposableBean disposable) {
+            try {
+                disposable.destroy();
+            } catch (Exception e) {
+                log.warn("Ошибка при остановке планировщика: {}", e.getMessage());
+            }
+        } else if (sharedScheduler instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                log.warn("Ошибка при остановке планировщика: {}", e.getMessage());
+            }
+        }
+    }
+
+    private TaskScheduler target(Runnable task) {
+        if (!lanesEnabled || !(task instanceof ScheduledMethodRunnable)) {
+            return sharedScheduler;
+        }
+        return lanes.computeIfAbsent(jobName(task), this::createLane);
+    }
+
+    private ThreadPoolTaskScheduler createLane(String jobName) {
+        String lanePrefix = threadNamePrefix + jobName.substring(0, jobName.indexOf('.')) + "-";
+        ThreadPoolTaskScheduler lane = new ThreadPoolTaskScheduler();
+        lane.setPoolSize(1);
+        lane.setThreadNamePrefix(lanePrefix);
+        if (laneThreadFactory != null) {
+            lane.setThreadFactory(laneThreadFactory.apply(lanePrefix));
+        }
+        lane.setRemoveOnCancelPolicy(true);
+        lane.initialize();
+        log.info("Создана отдельная дорожка планировщика для задачи: {}", jobName);
+        return lane;
+    }
+
+    private MonitoredTask monitored(Runnable task, Mode mode, long expectedStartNanos, long periodNanos) {
+        String jobName = jobName(task);
+        return new MonitoredTask(task, mode, expectedStartNanos, periodNanos,
+                Timer.builder("scheduler.job.run.time")
+                        .description("Время выполнения задачи планировщика")
+                        .tag("job", jobName)
+                        .register(meterRegistry),
+                Timer.builder("scheduler.job.queue.delay")
+                        .description("Опоздание старта задачи относительно расписания")
+                        .tag("job", jobName)
+                        .register(meterRegistry));
+    }
+
+    private static String jobName(Runnable task) {
+        if (task instanceof ScheduledMethodRunnable scheduled) {
+            return ClassUtils.getUserClass(scheduled.getTarget()).getSimpleName()
+                    + "." + scheduled.getMethod().getName();
+        }
+        return "other.task";
+    }
+
+    private static long toNanos(Instant startTime) {
+        return System.nanoTime() + Duration.between(Instant.now(), startTime).toNanos();
+    }
+
+    private enum Mode { FIXED_RATE, FIXED_DELAY, ONCE, TRIGGER }
+
+    private static final class MonitoredTask implements Runnable {
+
+        private final Runnable delegate;
+        private final Mode mode;
+        private final long periodNanos;
+        private final Timer runTimer;
+        private final Timer queueDelayTimer;
+        private volatile long expectedStartNanos;
+
+        private MonitoredTask(Runnable delegate, Mode mode, long expectedStartNanos, long periodNanos,
+                              Timer runTimer, Timer queueDelayTimer) {
+            this.delegate = delegate;
+            this.mode = mode;
+            this.expectedStartNanos = expectedStartNanos;
+            this.periodNanos = periodNanos;
+            this.runTimer = runTimer;
+            this.queueDelayTimer = queueDelayTimer;
+        }
+
+        @Override
+        public void run() {
+            long start = System.nanoTime();
+            if (expectedStartNanos != UNKNOWN) {
+                queueDelayTimer.record(Math.max(0, start - expectedStartNanos), TimeUnit.NANOSECONDS);
+            }
+            try {
+                delegate.run();
+            } finally {
+                long end = System.nanoTime();
+                runTimer.record(end - start, TimeUnit.NANOSECONDS);
+                expectedStartNanos = switch (mode) {
+                    case FIXED_RATE -> expectedStartNanos + periodNanos;
+                    case FIXED_DELAY -> end + periodNanos;
+                    default -> UNKNOWN;
+                };
+            }
+        }
+    }
+}
@@ -1,48 +1,103 @@
 package org.example.mytestprojectmvc.scheduler;
 
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.example.mytestprojectmvc.entity.Employee;
+import org.example.mytestprojectmvc.repository.EmployeeJdbcRepository;
 import org.example.mytestprojectmvc.repository.EmployeeRepository;
+import org.example.mytestprojectmvc.scheduler.lease.ClusterLeaseManager;
 import org.example.mytestprojectmvc.service.EmployeeQrCodeGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Догенерация QR-кодов для сотрудников, у которых их нет.
+ *
+ * Работает пачками по chunkSize: читает id, рендерит QR, пишет personal code,
+ * данные и изображение одним JDBC-батчем и коммитит пачку. После падения
+ * следующий запуск продолжит с необработанных записей.
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class QrEmpLocalSync {
 
     private final EmployeeRepository employeeRepository;
+    private final EmployeeJdbcRepository employeeJdbcRepository;
     private final EmployeeQrCodeGenerator qrCodeGenerator;
+    private final ClusterLeaseManager leaseManager;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${qr.backfill.chunk-size:200}")
+    private int chunkSize;
+
+    private TransactionTemplate chunkTransaction;
+
+    @PostConstruct
+    void init() {
+        chunkTransaction = new TransactionTemplate(transactionManager);
+    }
 
     @Scheduled(fixedRate = 900000)
     public void updateQrLocalEmployee() {
-        List<Employee> employee = employeeRepository.findByQrCodeImageIsNull();
-        for (Employee emp : employee) {
+        // В кластере QR-коды догенерирует только один узел и не чаще раза за период
+        leaseManager.runExclusively("employee-qr-backfill", Duration.ofMillis(900000), this::generateMissingQrCodes);
+    }
 
-            if(emp.getCreatedAt() == null){
-                emp.setCreatedAt(LocalDateTime.now());
-            }
-            emp.setUpdatedAt(LocalDateTime.now());
-
-            // 1. Сначала сохраняем personal code
-            if (emp.getPersonalCode() == null || emp.getPersonalCode().trim().isEmpty()) {
-                String persCode = emp.generatePersonalCode();
-                emp.setPersonalCode(persCode);
-                employeeRepository.saveAndFlush(emp); // Сразу сохраняем в БД
-                log.info("Сохранен personal code: {}", persCode);
+    private void generateMissingQrCodes() {
+        long startNanos = System.nanoTime();
+        long lastId = 0;
+        int totalUpdated = 0;
+        int totalFailed = 0;
+
+        while (true) {
+            List<Long> ids = employeeRepository.findIdsWithoutQrCodeAfter(lastId, PageRequest.of(0, chunkSize));
+            if (ids.isEmpty()) {
+                break;
             }
+            lastId = ids.get(ids.size() - 1);
 
-            // 2. Потом генерируем QR
-            if (emp.getQrCodeData() == null && emp.getQrCodeImage() == null) {
-                qrCodeGenerator.generateQrCodeForEmployee(emp);
-                employeeRepository.save(emp);
-                log.info("Сгенерирован QR для: {}", emp.getPersonalCode());
+            // Сущности вне транзакции (detached) - изменения не уйдут в БД через dirty checking
+            List<Employee> chunk = employeeRepository.findAllById(ids);
+            List<Employee> rendered = new ArrayList<>(chunk.size());
+
+            for (Employee emp : chunk) {
+                try {
+                    if (emp.getCreatedAt() == null) {
+                        emp.setCreatedAt(LocalDateTime.now());
+                    }
+                    // Генерирует personal code при отсутствии, данные и изображение QR
+                    rendered.add(qrCodeGenerator.generateQrCodeForEmployee(emp));
+                } catch (Exception e) {
+                    totalFailed++;
+                    log.warn("Не удалось сгенерировать QR для сотрудника ID: {}: {}", emp.getId(), e.getMessage());
+                }
             }
+
+            Integer updated = chunkTransaction.execute(status -> employeeJdbcRepository.batchUpdateQrCodes(rendered));
+            totalUpdated += updated != null ? updated : 0;
+
+            log.debug("Пачка QR-кодов записана: {} из {} (ID до {})", updated, ids.size(), lastId);
         }
+
+        if (totalUpdated == 0 && totalFailed == 0) {
+            log.debug("Сотрудников без QR-кода нет");
+            return;
+        }
+
+        double seconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+        log.info("Догенерация QR-кодов завершена: записано {}, ошибок {}, время {} с, {} зап/с",
+                totalUpdated, totalFailed, String.format("%.2f", seconds),
+                String.format("%.1f", seconds > 0 ? totalUpdated / seconds : 0));
     }
 }
@@ -0,0 +1,57 @@
+package org.example.mytestprojectmvc.scheduler;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.mytestprojectmvc.repository.EmployeeRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Очереди фоновых задач как gauge-метрики employee.backlog:
+ *   kind=unsynced   - сотрудники, еще не отправленные в Kafka (EmployeeBulkSyncToKafkaScheduler)
+ *   kind=missing_qr - сотрудники без QR-кода (QrEmpLocalSync)
+ *
+ * Счетчики обновляются по расписанию, а не при каждом чтении метрик:
+ * опрос /actuator/prometheus не должен порождать COUNT-запросы к БД.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SchedulerBacklogMetrics {
+
+    private final EmployeeRepository employeeRepository;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicLong unsynced = new AtomicLong(-1);
+    private final AtomicLong missingQr = new AtomicLong(-1);
+
+    @PostConstruct
+    void register() {
+        Gauge.builder("employee.backlog", unsynced, AtomicLong::get)
+                .description("Сотрудники, ожидающие обработки фоновой задачей (-1 - еще не посчитано)")
+                .tag("kind", "unsynced")
+                .register(meterRegistry);
+        Gauge.builder("employee.backlog", missingQr, AtomicLong::get)
+                .description("Сотрудники, ожидающие обработки фоновой задачей (-1 - еще не посчитано)")
+                .tag("kind", "missing_qr")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(
+            initialDelay = 15000,
+            fixedDelayString = "${app.metrics.backlog-refresh-ms:60000}"
+    )
+    public void refresh() {
+        try {
+            unsynced.set(employeeRepository.countBySyncedToKafkaFalse());
+            missingQr.set(employeeRepository.countWithoutQrCode());
+        } catch (Exception e) {
+            log.warn("Не удалось обновить метрики очередей фоновых задач: {}", e.getMessage());
+        }
+    }
+}
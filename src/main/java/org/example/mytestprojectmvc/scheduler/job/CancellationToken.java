@@ -0,0 +1,17 @@
+package org.example.mytestprojectmvc.scheduler.job;
+
+/**
+ * Токен кооперативной отмены: задача сама проверяет его между пачками
+ */
+public class CancellationToken {
+
+    private volatile boolean cancelled;
+
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
@@ -0,0 +1,83 @@
+package org.example.mytestprojectmvc.scheduler.job;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Один запуск фоновой задачи синхронизации: хэндл, токен отмены и счетчики
+ */
+@Getter
+public class SyncJob {
+
+    public enum State { QUEUED, RUNNING, COMPLETED, CANCELLED, FAILED }
+
+    private final long id;
+    private final String name;
+    private final CancellationToken cancellationToken = new CancellationToken();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    private volatile State state = State.QUEUED;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String errorMessage;
+
+    @Setter(AccessLevel.PACKAGE)
+    private volatile Future<?> future;
+
+    SyncJob(long id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    public boolean isCancelled() {
+        return cancellationToken.isCancelled();
+    }
+
+    public void incrementProcessed() {
+        processed.incrementAndGet();
+    }
+
+    public void incrementErrors() {
+        errors.incrementAndGet();
+    }
+
+    void markStarted() {
+        startedAt = LocalDateTime.now();
+        state = State.RUNNING;
+    }
+
+    void markFinished(State finalState, String error) {
+        finishedAt = LocalDateTime.now();
+        errorMessage = error;
+        state = finalState;
+    }
+
+    void cancel() {
+        // Поток не прерываем: задача сама увидит токен (в очереди - сразу при старте)
+        cancellationToken.cancel();
+    }
+
+    public boolean isDone() {
+        return state != State.QUEUED && state != State.RUNNING;
+    }
+
+    /**
+     * Снимок для отдачи наружу (история/эндпоинт)
+     */
+    public SyncJobInfo toInfo() {
+        LocalDateTime start = startedAt;
+        LocalDateTime end = finishedAt != null ? finishedAt : LocalDateTime.now();
+        long durationMs = start != null ? Duration.between(start, end).toMillis() : 0;
+        double throughput = durationMs > 0 ? processed.get() * 1000.0 / durationMs : 0;
+
+        return new SyncJobInfo(id, name, state.name(), startedAt, finishedAt, durationMs,
+                processed.get(), errors.get(), throughput, errorMessage);
+    }
+}
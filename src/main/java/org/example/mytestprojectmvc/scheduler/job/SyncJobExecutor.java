@@ -0,0 +1,154 @@
+package org.example.mytestprojectmvc.scheduler.job;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Исполнитель фоновых задач синхронизации.
+ *
+ * Держит хэндл на каждый запуск, отменяет задачи через CancellationToken
+ * (без прерывания потоков) и хранит в памяти историю последних запусков.
+ * Число параллельных задач задает app.sync-jobs.max-concurrent (по умолчанию 1).
+ * Повторный запуск задачи того же типа исполнитель не блокирует - это делает
+ * ее владелец (массовая синхронизация держит флаг isRunning).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SyncJobExecutor {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.sync-jobs.max-concurrent:1}")
+    private int maxConcurrentJobs;
+
+    @Value("${app.sync-jobs.history-size:50}")
+    private int historySize;
+
+    private final AtomicLong jobSequence = new AtomicLong();
+    private final Map<Long, SyncJob> activeJobs = new ConcurrentHashMap<>();
+    private final Deque<SyncJob> history = new ConcurrentLinkedDeque<>();
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(
+                maxConcurrentJobs, maxConcurrentJobs,
+                0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "sync-job-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        log.info("Исполнитель задач синхронизации запущен, параллельных задач: {}", maxConcurrentJobs);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        activeJobs.values().forEach(SyncJob::cancel);
+        executor.shutdown();
+    }
+
+    /**
+     * Создать хэндл задачи, не запуская ее: вызывающий публикует его до старта,
+     * чтобы задача не завершилась раньше, чем хэндл станет виден
+     */
+    public SyncJob create(String name) {
+        SyncJob job = new SyncJob(jobSequence.incrementAndGet(), name);
+        activeJobs.put(job.getId(), job);
+        return job;
+    }
+
+    /**
+     * Поставить созданную задачу в очередь исполнителя
+     */
+    public SyncJob submit(SyncJob job, SyncTask task) {
+        try {
+            job.setFuture(executor.submit(() -> run(job, task)));
+        } catch (RuntimeException e) {
+            activeJobs.remove(job.getId());
+            throw e;
+        }
+        log.info("Задача синхронизации '{}' поставлена в очередь, ID: {}", job.getName(), job.getId());
+        return job;
+    }
+
+    /**
+     * Запросить отмену задачи; задача остановится на ближайшей проверке токена
+     */
+    public boolean cancel(long jobId) {
+        SyncJob job = activeJobs.get(jobId);
+        if (job == null) {
+            return false;
+        }
+        job.cancel();
+        log.info("🛑 Запрошена отмена задачи синхронизации '{}', ID: {}", job.getName(), jobId);
+        return true;
+    }
+
+    public List<SyncJobInfo> getActiveJobs() {
+        return activeJobs.values().stream().map(SyncJob::toInfo).toList();
+    }
+
+    public List<SyncJobInfo> getHistory() {
+        List<SyncJobInfo> result = new ArrayList<>();
+        history.forEach(job -> result.add(job.toInfo()));
+        return result;
+    }
+
+    private void run(SyncJob job, SyncTask task) {
+        // Тело вызывается и для отмененной в очереди задачи: она сама проверит токен
+        // и корректно освободит свои ресурсы (флаги, аренды)
+        job.markStarted();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            task.run(job);
+            finish(job, sample, job.isCancelled() ? SyncJob.State.CANCELLED : SyncJob.State.COMPLETED, null);
+        } catch (Exception e) {
+            log.error("❌ Задача синхронизации '{}' (ID: {}) завершилась с ошибкой", job.getName(), job.getId(), e);
+            finish(job, sample, SyncJob.State.FAILED, e.getMessage());
+        }
+    }
+
+    private void finish(SyncJob job, Timer.Sample sample, SyncJob.State state, String error) {
+        sample.stop(Timer.builder("sync.job.run.time")
+                .description("Время выполнения фоновой задачи синхронизации")
+                .tag("job", job.getName())
+                .tag("state", state.name())
+                .register(meterRegistry));
+        job.markFinished(state, error);
+        activeJobs.remove(job.getId());
+
+        history.addFirst(job);
+        while (history.size() > historySize) {
+            history.pollLast();
+        }
+
+        SyncJobInfo info = job.toInfo();
+        log.info("Задача синхронизации '{}' (ID: {}) завершена: {}, обработано: {}, ошибок: {}, {} зап/с",
+                info.getName(), info.getId(), info.getState(), info.getProcessed(), info.getErrors(),
+                String.format("%.1f", info.getThroughputPerSecond()));
+    }
+}
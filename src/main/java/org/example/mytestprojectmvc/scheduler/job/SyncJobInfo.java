@@ -0,0 +1,21 @@
+package org.example.mytestprojectmvc.scheduler.job;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class SyncJobInfo {
+    private long id;
+    private String name;
+    private String state;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private long durationMs;
+    private long processed;
+    private long errors;
+    private double throughputPerSecond;
+    private String errorMessage;
+}
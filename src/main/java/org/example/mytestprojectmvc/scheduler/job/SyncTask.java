@@ -0,0 +1,9 @@
+package org.example.mytestprojectmvc.scheduler.job;
+
+/**
+ * Тело фоновой задачи синхронизации
+ */
+@FunctionalInterface
+public interface SyncTask {
+    void run(SyncJob job) throws Exception;
+}
@@ -0,0 +1,51 @@
+package org.example.mytestprojectmvc.scheduler.lease;
+
+import lombok.Getter;
+
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Захваченная аренда. Пока она открыта, heartbeat продлевает ее в БД.
+ * isValid() = false, если продлить не удалось (аренду забрал другой узел).
+ */
+public class ClusterLease implements AutoCloseable {
+
+    @Getter
+    private final String name;
+    private final Runnable releaseAction;
+    private volatile boolean valid = true;
+    private volatile boolean closed;
+    private volatile ScheduledFuture<?> heartbeat;
+
+    ClusterLease(String name, Runnable releaseAction) {
+        this.name = name;
+        this.releaseAction = releaseAction;
+    }
+
+    public boolean isValid() {
+        return valid && !closed;
+    }
+
+    void setHeartbeat(ScheduledFuture<?> heartbeat) {
+        this.heartbeat = heartbeat;
+    }
+
+    void markLost() {
+        valid = false;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        ScheduledFuture<?> current = heartbeat;
+        if (current != null) {
+            current.cancel(false);
+        }
+        if (valid) {
+            releaseAction.run();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package org.example.mytestprojectmvc.scheduler.lease;
+
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.mytestprojectmvc.repository.SchedulerLeaseRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Кластерные аренды для шедулеров: задача с одним именем выполняется
+ * одновременно только на одном узле. Аренда живет ttl и продлевается
+ * heartbeat-ом; если узел упал, через ttl ее заберет другой.
+ * Периодические задачи держат аренду не меньше minHold (аналог lockAtLeastFor):
+ * быстрый прогон не дает другому узлу со сдвинутым расписанием повторить его в том же периоде.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ClusterLeaseManager {
+
+    private final SchedulerLeaseRepository leaseRepository;
+
+    @Value("${app.cluster.lease.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.cluster.lease.ttl-ms:60000}")
+    private long ttlMs;
+
+    @Value("${app.cluster.lease.heartbeat-ms:20000}")
+    private long heartbeatMs;
+
+    @Getter
+    private final String ownerId = createOwnerId();
+
+    private final ScheduledExecutorService heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "lease-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PreDestroy
+    void shutdown() {
+        heartbeatExecutor.shutdownNow();
+    }
+
+    /**
+     * Попытаться захватить аренду. Пустой результат - задачу сейчас выполняет другой узел
+     */
+    public Optional<ClusterLease> tryAcquire(String leaseName) {
+        return tryAcquire(leaseName, Duration.ZERO);
+    }
+
+    /**
+     * Попытаться захватить аренду, которая после освобождения держится до acquired_at + minHold
+     */
+    public Optional<ClusterLease> tryAcquire(String leaseName, Duration minHold) {
+        if (!enabled) {
+            return Optional.of(new ClusterLease(leaseName, () -> { }));
+        }
+
+        Duration ttl = Duration.ofMillis(ttlMs);
+        try {
+            if (!leaseRepository.tryAcquire(leaseName, ownerId, ttl)) {
+                log.debug("Аренда '{}' занята другим узлом", leaseName);
+                return Optional.empty();
+            }
+        } catch (Exception e) {
+            log.error("Не удалось захватить аренду '{}': {}", leaseName, e.getMessage());
+            return Optional.empty();
+        }
+
+        ClusterLease lease = new ClusterLease(leaseName, () -> release(leaseName, minHold));
+        lease.setHeartbeat(heartbeatExecutor.scheduleWithFixedDelay(
+                () -> renew(lease, ttl), heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS));
+        log.debug("Аренда '{}' захвачена узлом {}", leaseName, ownerId);
+        return Optional.of(lease);
+    }
+
+    /**
+     * Выполнить задачу, только если удалось захватить аренду.
+     * minHold - обычно период расписания задачи: до его конца другие узлы задачу не запустят
+     */
+    public boolean runExclusively(String leaseName, Duration minHold, Runnable task) {
+        Optional<ClusterLease> lease = tryAcquire(leaseName, minHold);
+        if (lease.isEmpty()) {
+            log.info("Задача '{}' пропущена: выполняется на другом узле", leaseName);
+            return false;
+        }
+        try (ClusterLease ignored = lease.get()) {
+            task.run();
+            return true;
+        }
+    }
+
+    private void renew(ClusterLease lease, Duration ttl) {
+        try {
+            if (!leaseRepository.renew(lease.getName(), ownerId, ttl)) {
+                log.warn("⚠️ Аренда '{}' потеряна узлом {}", lease.getName(), ownerId);
+                lease.markLost();
+            }
+        } catch (Exception e) {
+            // Временная ошибка БД: аренда еще жива до истечения ttl, пробуем на следующем тике
+            log.warn("Не удалось продлить аренду '{}': {}", lease.getName(), e.getMessage());
+        }
+    }
+
+    private void release(String leaseName, Duration minHold) {
+        try {
+            leaseRepository.release(leaseName, ownerId, minHold);
+        } catch (Exception e) {
+            log.warn("Не удалось освободить аренду '{}', она истечет по ttl: {}", leaseName, e.getMessage());
+        }
+    }
+
+    private static String createOwnerId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown-host";
+        }
+        return host + ":" + ManagementFactory.getRuntimeMXBean().getPid() + ":"
+                + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
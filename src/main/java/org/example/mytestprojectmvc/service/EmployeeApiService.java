@@ -1,12 +1,24 @@
 package org.example.mytestprojectmvc.service;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.example.mytestprojectmvc.cache.EmployeeCaches;
+import org.example.mytestprojectmvc.entity.DTO.DepartmentStats;
+import org.example.mytestprojectmvc.entity.DTO.EmployeePage;
+import org.example.mytestprojectmvc.entity.DTO.EmployeeSummary;
 import org.example.mytestprojectmvc.entity.Employee;
 import org.example.mytestprojectmvc.exceptions.EmployeeNotFoundException;
 import org.example.mytestprojectmvc.exceptions.ExternalApiException;
+import org.example.mytestprojectmvc.readmodel.EmployeeReadModel;
 import org.example.mytestprojectmvc.repository.EmployeeRepository;
+import org.example.mytestprojectmvc.repository.EmployeeSearchRepository;
+import org.example.mytestprojectmvc.repository.EmployeeStatsRepository;
+import org.hibernate.Session;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.RestTemplate;
@@ -22,10 +34,17 @@ public class EmployeeApiService {
 
     private final RestTemplate restTemplate;
     private final EmployeeRepository repository;
+    private final EmployeeCaches employeeCaches;
+    private final EmployeeReadModel readModel;
+    private final EmployeeStatsRepository statsRepository;
+    private final EmployeeSearchRepository searchRepository;
 
     @Value("${employee.api.base-url}")
     private String remoteApiBaseUrl;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
     /**
      * Получить всех сотрудников из локальной БД
      */
@@ -33,6 +52,50 @@ public class EmployeeApiService {
         return repository.findAll();
     }
 
+    /**
+     * Краткие данные всех сотрудников для списка: из read model,
+     * а пока она строится - из БД без QR-колонок
+     */
+    public List<EmployeeSummary> getEmployeeSummaries() {
+        return readModel.isReady() ? readModel.all() : repository.findAllSummaries();
+    }
+
+    /**
+     * Поиск по отделу и диапазону возраста с пагинацией (любой фильтр может быть null)
+     */
+    public EmployeePage findEmployees(String department, Integer minAge, Integer maxAge, int page, int size) {
+        if (readModel.isReady()) {
+            return readModel.query(department, minAge, maxAge, page, size);
+        }
+        Page<EmployeeSummary> result =
+                repository.findSummaries(department, minAge, maxAge, PageRequest.of(page, size));
+        return new EmployeePage(result.getTotalElements(), page, size, "db", result.getContent());
+    }
+
+    /**
+     * Поиск по имени, фамилии, отделу, должности и личному коду с ранжированием
+     */
+    public EmployeePage searchEmployees(String query, int page, int size) {
+        return searchRepository.search(query, page, size);
+    }
+
+    /**
+     * Статистика по отделам из агрегатов, которые поддерживают триггеры БД
+     */
+    public List<DepartmentStats> getDepartmentStats(String department) {
+        return statsRepository.findStats(department);
+    }
+
+    /**
+     * Пересчитать агрегаты по отделам с нуля
+     */
+    @Transactional
+    public List<DepartmentStats> rebuildDepartmentStats() {
+        statsRepository.rebuild();
+        log.info("📊 Агрегаты по отделам пересчитаны");
+        return statsRepository.findStats(null);
+    }
+
     /**
      * Найти сотрудника по ID в локальной БД
      */
@@ -41,6 +104,16 @@ public class EmployeeApiService {
                 .orElseThrow(() -> new EmployeeNotFoundException("Локальный сотрудник с ID: {} не найден.", id));
     }
 
+    /**
+     * Найти сотрудника по табельному номеру (natural id - идет через кэш Hibernate)
+     */
+    @Transactional(readOnly = true)
+    public Optional<Employee> findLocalEmployeeByPersonalCode(String personalCode) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Employee.class)
+                .loadOptional(personalCode);
+    }
+
     /**
      * Получить сотрудника из удалённого сервиса по ID
      * и сохранить в локальную БД
@@ -52,13 +125,18 @@ public class EmployeeApiService {
                 .buildAndExpand(id)
                 .toUriString();
 
-        log.info("Запрос сотрудника по ID {} c URL {}", id, url);
+        log.debug("Запрос сотрудника по ID {} c URL {}", id, url);
 
         try {
-            Employee employee = restTemplate.getForObject(url, Employee.class);
+            // Ответ удаленного API кэшируется коротко и общий для всех экземпляров
+            EmployeeSummary remote = employeeCaches.getRemoteLookups().get(id, key -> {
+                Employee fetched = restTemplate.getForObject(url, Employee.class);
+                return fetched != null ? EmployeeSummary.from(fetched) : null;
+            });
+            Employee employee = remote != null ? remote.toEmployee() : null;
 
             if (employee != null) {
-                log.info("Получен сотрудник {} {}", employee.getFirstName(), employee.getLastName());
+                log.debug("Получен сотрудник {} {}", employee.getFirstName(), employee.getLastName());
 
                 // Проверяем на дубликаты
                 Optional<Employee> duplicate = repository.findAll().stream()
@@ -66,7 +144,7 @@ public class EmployeeApiService {
                         .findFirst();
 
                 if (duplicate.isPresent()) {
-                    log.info("Дубликат найден, ID: {}", duplicate.get().getId());
+                    log.debug("Дубликат найден, ID: {}", duplicate.get().getId());
                     return duplicate.get();
                 }
 
@@ -81,33 +159,6 @@ public class EmployeeApiService {
         }
     }
 
-    /**
-     * Удалить сотрудника из локальной БД
-     */
-    @Transactional
-    public boolean deleteLocalEmployee(Long id) {
-        try {
-            if (repository.existsById(id)) {
-                // Можно сначала получить сотрудника для логов
-                Optional<Employee> employee = repository.findById(id);
-                employee.ifPresent(emp -> {
-                    log.info("Удаление сотрудника: {} {} (ID: {})",
-                            emp.getFirstName(), emp.getLastName(), emp.getId());
-                });
-
-                repository.deleteById(id);
-                log.info("Сотрудник с ID {} удалён из локальной БД", id);
-                return true;
-            } else {
-                log.warn("Сотрудник с ID {} не найден в локальной БД", id);
-                return false;
-            }
-        } catch (Exception e) {
-            log.error("Ошибка при удалении сотрудника с ID {}: {}", id, e.getMessage());
-            throw new RuntimeException("Не удалось удалить сотрудника: " + e.getMessage(), e);
-        }
-    }
-
     public Employee save(Employee employee) {
         return repository.save(employee);
     }
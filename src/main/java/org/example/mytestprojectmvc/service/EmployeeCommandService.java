@@ -1,5 +1,7 @@
 package org.example.mytestprojectmvc.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.example.mytestprojectmvc.comand.AddEmployeeCommand;
@@ -7,6 +9,7 @@ import org.example.mytestprojectmvc.comand.AddEmployeeCommandFactory;
 import org.example.mytestprojectmvc.entity.DTO.EmployeeDTO;
 import org.example.mytestprojectmvc.entity.Employee;
 import org.springframework.stereotype.Service;
+import org.springframework.util.ClassUtils;
 
 @Slf4j
 @Service
@@ -14,9 +17,24 @@ import org.springframework.stereotype.Service;
 public class EmployeeCommandService {
 
     private final AddEmployeeCommandFactory commandFactory;
+    private final MeterRegistry meterRegistry;
 
     public Employee addEmployee(EmployeeDTO employeeDTO, String saveOption) {
         AddEmployeeCommand command = commandFactory.getCommand(saveOption);
-        return command.execute(employeeDTO);
+
+        // Время каждой реализации команды (AddLocalCommand, AddRemoteCommand, AddBothCommand) и ее исход
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            Employee employee = command.execute(employeeDTO);
+            outcome = "success";
+            return employee;
+        } finally {
+            sample.stop(Timer.builder("employee.add.command")
+                    .description("Добавление сотрудника командой")
+                    .tag("command", ClassUtils.getUserClass(command).getSimpleName())
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
     }
 }
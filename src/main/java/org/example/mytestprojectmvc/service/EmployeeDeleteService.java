@@ -0,0 +1,104 @@
+package org.example.mytestprojectmvc.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.mytestprojectmvc.kafka.producer.EmployeeKafkaProducer;
+import org.example.mytestprojectmvc.kafka.producer.EmployeeSendResult;
+import org.example.mytestprojectmvc.repository.EmployeeJdbcRepository;
+import org.example.mytestprojectmvc.repository.EmployeeJdbcRepository.DeletedEmployee;
+import org.example.mytestprojectmvc.repository.TransactionHooks;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Удаление сотрудников.
+ *
+ * Каждое удаление - один DELETE ... RETURNING (без existsById/findById перед ним), сколько бы строк
+ * оно ни затронуло. После коммита по каждой удаленной строке уходит EMPLOYEE_DELETED и tombstone
+ * в топик снимков: одиночное удаление - в основной топик, массовое - в топик массовой синхронизации,
+ * где продюсер собирает крупные пачки. Отправка не блокирует поток запроса: при заполненном окне продюсера
+ * записи ждут в очереди повторов, а недоставленные за все попытки уходят в DLQ и попадают в лог.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EmployeeDeleteService {
+
+    private final EmployeeJdbcRepository employeeJdbcRepository;
+    private final EmployeeKafkaProducer kafkaProducer;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Удалить одного сотрудника. Пусто - сотрудника с таким ID нет
+     */
+    @Transactional
+    public Optional<DeletedEmployee> deleteById(Long id) {
+        List<DeletedEmployee> deleted = employeeJdbcRepository.deleteByIds(List.of(id));
+        if (deleted.isEmpty()) {
+            log.warn("Сотрудник с ID {} не найден в локальной БД", id);
+            return Optional.empty();
+        }
+        DeletedEmployee employee = deleted.get(0);
+        log.info("🗑️ Удален сотрудник: {} {} (ID: {}, Personal Code: {})",
+                employee.firstName(), employee.lastName(), employee.id(), employee.personalCode());
+        record("single", deleted);
+        TransactionHooks.afterCommit(() -> observe(employee, kafkaProducer.sendEmployeeDeleted(employee.toKafkaDto())));
+        return Optional.of(employee);
+    }
+
+    /**
+     * Удалить сотрудников по списку ID; несуществующие ID пропускаются
+     */
+    @Transactional
+    public List<DeletedEmployee> deleteByIds(List<Long> ids) {
+        List<DeletedEmployee> deleted = employeeJdbcRepository.deleteByIds(ids);
+        log.info("🗑️ Удалено сотрудников по списку: {} из {}", deleted.size(), ids.size());
+        return afterBulkDelete("ids", deleted);
+    }
+
+    /**
+     * Удалить всех сотрудников отдела
+     */
+    @Transactional
+    public List<DeletedEmployee> deleteByDepartment(String department) {
+        List<DeletedEmployee> deleted = employeeJdbcRepository.deleteByDepartment(department);
+        log.info("🗑️ Удалено сотрудников отдела '{}': {}", department, deleted.size());
+        return afterBulkDelete("department", deleted);
+    }
+
+    private List<DeletedEmployee> afterBulkDelete(String mode, List<DeletedEmployee> deleted) {
+        record(mode, deleted);
+        if (!deleted.isEmpty()) {
+            TransactionHooks.afterCommit(() -> deleted.forEach(employee ->
+                    observe(employee, kafkaProducer.sendEmployeeDeletedForBulk(employee.toKafkaDto()))));
+        }
+        return deleted;
+    }
+
+    /**
+     * Событие и tombstone завершаются независимо - недоставленное пишем в лог отдельно
+     */
+    private void observe(DeletedEmployee employee, EmployeeSendResult result) {
+        result.event().whenComplete((outcome, ex) -> {
+            if (ex != null) {
+                log.error("❌ Событие удаления сотрудника не доставлено в Kafka. ID: {}, Personal Code: {}, Ошибка: {}",
+                        employee.id(), employee.personalCode(), NestedExceptionUtils.getMostSpecificCause(ex).getMessage());
+            }
+        });
+        result.snapshot().whenComplete((outcome, ex) -> {
+            if (ex != null) {
+                log.error("❌ Tombstone сотрудника не доставлен в топик снимков. ID: {}, Personal Code: {}, Ошибка: {}",
+                        employee.id(), employee.personalCode(), NestedExceptionUtils.getMostSpecificCause(ex).getMessage());
+            }
+        });
+    }
+
+    private void record(String mode, List<DeletedEmployee> deleted) {
+        meterRegistry.counter("employee.deleted", "mode", mode).increment(deleted.size());
+    }
+}
@@ -2,14 +2,20 @@ package org.example.mytestprojectmvc.service;
 
 import com.google.zxing.BarcodeFormat;
 import com.google.zxing.EncodeHintType;
+import com.google.zxing.WriterException;
 import com.google.zxing.client.j2se.MatrixToImageConfig;
 import com.google.zxing.client.j2se.MatrixToImageWriter;
 import com.google.zxing.common.BitMatrix;
 import com.google.zxing.qrcode.QRCodeWriter;
 import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.example.mytestprojectmvc.cache.EmployeeCaches;
 import org.example.mytestprojectmvc.entity.Employee;
+import org.example.mytestprojectmvc.storage.QrImageStore;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
@@ -17,10 +23,18 @@ import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.Base64;
 import java.util.EnumMap;
+import java.util.HexFormat;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Service
@@ -33,7 +47,32 @@ public class EmployeeQrCodeGenerator {
     @Value("${qr.code.height:250}")
     private int height;
 
+    @Value("${qr.code.format:PNG}")
+    private String storageFormat;
+
+    @Value("${qr.code.max-size:2048}")
+    private int maxSize;
+
+    @Value("${qr.code.payload-timestamp:created-at}")
+    private String payloadTimestamp;
+
+    /**
+     * Версия отрисовки входит в хэш содержимого: поменяли коррекцию ошибок, поля или SVG - поднять версию,
+     * и сохраненные изображения будут перегенерированы
+     */
+    private static final String RENDER_VERSION = "1";
+
     private final QRCodeWriter qrCodeWriter = new QRCodeWriter();
+    private final EmployeeCaches employeeCaches;
+    private final QrImageStore qrImageStore;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Размер QR-кода по умолчанию (qr.code.width)
+     */
+    public int getDefaultSize() {
+        return width;
+    }
 
     /**
      * Основной метод: Генерация QR-кода для сотрудника (с personalCode)
@@ -44,17 +83,32 @@ public class EmployeeQrCodeGenerator {
             if (employee.getPersonalCode() == null || employee.getPersonalCode().isEmpty()) {
                 employee.setPersonalCode(generatePersonalCode());
             }
+            // TIMESTAMP в QR закреплен за датой создания - она должна быть известна до генерации
+            if (employee.getCreatedAt() == null) {
+                employee.setCreatedAt(LocalDateTime.now());
+            }
 
             // 2. Генерируем данные для QR-кода
             String qrData = generateEmployeeQrData(employee);
-            employee.setQrCodeData(qrData);
+            QrImageFormat format = QrImageFormat.of(storageFormat);
+            String hash = contentHash(qrData, format, width);
 
-            byte[] qrCodeImage = generateQrCode(qrData);
+            // 3. Данные и настройки не изменились - изображение уже актуально, блоб не перезаписываем
+            if (hash.equals(employee.getQrContentHash()) && qrImageStore.contains(employee)) {
+                log.debug("QR-код сотрудника {} не изменился, перегенерация пропущена", employee.getPersonalCode());
+                return employee;
+            }
 
-            employee.setQrCodeFromBytes(qrCodeImage);
+            byte[] qrCodeImage = generateQrCode(hash, qrData, format, width);
 
-            log.info("QR-код сгенерирован для сотрудника: {} (Personal Code: {})",
-                    employee.getFullName(), employee.getPersonalCode());
+            employee.setQrCodeData(qrData);
+            employee.setQrContentHash(hash);
+            qrImageStore.store(employee, qrCodeImage, format.getMediaType());
+
+            if (log.isDebugEnabled()) {
+                log.debug("QR-код сгенерирован для сотрудника: {} (Personal Code: {})",
+                        employee.getFullName(), employee.getPersonalCode());
+            }
 
             employee.setUpdatedAt(LocalDateTime.now());
 
@@ -75,6 +129,42 @@ public class EmployeeQrCodeGenerator {
         return generateQrCode(qrData);
     }
 
+    /**
+     * Изображение QR-кода сотрудника в заданном формате и размере (size x size)
+     */
+    public byte[] generateQrCodeImageForEmployee(Employee employee, QrImageFormat format, int size) throws Exception {
+        String qrData = generateEmployeeQrData(employee);
+        String hash = contentHash(qrData, format, size);
+        // Сохраненное изображение отдается без рендеринга, если оно построено из тех же данных с теми же настройками
+        byte[] stored = hash.equals(employee.getQrContentHash()) ? qrImageStore.load(employee) : null;
+        return stored != null ? stored : generateQrCode(hash, qrData, format, size);
+    }
+
+    /**
+     * Сохраненное изображение сотрудника построено из текущих данных с этими настройками
+     * и его можно отдать как есть
+     */
+    public boolean isStoredImageCurrent(Employee employee, QrImageFormat format, int size) {
+        return employee.getQrContentHash() != null
+                && employee.getQrContentHash().equals(contentHash(generateEmployeeQrData(employee), format, size))
+                && qrImageStore.contains(employee);
+    }
+
+    /**
+     * Хэш содержимого для изображения, сохраненного до появления qr_content_hash (формат - по самому изображению)
+     */
+    public String contentHashOfStoredImage(String qrData, byte[] image) {
+        return contentHash(qrData, QrImageFormat.detect(image), width);
+    }
+
+    /**
+     * SVG QR-кода сотрудника как data: URI для img (без Base64, в разы меньше PNG)
+     */
+    public String generateQrCodeSvgDataUriForEmployee(Employee employee) throws Exception {
+        return QrSvgWriter.toDataUri(new String(
+                generateQrCode(generateEmployeeQrData(employee), QrImageFormat.SVG, width), StandardCharsets.UTF_8));
+    }
+
     /**
      * Генерация Base64 строки QR-кода для сотрудника
      */
@@ -94,22 +184,39 @@ public class EmployeeQrCodeGenerator {
         String qrData = generatePreviewEmployeeQrData(employee);
         return generateQrCode(qrData);
     }
+
+    public byte[] generatePreviewQrCodeForEmployee(Employee employee, QrImageFormat format, int size) throws Exception {
+        return generateQrCode(generatePreviewEmployeeQrData(employee), format, size);
+    }
+
+    public String generatePreviewQrCodeSvgDataUriForEmployee(Employee employee) throws Exception {
+        return QrSvgWriter.toDataUri(new String(
+                generateQrCode(generatePreviewEmployeeQrData(employee), QrImageFormat.SVG, width), StandardCharsets.UTF_8));
+    }
     // ============= ПРИВАТНЫЕ ВСПОМОГАТЕЛЬНЫЕ МЕТОДЫ =============
 
     /**
-     * Генерация данных для QR-кода (основной, с personalCode)
+     * Генерация данных для QR-кода (основной, с personalCode).
+     * TIMESTAMP по умолчанию - дата создания сотрудника (UTC), поэтому данные детерминированы:
+     * одинаковый сотрудник дает одинаковый QR, кэши и пропуск перегенерации работают
      */
     private String generateEmployeeQrData(Employee employee) {
-        return String.format(
-                "PERSONAL_CODE:%s|NAME:%s %s|DEPT:%s|AGE:%d|POST:%s|TIMESTAMP:%d",
+        String data = String.format(
+                "PERSONAL_CODE:%s|NAME:%s %s|DEPT:%s|AGE:%d|POST:%s",
                 employee.getPersonalCode() != null ? employee.getPersonalCode() : "N/A",
                 employee.getFirstName(),
                 employee.getLastName(),
                 employee.getDepartment(),
                 employee.getAge() != null ? employee.getAge() : 0,
-                employee.getPost() != null ? employee.getPost() : "N/A",
-                System.currentTimeMillis() / 1000
+                employee.getPost() != null ? employee.getPost() : "N/A"
         );
+        return switch (payloadTimestamp) {
+            case "none" -> data;
+            case "now" -> data + "|TIMESTAMP:" + System.currentTimeMillis() / 1000;
+            default -> data + "|TIMESTAMP:" + (employee.getCreatedAt() != null
+                    ? employee.getCreatedAt().toEpochSecond(ZoneOffset.UTC)
+                    : 0);
+        };
     }
 
     /**
@@ -137,32 +244,118 @@ public class EmployeeQrCodeGenerator {
         }
 
     /**
-     * Базовая генерация QR-кода из строки данных
+     * Базовая генерация QR-кода из строки данных (PNG стандартного размера)
      */
     private byte[] generateQrCode(String data) throws Exception {
+        return generateQrCode(data, QrImageFormat.PNG, width);
+    }
+
+    /**
+     * Генерация QR-кода в формате format размером size x size.
+     * Готовые изображения берутся из общего кэша по хэшу содержимого (данные + формат + размер)
+     */
+    private byte[] generateQrCode(String data, QrImageFormat format, int size) throws Exception {
+        return generateQrCode(contentHash(data, format, size), data, format, size);
+    }
+
+    private byte[] generateQrCode(String hash, String data, QrImageFormat format, int size) throws Exception {
+        if (size < 1 || size > maxSize) {
+            throw new IllegalArgumentException("Размер QR-кода должен быть от 1 до " + maxSize + ": " + size);
+        }
+        try {
+            return employeeCaches.getQrPng().get(hash, key -> render(data, format, size));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * SVG строится из матрицы модулей напрямую. PNG стандартного размера рисует ZXing,
+     * PNG других размеров - Batik из SVG (без белых полей от целочисленного масштаба ZXing).
+     * Кодирование матрицы и запись изображения замеряются отдельно (qr.encode, qr.image.write)
+     */
+    byte[] render(String data, QrImageFormat format, int size) {
+        boolean zxingPng = format == QrImageFormat.PNG && size == width && size == height;
+
+        long start = System.nanoTime();
+        BitMatrix matrix = zxingPng ? encode(data, width, height) : encode(data, 0, 0);
+        long encoded = System.nanoTime();
+
+        byte[] image;
+        if (zxingPng) {
+            image = writePng(matrix);
+        } else {
+            String svg = QrSvgWriter.toSvg(matrix, size);
+            image = format == QrImageFormat.SVG
+                    ? svg.getBytes(StandardCharsets.UTF_8)
+                    : QrSvgWriter.rasterize(svg, size);
+        }
+
+        recordRender(format, encoded - start, System.nanoTime() - encoded, image.length);
+        return image;
+    }
+
+    private BitMatrix encode(String data, int matrixWidth, int matrixHeight) {
         Map<EncodeHintType, Object> hints = new EnumMap<>(EncodeHintType.class);
         hints.put(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.H);
         hints.put(EncodeHintType.MARGIN, 1);
         hints.put(EncodeHintType.CHARACTER_SET, "UTF-8");
 
-        BitMatrix bitMatrix = qrCodeWriter.encode(
-                data,
-                BarcodeFormat.QR_CODE,
-                width,
-                height,
-                hints
-        );
+        try {
+            return qrCodeWriter.encode(data, BarcodeFormat.QR_CODE, matrixWidth, matrixHeight, hints);
+        } catch (WriterException e) {
+            throw new IllegalArgumentException("Не удалось закодировать данные в QR-код", e);
+        }
+    }
 
-        MatrixToImageConfig config = new MatrixToImageConfig(
-                Color.BLACK.getRGB(),
-                Color.WHITE.getRGB()
-        );
+    private byte[] writePng(BitMatrix bitMatrix) {
+        try {
+            MatrixToImageConfig config = new MatrixToImageConfig(
+                    Color.BLACK.getRGB(),
+                    Color.WHITE.getRGB()
+            );
+
+            BufferedImage bufferedImage = MatrixToImageWriter.toBufferedImage(bitMatrix, config);
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            ImageIO.write(bufferedImage, "PNG", baos);
+
+            return baos.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 
-        BufferedImage bufferedImage = MatrixToImageWriter.toBufferedImage(bitMatrix, config);
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        ImageIO.write(bufferedImage, "PNG", baos);
+    private void recordRender(QrImageFormat format, long encodeNanos, long writeNanos, int bytes) {
+        String tag = format.getExtension();
+        Timer.builder("qr.encode")
+                .description("Кодирование данных в матрицу QR (ZXing)")
+                .tag("format", tag)
+                .register(meterRegistry)
+                .record(encodeNanos, TimeUnit.NANOSECONDS);
+        Timer.builder("qr.image.write")
+                .description("Запись матрицы QR в изображение")
+                .tag("format", tag)
+                .register(meterRegistry)
+                .record(writeNanos, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("qr.image.bytes")
+                .description("Размер сгенерированного изображения QR")
+                .baseUnit("bytes")
+                .tag("format", tag)
+                .register(meterRegistry)
+                .record(bytes);
+    }
 
-        return baos.toByteArray();
+    private String contentHash(String data, QrImageFormat format, int size) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(data.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            String variant = format == QrImageFormat.PNG && size == width ? width + "x" + height : size + "x" + size;
+            digest.update((variant + ":" + format + ":" + RENDER_VERSION).getBytes(StandardCharsets.US_ASCII));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 
     /**
@@ -0,0 +1,189 @@
+package org.example.mytestprojectmvc.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.mytestprojectmvc.entity.DTO.EmployeeQrExportRow;
+import org.example.mytestprojectmvc.entity.Employee;
+import org.example.mytestprojectmvc.repository.EmployeeRepository;
+import org.example.mytestprojectmvc.storage.QrImageStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Потоковая выгрузка QR-кодов сотрудников в ZIP-архив.
+ *
+ * Строки читаются курсором (без загрузки всей таблицы), PNG пишутся
+ * без сжатия (STORED) - они и так сжаты, сохраненные SVG - со сжатием.
+ * Отсутствующие QR-коды рендерятся параллельно на лету и в БД не записываются
+ * (это делает QrEmpLocalSync).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EmployeeQrExportService {
+
+    private final EmployeeRepository employeeRepository;
+    private final EmployeeQrCodeGenerator qrCodeGenerator;
+    private final QrImageStore qrImageStore;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${qr.export.render-threads:4}")
+    private int renderThreads;
+
+    @Value("${qr.export.max-in-flight:32}")
+    private int maxInFlight;
+
+    private ExecutorService renderExecutor;
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger counter = new AtomicInteger();
+        renderExecutor = Executors.newFixedThreadPool(renderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "qr-export-render-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        renderExecutor.shutdownNow();
+    }
+
+    /**
+     * Записывает ZIP с QR-кодами отдела (или всех сотрудников при department = null) в поток
+     */
+    public void exportQrCodesZip(String department, OutputStream out) {
+        long start = System.currentTimeMillis();
+
+        int written = readOnlyTransaction.execute(status -> {
+            try (Stream<EmployeeQrExportRow> rows = employeeRepository.streamQrExportRows(department)) {
+                return writeZip(rows.iterator(), out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        log.info("Выгрузка QR-кодов завершена. Отдел: {}, файлов: {}, время: {} мс",
+                department != null ? department : "ВСЕ", written, System.currentTimeMillis() - start);
+    }
+
+    private int writeZip(Iterator<EmployeeQrExportRow> rows, OutputStream out) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out);
+        zip.setMethod(ZipOutputStream.STORED);
+
+        // Окно рендеринга: порядок записей сохраняется, память ограничена maxInFlight
+        Deque<CompletableFuture<ZipItem>> window = new ArrayDeque<>();
+        int written = 0;
+
+        while (rows.hasNext()) {
+            EmployeeQrExportRow row = rows.next();
+            Employee employee = toEmployee(row);
+            byte[] stored = qrImageStore.load(employee);
+            window.addLast(stored != null
+                    ? CompletableFuture.completedFuture(ZipItem.of(entryName(row, stored), stored))
+                    : CompletableFuture.supplyAsync(() -> render(row, employee), renderExecutor));
+
+            if (window.size() >= maxInFlight) {
+                written += writeEntry(zip, window.pollFirst().join());
+            }
+        }
+        while (!window.isEmpty()) {
+            written += writeEntry(zip, window.pollFirst().join());
+        }
+
+        zip.finish();
+        zip.flush();
+        return written;
+    }
+
+    private static Employee toEmployee(EmployeeQrExportRow row) {
+        return Employee.builder()
+                .id(row.getId())
+                .personalCode(row.getPersonalCode())
+                .firstName(row.getFirstName())
+                .lastName(row.getLastName())
+                .department(row.getDepartment())
+                .age(row.getAge())
+                .post(row.getPost())
+                .qrCodeImage(row.getQrCodeImage())
+                .qrContentHash(row.getQrContentHash())
+                .createdAt(row.getCreatedAt())
+                .build();
+    }
+
+    private ZipItem render(EmployeeQrExportRow row, Employee employee) {
+        try {
+            byte[] image = qrCodeGenerator.generateQrCodeImageForEmployee(employee);
+            return ZipItem.of(entryName(row, image), image);
+        } catch (Exception e) {
+            log.warn("Не удалось сгенерировать QR-код для выгрузки, сотрудник ID: {}: {}",
+                    row.getId(), e.getMessage());
+            return null;
+        }
+    }
+
+    private int writeEntry(ZipOutputStream zip, ZipItem item) throws IOException {
+        if (item == null) {
+            return 0;
+        }
+        ZipEntry entry = new ZipEntry(item.name());
+        if (QrImageFormat.detect(item.data()) == QrImageFormat.SVG) {
+            // SVG - текст, в отличие от PNG хорошо сжимается
+            entry.setMethod(ZipEntry.DEFLATED);
+        } else {
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(item.data().length);
+            entry.setCompressedSize(item.data().length);
+            entry.setCrc(item.crc());
+        }
+
+        zip.putNextEntry(entry);
+        zip.write(item.data());
+        zip.closeEntry();
+        return 1;
+    }
+
+    private String entryName(EmployeeQrExportRow row, byte[] image) {
+        String code = row.getPersonalCode() != null ? row.getPersonalCode() : "ID-" + row.getId();
+        return sanitize(row.getDepartment()) + "/employee_" + sanitize(code) + "_qrcode."
+                + QrImageFormat.detect(image).getExtension();
+    }
+
+    private static String sanitize(String value) {
+        if (value == null || value.isBlank()) {
+            return "unknown";
+        }
+        return value.replaceAll("[\\\\/:*?\"<>|]", "_");
+    }
+
+    private record ZipItem(String name, byte[] data, long crc) {
+        static ZipItem of(String name, byte[] data) {
+            CRC32 crc32 = new CRC32();
+            crc32.update(data);
+            return new ZipItem(name, data, crc32.getValue());
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package org.example.mytestprojectmvc.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.mytestprojectmvc.readmodel.LongIntHashMap;
+import org.example.mytestprojectmvc.repository.EmployeeJdbcRepository;
+import org.example.mytestprojectmvc.repository.EmployeeJdbcRepository.StoredQrImage;
+import org.example.mytestprojectmvc.storage.QrBlobSegmentStore;
+import org.example.mytestprojectmvc.storage.SegmentQrImageStore;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Обслуживание файлового хранилища QR-кодов (qr.code.storage.backend=segment):
+ * перенос изображений из колонки qr_code_image и компактация сегментов
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EmployeeQrStorageService {
+
+    private final ObjectProvider<SegmentQrImageStore> segmentStore;
+    private final EmployeeJdbcRepository employeeJdbcRepository;
+    private final EmployeeQrCodeGenerator qrCodeGenerator;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${qr.code.storage.migrate-chunk-size:200}")
+    private int chunkSize;
+
+    @Value("${qr.code.storage.compaction-min-garbage:0.5}")
+    private double compactionMinGarbage;
+
+    @Value("${app.read-model.expected-size:10000}")
+    private int expectedSize;
+
+    /**
+     * Переносит изображения из БД в сегменты пачками: сначала запись в файл и fsync,
+     * потом очистка колонки. Повторный запуск продолжает с оставшихся строк
+     */
+    public int migrateFromDatabase() {
+        SegmentQrImageStore store = requireSegmentStore();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        long start = System.currentTimeMillis();
+        long lastId = 0;
+        int migrated = 0;
+
+        while (true) {
+            List<StoredQrImage> chunk = employeeJdbcRepository.findStoredQrImagesAfter(lastId, chunkSize);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            lastId = chunk.get(chunk.size() - 1).id();
+
+            List<StoredQrImage> moved = new ArrayList<>(chunk.size());
+            List<String> hashes = new ArrayList<>(chunk.size());
+            for (StoredQrImage image : chunk) {
+                String hash = image.contentHash() != null ? image.contentHash()
+                        : image.qrData() != null ? qrCodeGenerator.contentHashOfStoredImage(image.qrData(), image.image())
+                        : null;
+                if (hash == null) {
+                    log.warn("У сотрудника ID: {} нет данных QR, изображение оставлено в БД", image.id());
+                    continue;
+                }
+                store.put(hash, image.image());
+                moved.add(image);
+                hashes.add(hash);
+            }
+            sync(store);
+
+            Integer updated = transaction.execute(status -> employeeJdbcRepository.detachQrImages(moved, hashes));
+            migrated += updated != null ? updated : 0;
+            log.debug("Пачка QR-кодов перенесена в файлы: {} из {} (ID до {})", updated, chunk.size(), lastId);
+        }
+
+        log.info("✅ Перенос QR-кодов из БД в файлы завершен: {} изображений, {} мс",
+                migrated, System.currentTimeMillis() - start);
+        return migrated;
+    }
+
+    /**
+     * Компактация сегментов: живыми считаются хэши, на которые ссылается employees.
+     * Изображение, записанное во время компактации и еще не закоммиченное в БД, может быть
+     * сочтено мертвым - тогда оно будет перерисовано при следующем обращении
+     */
+    public QrBlobSegmentStore.CompactionResult compact() {
+        SegmentQrImageStore store = requireSegmentStore();
+        long start = System.currentTimeMillis();
+
+        LongIntHashMap live = new LongIntHashMap(expectedSize);
+        TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        readOnlyTransaction.executeWithoutResult(status -> employeeJdbcRepository.forEachQrContentHash(
+                hash -> live.put(QrBlobSegmentStore.key(hash), 1)));
+
+        try {
+            QrBlobSegmentStore.CompactionResult result =
+                    store.blobs().compact(key -> live.get(key, 0) == 1, compactionMinGarbage);
+            log.info("Компактация QR-хранилища: сегментов {}, перенесено {}, удалено {}, освобождено {} КБ, {} мс",
+                    result.segmentsCompacted(), result.imagesMoved(), result.imagesRemoved(),
+                    result.bytesReclaimed() / 1024, System.currentTimeMillis() - start);
+            return result;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Компактация QR-хранилища не удалась", e);
+        }
+    }
+
+    @Scheduled(
+            initialDelayString = "${qr.code.storage.compaction-interval-ms:21600000}",
+            fixedDelayString = "${qr.code.storage.compaction-interval-ms:21600000}"
+    )
+    public void compactScheduled() {
+        if (segmentStore.getIfAvailable() == null) {
+            return;
+        }
+        try {
+            compact();
+        } catch (Exception e) {
+            log.error("❌ Ошибка плановой компактации QR-хранилища", e);
+        }
+    }
+
+    public QrBlobSegmentStore.Stats stats() {
+        return requireSegmentStore().blobs().stats();
+    }
+
+    private SegmentQrImageStore requireSegmentStore() {
+        SegmentQrImageStore store = segmentStore.getIfAvailable();
+        if (store == null) {
+            throw new IllegalStateException("QR-коды хранятся в БД: включите qr.code.storage.backend=segment");
+        }
+        return store;
+    }
+
+    private static void sync(SegmentQrImageStore store) {
+        try {
+            store.blobs().sync();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось сбросить QR-хранилище на диск", e);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.example.mytestprojectmvc.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.mytestprojectmvc.entity.DTO.EmployeeSummary;
+import org.example.mytestprojectmvc.entity.DTO.QrVerificationResult;
+import org.example.mytestprojectmvc.readmodel.EmployeeReadModel;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Проверка отсканированных пропусков на турникетах.
+ *
+ * Личный код из QR ищется в read model (без обращения к БД и без копирования подстроки),
+ * если там его нет или модель еще строится - в БД по natural id (с кэшем второго уровня).
+ * Затем поля QR сравниваются с текущими данными сотрудника.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EmployeeQrVerificationService {
+
+    private final EmployeeReadModel readModel;
+    private final EmployeeApiService employeeService;
+    private final QrImageDecoder imageDecoder;
+
+    public QrVerificationResult verify(String payload) {
+        long start = System.nanoTime();
+
+        QrPayload qr = QrPayload.parse(payload);
+        if (qr == null) {
+            return QrVerificationResult.unknown("MALFORMED", null, micros(start));
+        }
+
+        String source = "memory";
+        EmployeeSummary employee = readModel.isReady()
+                ? readModel.findByPersonalCode(payload, qr.personalCodeStart(), qr.personalCodeEnd())
+                : null;
+        if (employee == null) {
+            source = "db";
+            employee = employeeService.findLocalEmployeeByPersonalCode(qr.personalCode())
+                    .map(EmployeeSummary::from)
+                    .orElse(null);
+        }
+        if (employee == null) {
+            log.debug("Проверка QR: личный код {} не найден", qr.personalCode());
+            return QrVerificationResult.unknown("NOT_FOUND", qr.personalCode(), micros(start));
+        }
+
+        List<String> differences = qr.differences(employee);
+        QrVerificationResult.Status status = differences.isEmpty()
+                ? QrVerificationResult.Status.VALID
+                : QrVerificationResult.Status.STALE;
+        return new QrVerificationResult(status, null, employee.getPersonalCode(), employee.getId(),
+                employee.getFirstName() + " " + employee.getLastName(), differences, source, micros(start));
+    }
+
+    /**
+     * Проверка по фотографии пропуска: сначала распознавание на пуле QrImageDecoder
+     */
+    public QrVerificationResult verifyImage(byte[] image) {
+        long start = System.nanoTime();
+        String payload = imageDecoder.decode(image);
+        if (payload == null) {
+            return QrVerificationResult.unknown("NO_QR_FOUND", null, micros(start));
+        }
+        QrVerificationResult result = verify(payload);
+        result.setTookMicros(micros(start));
+        return result;
+    }
+
+    private static long micros(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1000;
+    }
+}
@@ -0,0 +1,121 @@
+package org.example.mytestprojectmvc.service;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.ReaderException;
+import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.qrcode.QRCodeReader;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.mytestprojectmvc.exceptions.QrDecoderBusyException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Распознавание QR-кодов на загруженных изображениях.
+ *
+ * Декодирование (ImageIO + ZXing) тяжелое по CPU, поэтому идет на отдельном пуле
+ * фиксированного размера с ограниченной очередью: при переполнении запрос сразу
+ * получает отказ (QrDecoderBusyException), а не копит потоки Tomcat.
+ */
+@Slf4j
+@Component
+public class QrImageDecoder {
+
+    private static final Map<DecodeHintType, Object> HINTS = new EnumMap<>(DecodeHintType.class);
+
+    static {
+        HINTS.put(DecodeHintType.POSSIBLE_FORMATS, List.of(BarcodeFormat.QR_CODE));
+        HINTS.put(DecodeHintType.CHARACTER_SET, "UTF-8");
+        HINTS.put(DecodeHintType.TRY_HARDER, Boolean.TRUE);
+    }
+
+    @Value("${qr.verify.decode-threads:2}")
+    private int decodeThreads;
+
+    @Value("${qr.verify.decode-queue:32}")
+    private int decodeQueue;
+
+    @Value("${qr.verify.decode-timeout-ms:2000}")
+    private long decodeTimeoutMs;
+
+    private ThreadPoolExecutor decodeExecutor;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger counter = new AtomicInteger();
+        decodeExecutor = new ThreadPoolExecutor(decodeThreads, decodeThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(decodeQueue), runnable -> {
+            Thread thread = new Thread(runnable, "qr-decode-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        decodeExecutor.shutdownNow();
+    }
+
+    /**
+     * Текст QR-кода с изображения или null, если QR на нем не найден
+     */
+    public String decode(byte[] image) {
+        Future<String> result;
+        try {
+            result = decodeExecutor.submit(() -> decodeNow(image));
+        } catch (RejectedExecutionException e) {
+            throw new QrDecoderBusyException("Очередь распознавания QR переполнена");
+        }
+
+        try {
+            return result.get(decodeTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            throw new QrDecoderBusyException("Распознавание QR не уложилось в " + decodeTimeoutMs + " мс");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.cancel(true);
+            throw new QrDecoderBusyException("Распознавание QR прервано");
+        } catch (ExecutionException e) {
+            throw new IllegalArgumentException("Не удалось прочитать изображение: " + e.getCause().getMessage(),
+                    e.getCause());
+        }
+    }
+
+    private static String decodeNow(byte[] image) throws IOException {
+        BufferedImage bufferedImage = ImageIO.read(new ByteArrayInputStream(image));
+        if (bufferedImage == null) {
+            throw new IOException("формат изображения не поддерживается");
+        }
+        BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(new BufferedImageLuminanceSource(bufferedImage)));
+        try {
+            return new QRCodeReader().decode(bitmap, HINTS).getText();
+        } catch (NotFoundException e) {
+            return null;
+        } catch (ReaderException e) {
+            log.debug("QR найден, но не прочитан: {}", e.toString());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package org.example.mytestprojectmvc.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Locale;
+
+/**
+ * Формат изображения QR-кода: растровый PNG или векторный SVG
+ */
+@Getter
+@RequiredArgsConstructor
+public enum QrImageFormat {
+
+    PNG("image/png", "png"),
+    SVG("image/svg+xml", "svg");
+
+    private final String mediaType;
+    private final String extension;
+
+    /**
+     * Формат по имени из параметра запроса или настройки (без учета регистра)
+     */
+    public static QrImageFormat of(String value) {
+        if (value == null || value.isBlank()) {
+            return PNG;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Неизвестный формат QR-кода: " + value + " (ожидается png или svg)");
+        }
+    }
+
+    /**
+     * Формат уже сохраненного изображения по первым байтам
+     */
+    public static QrImageFormat detect(byte[] image) {
+        return image.length > 0 && image[0] == '<' ? SVG : PNG;
+    }
+}
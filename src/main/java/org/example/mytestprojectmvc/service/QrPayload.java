@@ -0,0 +1,165 @@
+package org.example.mytestprojectmvc.service;
+
+import org.example.mytestprojectmvc.entity.DTO.EmployeeSummary;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Разобранные данные QR-кода сотрудника:
+ * PERSONAL_CODE:...|NAME:имя фамилия|DEPT:...|AGE:...|POST:...|TIMESTAMP:...
+ *
+ * Парсер без регулярных выражений и без подстрок: для каждого поля запоминаются
+ * границы значения в исходной строке, сравнение с сотрудником идет через regionMatches.
+ * Неизвестные поля пропускаются, порядок полей не важен.
+ */
+public final class QrPayload {
+
+    public static final String PERSONAL_CODE = "PERSONAL_CODE";
+    public static final String NAME = "NAME";
+    public static final String DEPT = "DEPT";
+    public static final String AGE = "AGE";
+    public static final String POST = "POST";
+    public static final String TIMESTAMP = "TIMESTAMP";
+
+    private static final String NOT_AVAILABLE = "N/A";
+    private static final int ABSENT = -1;
+
+    private final String source;
+    private int codeStart = ABSENT, codeEnd;
+    private int nameStart = ABSENT, nameEnd;
+    private int deptStart = ABSENT, deptEnd;
+    private int ageStart = ABSENT, ageEnd;
+    private int postStart = ABSENT, postEnd;
+
+    private QrPayload(String source) {
+        this.source = source;
+    }
+
+    /**
+     * Разбор строки QR. null - строка пустая или в ней нет непустого PERSONAL_CODE
+     */
+    public static QrPayload parse(String payload) {
+        if (payload == null) {
+            return null;
+        }
+        int length = payload.length();
+        // Сканер может добавить перевод строки в конце
+        while (length > 0 && payload.charAt(length - 1) <= ' ') {
+            length--;
+        }
+
+        QrPayload parsed = new QrPayload(payload);
+        int fieldStart = 0;
+        while (fieldStart < length) {
+            int fieldEnd = payload.indexOf('|', fieldStart);
+            if (fieldEnd < 0 || fieldEnd > length) {
+                fieldEnd = length;
+            }
+            int colon = payload.indexOf(':', fieldStart);
+            if (colon > fieldStart && colon < fieldEnd) {
+                parsed.assign(fieldStart, colon, colon + 1, fieldEnd);
+            }
+            fieldStart = fieldEnd + 1;
+        }
+        return parsed.codeStart != ABSENT && parsed.codeEnd > parsed.codeStart ? parsed : null;
+    }
+
+    private void assign(int keyStart, int keyEnd, int valueStart, int valueEnd) {
+        if (isKey(PERSONAL_CODE, keyStart, keyEnd)) {
+            codeStart = valueStart;
+            codeEnd = valueEnd;
+        } else if (isKey(NAME, keyStart, keyEnd)) {
+            nameStart = valueStart;
+            nameEnd = valueEnd;
+        } else if (isKey(DEPT, keyStart, keyEnd)) {
+            deptStart = valueStart;
+            deptEnd = valueEnd;
+        } else if (isKey(AGE, keyStart, keyEnd)) {
+            ageStart = valueStart;
+            ageEnd = valueEnd;
+        } else if (isKey(POST, keyStart, keyEnd)) {
+            postStart = valueStart;
+            postEnd = valueEnd;
+        }
+    }
+
+    private boolean isKey(String key, int start, int end) {
+        return end - start == key.length() && source.regionMatches(start, key, 0, key.length());
+    }
+
+    public String source() {
+        return source;
+    }
+
+    public int personalCodeStart() {
+        return codeStart;
+    }
+
+    public int personalCodeEnd() {
+        return codeEnd;
+    }
+
+    public String personalCode() {
+        return source.substring(codeStart, codeEnd);
+    }
+
+    /**
+     * Поля QR, которые расходятся с текущими данными сотрудника (пустой список - совпадают все).
+     * Отсутствующее в QR поле считается расхождением.
+     */
+    public List<String> differences(EmployeeSummary employee) {
+        List<String> differences = null;
+        if (!nameMatches(employee.getFirstName(), employee.getLastName())) {
+            differences = add(differences, NAME);
+        }
+        if (!valueMatches(deptStart, deptEnd, employee.getDepartment())) {
+            differences = add(differences, DEPT);
+        }
+        if (!ageMatches(employee.getAge() != null ? employee.getAge() : 0)) {
+            differences = add(differences, AGE);
+        }
+        if (!valueMatches(postStart, postEnd, employee.getPost() != null ? employee.getPost() : NOT_AVAILABLE)) {
+            differences = add(differences, POST);
+        }
+        return differences != null ? differences : List.of();
+    }
+
+    private boolean nameMatches(String firstName, String lastName) {
+        if (nameStart == ABSENT || firstName == null || lastName == null) {
+            return false;
+        }
+        int firstLength = firstName.length();
+        return nameEnd - nameStart == firstLength + 1 + lastName.length()
+                && source.regionMatches(nameStart, firstName, 0, firstLength)
+                && source.charAt(nameStart + firstLength) == ' '
+                && source.regionMatches(nameStart + firstLength + 1, lastName, 0, lastName.length());
+    }
+
+    private boolean valueMatches(int start, int end, String expected) {
+        return start != ABSENT && expected != null
+                && end - start == expected.length()
+                && source.regionMatches(start, expected, 0, expected.length());
+    }
+
+    private boolean ageMatches(int expected) {
+        if (ageStart == ABSENT || ageEnd == ageStart || ageEnd - ageStart > 3) {
+            return false;
+        }
+        int age = 0;
+        for (int i = ageStart; i < ageEnd; i++) {
+            char digit = source.charAt(i);
+            if (digit < '0' || digit > '9') {
+                return false;
+            }
+            age = age * 10 + (digit - '0');
+        }
+        return age == expected;
+    }
+
+    private static List<String> add(List<String> list, String field) {
+        List<String> result = list != null ? list : new ArrayList<>(4);
+        result.add(field);
+        return result;
+    }
+}
@@ -0,0 +1,124 @@
+package org.example.mytestprojectmvc.service;
+
+import com.google.zxing.common.BitMatrix;
+import org.apache.batik.transcoder.TranscoderException;
+import org.apache.batik.transcoder.TranscoderInput;
+import org.apache.batik.transcoder.TranscoderOutput;
+import org.apache.batik.transcoder.image.ImageTranscoder;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * SVG из BitMatrix (аналог MatrixToImageWriter для векторного вывода).
+ *
+ * Матрица берется в масштабе 1 модуль = 1 единица viewBox, соседние черные модули строки
+ * сливаются в один отрезок, и все отрезки пишутся одним path. SVG масштабируется
+ * без потери четкости, а после gzip по размеру сопоставим с PNG.
+ * Растеризация в PNG произвольного размера - через Batik.
+ */
+public final class QrSvgWriter {
+
+    private QrSvgWriter() {
+    }
+
+    public static String toSvg(BitMatrix matrix, int size) {
+        int width = matrix.getWidth();
+        int height = matrix.getHeight();
+        StringBuilder svg = new StringBuilder(256 + width * height / 4);
+        svg.append("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"").append(size)
+                .append("\" height=\"").append(size)
+                .append("\" viewBox=\"0 0 ").append(width).append(' ').append(height)
+                .append("\" shape-rendering=\"crispEdges\">")
+                .append("<path fill=\"#fff\" d=\"M0 0h").append(width).append('v').append(height).append("H0z\"/>")
+                .append("<path stroke=\"#000\" d=\"");
+
+        // Каждый отрезок - линия толщиной в модуль по середине строки; перо ходит относительными m,
+        // поэтому на отрезок уходит ~6 символов вместо прямоугольника в абсолютных координатах
+        int penX = 0;
+        int penY = -1;
+        for (int y = 0; y < height; y++) {
+            int x = 0;
+            while (x < width) {
+                if (!matrix.get(x, y)) {
+                    x++;
+                    continue;
+                }
+                int runStart = x;
+                while (x < width && matrix.get(x, y)) {
+                    x++;
+                }
+                if (penY < 0) {
+                    svg.append('M').append(runStart).append(' ').append(y).append(".5");
+                } else {
+                    svg.append('m').append(runStart - penX).append(' ').append(y - penY);
+                }
+                svg.append('h').append(x - runStart);
+                penX = x;
+                penY = y;
+            }
+        }
+        return svg.append("\"/></svg>").toString();
+    }
+
+    /**
+     * Растеризация SVG в PNG size x size. Batik рисует в BufferedImage,
+     * PNG пишет ImageIO (как и для ZXing) - кодеки batik-codec не нужны
+     */
+    public static byte[] rasterize(String svg, int size) {
+        BufferedImageTranscoder transcoder = new BufferedImageTranscoder();
+        transcoder.addTranscodingHint(ImageTranscoder.KEY_WIDTH, (float) size);
+        transcoder.addTranscodingHint(ImageTranscoder.KEY_HEIGHT, (float) size);
+
+        try {
+            transcoder.transcode(
+                    new TranscoderInput(new ByteArrayInputStream(svg.getBytes(StandardCharsets.UTF_8))), null);
+            ByteArrayOutputStream png = new ByteArrayOutputStream();
+            ImageIO.write(transcoder.image, "PNG", png);
+            return png.toByteArray();
+        } catch (TranscoderException e) {
+            throw new IllegalStateException("Не удалось растеризовать SVG QR-кода", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final class BufferedImageTranscoder extends ImageTranscoder {
+
+        private BufferedImage image;
+
+        @Override
+        public BufferedImage createImage(int width, int height) {
+            return new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+        }
+
+        @Override
+        public void writeImage(BufferedImage image, TranscoderOutput output) {
+            this.image = image;
+        }
+    }
+
+    /**
+     * data: URI для встраивания в img без Base64 (экранируются только служебные символы)
+     */
+    public static String toDataUri(String svg) {
+        StringBuilder uri = new StringBuilder(svg.length() + 64).append("data:image/svg+xml,");
+        for (int i = 0; i < svg.length(); i++) {
+            char c = svg.charAt(i);
+            switch (c) {
+                case '"' -> uri.append('\'');
+                case '<' -> uri.append("%3C");
+                case '>' -> uri.append("%3E");
+                case '#' -> uri.append("%23");
+                case '%' -> uri.append("%25");
+                default -> uri.append(c);
+            }
+        }
+        return uri.toString();
+    }
+}
@@ -0,0 +1,120 @@
+package org.example.mytestprojectmvc.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.mytestprojectmvc.scheduler.EmployeeBulkSyncToKafkaScheduler;
+import org.example.mytestprojectmvc.scheduler.EmployeeBulkSyncToKafkaScheduler.SyncStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Рассылка статуса массовой синхронизации подписчикам через Server-Sent Events.
+ *
+ * Один поток раз в pushInterval снимает статус и отправляет его всем подписчикам,
+ * только если он изменился - промежуточные обновления схлопываются.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SyncStatusBroadcaster {
+
+    private static final String EVENT_NAME = "sync-status";
+
+    private final EmployeeBulkSyncToKafkaScheduler bulkSyncScheduler;
+
+    @Value("${app.kafka.bulk-sync.status-push-interval-ms:500}")
+    private long pushIntervalMs;
+
+    @Value("${app.kafka.bulk-sync.status-heartbeat-ms:15000}")
+    private long heartbeatMs;
+
+    @Value("${app.kafka.bulk-sync.status-emitter-timeout-ms:1800000}")
+    private long emitterTimeoutMs;
+
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "sync-status-sse");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile SyncStatus lastSent;
+    private volatile long lastSentAt;
+
+    @PostConstruct
+    void start() {
+        ticker.scheduleWithFixedDelay(this::tick, pushIntervalMs, pushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        ticker.shutdownNow();
+        emitters.forEach(SseEmitter::complete);
+        emitters.clear();
+    }
+
+    /**
+     * Новая подписка: сразу отправляем текущий статус, дальше - только изменения
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(e -> emitters.remove(emitter));
+        emitters.add(emitter);
+
+        send(emitter, bulkSyncScheduler.getSyncStatus());
+        log.debug("Новый подписчик на статус синхронизации, всего: {}", emitters.size());
+        return emitter;
+    }
+
+    private void tick() {
+        try {
+            if (emitters.isEmpty()) {
+                lastSent = null;
+                return;
+            }
+
+            SyncStatus status = bulkSyncScheduler.getSyncStatus();
+            long now = System.currentTimeMillis();
+
+            if (!status.equals(lastSent)) {
+                emitters.forEach(emitter -> send(emitter, status));
+                lastSent = status;
+                lastSentAt = now;
+            } else if (now - lastSentAt >= heartbeatMs) {
+                // Комментарий-пульс, чтобы прокси не закрывали простаивающее соединение
+                emitters.forEach(this::heartbeat);
+                lastSentAt = now;
+            }
+        } catch (Exception e) {
+            log.warn("Ошибка при рассылке статуса синхронизации: {}", e.getMessage());
+        }
+    }
+
+    private void send(SseEmitter emitter, SyncStatus status) {
+        try {
+            emitter.send(SseEmitter.event().name(EVENT_NAME).data(status));
+        } catch (IOException | IllegalStateException e) {
+            emitters.remove(emitter);
+        }
+    }
+
+    private void heartbeat(SseEmitter emitter) {
+        try {
+            emitter.send(SseEmitter.event().comment("ping"));
+        } catch (IOException | IllegalStateException e) {
+            emitters.remove(emitter);
+        }
+    }
+}
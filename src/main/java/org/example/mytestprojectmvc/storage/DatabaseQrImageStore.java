@@ -0,0 +1,23 @@
+package org.example.mytestprojectmvc.storage;
+
+import org.example.mytestprojectmvc.entity.Employee;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Изображения QR в колонках employees: пишутся вместе со строкой сотрудника
+ */
+@Component
+@ConditionalOnProperty(name = "qr.code.storage.backend", havingValue = "database", matchIfMissing = true)
+public class DatabaseQrImageStore implements QrImageStore {
+
+    @Override
+    public void store(Employee employee, byte[] image, String mediaType) {
+        employee.setQrCodeFromBytes(image, mediaType);
+    }
+
+    @Override
+    public byte[] load(Employee employee) {
+        return employee.getQrCodeImage();
+    }
+}
@@ -0,0 +1,578 @@
+package org.example.mytestprojectmvc.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.mytestprojectmvc.readmodel.LongIntHashMap;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Хранилище изображений QR-кодов в append-only файлах-сегментах на локальном диске.
+ *
+ * Ключ - qr_content_hash (SHA-256 данных QR и настроек отрисовки), одинаковые изображения
+ * хранятся один раз. Запись: [magic][длина][SHA-256, 32 байта][CRC32 данных][данные].
+ * Индекс в памяти: первые 8 байт хэша -> позиция записи, около 45 байт на изображение.
+ * Полный хэш сверяется с заголовком при чтении, поэтому совпадение префиксов дает промах,
+ * а не чужую картинку.
+ *
+ * Закрытые сегменты читаются через MappedByteBuffer, активный - позиционным чтением канала.
+ * При открытии индекс восстанавливается сканом сегментов, оборванный хвост последнего сегмента
+ * отрезается: потерянные изображения детерминированно перерисовываются из данных QR.
+ *
+ * Компактация переносит живые записи закрытых сегментов с долей мусора выше порога
+ * в активный сегмент. Старые файлы удаляются не раньше retiredGrace после вывода из оборота
+ * (проверяется на следующих компактациях): их еще может отдавать sendfile по имени файла.
+ */
+@Slf4j
+public class QrBlobSegmentStore implements Closeable {
+
+    static final int MAGIC = 0x51524231; // "QRB1"
+    static final int HASH_BYTES = 32;
+    static final int HEADER_BYTES = 4 + 4 + HASH_BYTES + 4;
+
+    private static final String PREFIX = "segment-";
+    private static final String SUFFIX = ".qrs";
+    private static final int NONE = -1;
+
+    private final Path directory;
+    private final long segmentSize;
+    private final long retiredGraceNanos;
+
+    // Чтения - под read lock, изменения индекса и списка сегментов - под write lock.
+    // Дописывание и компактация дополнительно сериализуются appendLock
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock appendLock = new ReentrantLock();
+
+    private final TreeMap<Integer, Segment> segments = new TreeMap<>();
+    private final List<Segment> retired = new ArrayList<>();
+    private Segment active;
+
+    // Префикс хэша -> слот; слоты - параллельные массивы, освободившиеся переиспользуются
+    private final LongIntHashMap index;
+    private long[] slotKeys;
+    private int[] slotSegments;
+    private long[] slotOffsets;
+    private int[] slotLengths;
+    private int slotCount;
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+
+    private QrBlobSegmentStore(Path directory, long segmentSize, int expectedSize, Duration retiredGrace) {
+        if (segmentSize <= HEADER_BYTES || segmentSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Размер сегмента должен быть от " + (HEADER_BYTES + 1)
+                    + " до " + Integer.MAX_VALUE + " байт: " + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.retiredGraceNanos = retiredGrace.toNanos();
+        this.index = new LongIntHashMap(expectedSize);
+        int capacity = Math.max(expectedSize, 16);
+        this.slotKeys = new long[capacity];
+        this.slotSegments = new int[capacity];
+        this.slotOffsets = new long[capacity];
+        this.slotLengths = new int[capacity];
+    }
+
+    /**
+     * Открывает хранилище в каталоге (создает при отсутствии) и восстанавливает индекс.
+     * retiredGrace - сколько хранить сжатые сегменты: дольше самой долгой отдачи файла по locate
+     */
+    public static QrBlobSegmentStore open(Path directory, long segmentSize, int expectedSize,
+                                          Duration retiredGrace) throws IOException {
+        Files.createDirectories(directory);
+        QrBlobSegmentStore store = new QrBlobSegmentStore(directory, segmentSize, expectedSize, retiredGrace);
+        store.recover();
+        return store;
+    }
+
+    // ============= ЧТЕНИЕ =============
+
+    public boolean contains(String hash) {
+        lock.readLock().lock();
+        try {
+            return find(hash) != NONE;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Изображение по хэшу содержимого, null - нет в хранилище
+     */
+    public byte[] get(String hash) {
+        lock.readLock().lock();
+        try {
+            int slot = find(hash);
+            if (slot == NONE) {
+                return null;
+            }
+            byte[] data = new byte[slotLengths[slot]];
+            read(segments.get(slotSegments[slot]), slotOffsets[slot] + HEADER_BYTES, data.length).get(data);
+            return data;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Файл и участок, где лежит изображение (для sendfile), null - нет в хранилище
+     */
+    public QrImageRegion locate(String hash) {
+        lock.readLock().lock();
+        try {
+            int slot = find(hash);
+            return slot == NONE ? null : new QrImageRegion(
+                    segments.get(slotSegments[slot]).path, slotOffsets[slot] + HEADER_BYTES, slotLengths[slot]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Отдает изображение в канал через FileChannel.transferTo (без копии в heap).
+     * -1 - изображения нет в хранилище
+     */
+    public long transferTo(String hash, WritableByteChannel target) throws IOException {
+        lock.readLock().lock();
+        try {
+            int slot = find(hash);
+            if (slot == NONE) {
+                return -1;
+            }
+            FileChannel channel = segments.get(slotSegments[slot]).channel;
+            long position = slotOffsets[slot] + HEADER_BYTES;
+            long remaining = slotLengths[slot];
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, target);
+                position += sent;
+                remaining -= sent;
+            }
+            return slotLengths[slot];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Stats stats() {
+        lock.readLock().lock();
+        try {
+            long bytes = 0;
+            for (Segment segment : segments.values()) {
+                bytes += segment.size;
+            }
+            long indexBytes = index.footprintBytes() + slotKeys.length * (8L + 4 + 8 + 4) + freeSlots.length * 4L;
+            return new Stats(segments.size(), index.size(), bytes, retired.size(), indexBytes);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ============= ЗАПИСЬ =============
+
+    /**
+     * Дописывает изображение. false - изображение с таким хэшем уже хранится
+     */
+    public boolean put(String hash, byte[] data) throws IOException {
+        byte[] rawHash = parseHash(hash);
+        appendLock.lock();
+        try {
+            if (contains(hash)) {
+                return false;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(data);
+            ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + data.length)
+                    .putInt(MAGIC)
+                    .putInt(data.length)
+                    .put(rawHash)
+                    .putInt((int) crc.getValue())
+                    .put(data)
+                    .flip();
+            long offset = append(record);
+
+            lock.writeLock().lock();
+            try {
+                addSlot(key(rawHash), active.id, offset, data.length);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return true;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Сбрасывает дописанные записи на диск (перед тем как удалять их источник)
+     */
+    public void sync() throws IOException {
+        appendLock.lock();
+        try {
+            active.channel.force(false);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Компактация: живые записи (live) закрытых сегментов, где мертвых байт не меньше minGarbageRatio,
+     * переносятся в активный сегмент, сами сегменты выводятся из оборота.
+     * Живость проверяется по 64-битному префиксу хэша (см. key)
+     */
+    public CompactionResult compact(LongPredicate live, double minGarbageRatio) throws IOException {
+        appendLock.lock();
+        try {
+            deleteRetired(false);
+
+            // Живые байты по сегментам (индекс меняется только под appendLock - читаем без read lock)
+            TreeMap<Integer, Long> liveBytes = new TreeMap<>();
+            for (int slot = 0; slot < slotCount; slot++) {
+                if (slotSegments[slot] != NONE && live.test(slotKeys[slot])) {
+                    liveBytes.merge(slotSegments[slot], (long) HEADER_BYTES + slotLengths[slot], Long::sum);
+                }
+            }
+
+            List<Segment> victims = new ArrayList<>();
+            for (Segment segment : segments.values()) {
+                if (segment != active && segment.size > 0
+                        && 1.0 - (double) liveBytes.getOrDefault(segment.id, 0L) / segment.size >= minGarbageRatio) {
+                    victims.add(segment);
+                }
+            }
+
+            int moved = 0;
+            int removed = 0;
+            long reclaimed = 0;
+            for (Segment victim : victims) {
+                List<long[]> relocations = new ArrayList<>();
+                List<Integer> dead = new ArrayList<>();
+                for (int slot = 0; slot < slotCount; slot++) {
+                    if (slotSegments[slot] != victim.id) {
+                        continue;
+                    }
+                    if (live.test(slotKeys[slot])) {
+                        ByteBuffer record = victim.mapped.slice((int) slotOffsets[slot], HEADER_BYTES + slotLengths[slot]);
+                        long offset = append(record);
+                        relocations.add(new long[]{slot, active.id, offset});
+                    } else {
+                        dead.add(slot);
+                    }
+                }
+
+                lock.writeLock().lock();
+                try {
+                    for (long[] relocation : relocations) {
+                        slotSegments[(int) relocation[0]] = (int) relocation[1];
+                        slotOffsets[(int) relocation[0]] = relocation[2];
+                    }
+                    for (int slot : dead) {
+                        removeSlot(slot);
+                    }
+                    segments.remove(victim.id);
+                    victim.retiredAt = System.nanoTime();
+                    retired.add(victim);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+
+                moved += relocations.size();
+                removed += dead.size();
+                reclaimed += victim.size - liveBytes.getOrDefault(victim.id, 0L);
+                log.debug("Сегмент {} QR-хранилища сжат: перенесено {}, удалено {}", victim.path.getFileName(),
+                        relocations.size(), dead.size());
+            }
+            active.channel.force(false);
+            return new CompactionResult(victims.size(), moved, removed, reclaimed);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        appendLock.lock();
+        lock.writeLock().lock();
+        try {
+            if (active != null) {
+                active.channel.force(false);
+            }
+            for (Segment segment : segments.values()) {
+                segment.channel.close();
+            }
+            segments.clear();
+            active = null;
+        } finally {
+            lock.writeLock().unlock();
+            appendLock.unlock();
+        }
+        deleteRetired(true);
+    }
+
+    /**
+     * 64-битный ключ индекса: первые 8 байт SHA-256 в hex-записи
+     */
+    public static long key(String hash) {
+        if (hash.length() != HASH_BYTES * 2) {
+            throw new IllegalArgumentException("Ожидается SHA-256 в hex: " + hash);
+        }
+        return adjust(HexFormat.fromHexDigitsToLong(hash, 0, 16));
+    }
+
+    // ============= ВНУТРЕННЕЕ =============
+
+    private int find(String hash) {
+        int slot = index.get(key(hash), NONE);
+        if (slot == NONE) {
+            return NONE;
+        }
+        ByteBuffer stored = read(segments.get(slotSegments[slot]), slotOffsets[slot] + 8, HASH_BYTES);
+        return stored.equals(ByteBuffer.wrap(parseHash(hash))) ? slot : NONE;
+    }
+
+    private ByteBuffer read(Segment segment, long position, int length) {
+        if (segment.mapped != null) {
+            return segment.mapped.slice((int) position, length);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        try {
+            readFully(segment.channel, buffer, position);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось прочитать " + segment.path, e);
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Дописывает запись в активный сегмент (с переходом на новый при переполнении), возвращает ее смещение
+     */
+    private long append(ByteBuffer record) throws IOException {
+        if (active.size > 0 && active.size + record.remaining() > segmentSize) {
+            roll();
+        }
+        long offset = active.size;
+        long position = offset;
+        while (record.hasRemaining()) {
+            position += active.channel.write(record, position);
+        }
+        active.size = position;
+        return offset;
+    }
+
+    /**
+     * Закрывает активный сегмент (дальше он читается через mmap) и открывает следующий
+     */
+    private void roll() throws IOException {
+        Segment sealed = active;
+        sealed.channel.force(false);
+        MappedByteBuffer mapped = sealed.channel.map(FileChannel.MapMode.READ_ONLY, 0, sealed.size);
+        Segment next = openSegment(sealed.id + 1, true);
+
+        lock.writeLock().lock();
+        try {
+            sealed.mapped = mapped;
+            segments.put(next.id, next);
+            active = next;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void recover() throws IOException {
+        List<Integer> ids;
+        try (Stream<Path> files = Files.list(directory)) {
+            ids = files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(PREFIX) && name.endsWith(SUFFIX))
+                    .map(name -> Integer.parseInt(name, PREFIX.length(), name.length() - SUFFIX.length(), 10))
+                    .sorted()
+                    .toList();
+        }
+
+        for (int i = 0; i < ids.size(); i++) {
+            boolean last = i == ids.size() - 1;
+            Segment segment = openSegment(ids.get(i), false);
+            segments.put(segment.id, segment);
+
+            long fileSize = segment.channel.size();
+            long valid = fileSize > 0 ? scan(segment, segment.channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize)) : 0;
+            if (valid < fileSize) {
+                if (last) {
+                    log.warn("⚠️ Оборванный хвост сегмента {} ({} байт) отрезан", segment.path.getFileName(),
+                            fileSize - valid);
+                    segment.channel.truncate(valid);
+                } else {
+                    log.error("❌ Сегмент {} поврежден после {} байт, остаток пропущен", segment.path.getFileName(), valid);
+                }
+            }
+            segment.size = valid;
+            if (last) {
+                active = segment;
+            } else {
+                segment.mapped = segment.channel.map(FileChannel.MapMode.READ_ONLY, 0, valid);
+            }
+        }
+
+        if (active == null) {
+            active = openSegment(1, true);
+            segments.put(active.id, active);
+        }
+        log.info("✅ QR-хранилище {} открыто: {} сегментов, {} изображений", directory, segments.size(), index.size());
+    }
+
+    /**
+     * Индексирует записи сегмента, возвращает длину корректной части
+     */
+    private long scan(Segment segment, MappedByteBuffer buffer) {
+        byte[] hash = new byte[HASH_BYTES];
+        CRC32 crc = new CRC32();
+        int position = 0;
+        while (buffer.capacity() - position >= HEADER_BYTES) {
+            int magic = buffer.getInt(position);
+            int length = buffer.getInt(position + 4);
+            if (magic != MAGIC || length < 0 || length > buffer.capacity() - position - HEADER_BYTES) {
+                break;
+            }
+            buffer.get(position + 8, hash);
+            crc.reset();
+            crc.update(buffer.slice(position + HEADER_BYTES, length));
+            if ((int) crc.getValue() != buffer.getInt(position + 8 + HASH_BYTES)) {
+                break;
+            }
+            addSlot(key(hash), segment.id, position, length);
+            position += HEADER_BYTES + length;
+        }
+        return position;
+    }
+
+    private Segment openSegment(int id, boolean create) throws IOException {
+        Path path = directory.resolve(String.format("%s%08d%s", PREFIX, id, SUFFIX));
+        FileChannel channel = create
+                ? FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new Segment(id, path, channel);
+    }
+
+    /**
+     * Удаляет выведенные из оборота сегменты, у которых прошел retiredGrace (all - все, при закрытии)
+     */
+    private void deleteRetired(boolean all) throws IOException {
+        long now = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            Iterator<Segment> iterator = retired.iterator();
+            while (iterator.hasNext()) {
+                Segment segment = iterator.next();
+                if (!all && now - segment.retiredAt < retiredGraceNanos) {
+                    continue;
+                }
+                segment.channel.close();
+                Files.deleteIfExists(segment.path);
+                iterator.remove();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addSlot(long key, int segmentId, long offset, int length) {
+        int existing = index.get(key, NONE);
+        if (existing != NONE) {
+            // Более поздняя копия (перенос при компактации) или совпавший 64-битный префикс
+            // у разных хэшей: хранится последняя запись, прежняя станет промахом
+            removeSlot(existing);
+        }
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            if (slotCount == slotKeys.length) {
+                int capacity = slotCount << 1;
+                slotKeys = Arrays.copyOf(slotKeys, capacity);
+                slotSegments = Arrays.copyOf(slotSegments, capacity);
+                slotOffsets = Arrays.copyOf(slotOffsets, capacity);
+                slotLengths = Arrays.copyOf(slotLengths, capacity);
+            }
+            slot = slotCount++;
+        }
+        slotKeys[slot] = key;
+        slotSegments[slot] = segmentId;
+        slotOffsets[slot] = offset;
+        slotLengths[slot] = length;
+        index.put(key, slot);
+    }
+
+    private void removeSlot(int slot) {
+        index.remove(slotKeys[slot]);
+        slotSegments[slot] = NONE;
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount << 1);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    private static long key(byte[] hash) {
+        return adjust(ByteBuffer.wrap(hash).getLong());
+    }
+
+    // Long.MIN_VALUE зарезервирован в LongIntHashMap под пустой слот
+    private static long adjust(long key) {
+        return key == Long.MIN_VALUE ? Long.MIN_VALUE + 1 : key;
+    }
+
+    private static byte[] parseHash(String hash) {
+        byte[] raw = HexFormat.of().parseHex(hash);
+        if (raw.length != HASH_BYTES) {
+            throw new IllegalArgumentException("Ожидается SHA-256 в hex: " + hash);
+        }
+        return raw;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Неожиданный конец файла на позиции " + (position + buffer.position()));
+            }
+        }
+    }
+
+    private static final class Segment {
+        final int id;
+        final Path path;
+        final FileChannel channel;
+        MappedByteBuffer mapped; // null у активного сегмента
+        long size;
+        long retiredAt; // System.nanoTime() вывода из оборота
+
+        Segment(int id, Path path, FileChannel channel) {
+            this.id = id;
+            this.path = path;
+            this.channel = channel;
+        }
+    }
+
+    public record Stats(int segments, int images, long bytes, int retiredSegments, long indexBytes) {
+    }
+
+    public record CompactionResult(int segmentsCompacted, int imagesMoved, int imagesRemoved, long bytesReclaimed) {
+    }
+}
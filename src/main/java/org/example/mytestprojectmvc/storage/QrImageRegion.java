@@ -0,0 +1,9 @@
+package org.example.mytestprojectmvc.storage;
+
+import java.nio.file.Path;
+
+/**
+ * Участок файла, в котором лежит изображение QR-кода
+ */
+public record QrImageRegion(Path file, long position, int length) {
+}
@@ -0,0 +1,51 @@
+package org.example.mytestprojectmvc.storage;
+
+import org.example.mytestprojectmvc.entity.Employee;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Где лежат отрисованные изображения QR-кодов сотрудников (qr.code.storage.backend):
+ * - database: в колонках employees (qr_code_image, qr_code_base64)
+ * - segment: в файлах-сегментах на локальном диске по qr_content_hash (SegmentQrImageStore)
+ */
+public interface QrImageStore {
+
+    /**
+     * Сохраняет изображение, отрисованное для сотрудника (qrContentHash уже выставлен)
+     */
+    void store(Employee employee, byte[] image, String mediaType);
+
+    /**
+     * Сохраненное изображение сотрудника, null - изображения нет и его нужно отрисовать
+     */
+    byte[] load(Employee employee);
+
+    default boolean contains(Employee employee) {
+        return load(employee) != null;
+    }
+
+    /**
+     * Файл и участок с изображением для отдачи через sendfile, null - изображение не в файле
+     */
+    default QrImageRegion locate(Employee employee) {
+        return null;
+    }
+
+    /**
+     * Пишет изображение в канал, false - изображения нет
+     */
+    default boolean transferTo(Employee employee, WritableByteChannel target) throws IOException {
+        byte[] image = load(employee);
+        if (image == null) {
+            return false;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(image);
+        while (buffer.hasRemaining()) {
+            target.write(buffer);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,101 @@
+package org.example.mytestprojectmvc.storage;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.mytestprojectmvc.entity.Employee;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Изображения QR в файлах-сегментах на локальном диске (QrBlobSegmentStore), ключ - qr_content_hash.
+ *
+ * В employees остаются данные QR, хэш и base64 (его несут события Kafka), qr_code_image = NULL.
+ * Строки, еще не перенесенные из БД (POST /employees/qrcode/storage/migrate), читаются из колонки.
+ * Каждый узел держит свои сегменты: изображение, которого нет на этом узле, перерисовывается
+ * из данных QR (они детерминированы) и дописывается при следующей генерации.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "qr.code.storage.backend", havingValue = "segment")
+public class SegmentQrImageStore implements QrImageStore {
+
+    @Value("${qr.code.storage.path:./qr-codes/}")
+    private String path;
+
+    @Value("${qr.code.storage.segment-size:64MB}")
+    private DataSize segmentSize;
+
+    @Value("${qr.code.storage.retired-grace:15m}")
+    private Duration retiredGrace;
+
+    @Value("${app.read-model.expected-size:10000}")
+    private int expectedSize;
+
+    private QrBlobSegmentStore blobs;
+
+    @PostConstruct
+    void open() throws IOException {
+        blobs = QrBlobSegmentStore.open(Path.of(path), segmentSize.toBytes(), expectedSize, retiredGrace);
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        blobs.close();
+    }
+
+    public QrBlobSegmentStore blobs() {
+        return blobs;
+    }
+
+    @Override
+    public void store(Employee employee, byte[] image, String mediaType) {
+        employee.setQrCodeFromBytes(image, mediaType);
+        put(employee.getQrContentHash(), image);
+        employee.setQrCodeImage(null);
+    }
+
+    /**
+     * Дописывает изображение в сегменты (повтор с тем же хэшем ничего не пишет)
+     */
+    public void put(String hash, byte[] image) {
+        try {
+            blobs.put(hash, image);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось записать QR-код в " + path, e);
+        }
+    }
+
+    @Override
+    public byte[] load(Employee employee) {
+        byte[] image = employee.getQrContentHash() != null ? blobs.get(employee.getQrContentHash()) : null;
+        return image != null ? image : employee.getQrCodeImage();
+    }
+
+    @Override
+    public boolean contains(Employee employee) {
+        return employee.getQrCodeImage() != null
+                || employee.getQrContentHash() != null && blobs.contains(employee.getQrContentHash());
+    }
+
+    @Override
+    public QrImageRegion locate(Employee employee) {
+        return employee.getQrContentHash() != null ? blobs.locate(employee.getQrContentHash()) : null;
+    }
+
+    @Override
+    public boolean transferTo(Employee employee, WritableByteChannel target) throws IOException {
+        if (employee.getQrContentHash() != null && blobs.transferTo(employee.getQrContentHash(), target) >= 0) {
+            return true;
+        }
+        return QrImageStore.super.transferTo(employee, target);
+    }
+}
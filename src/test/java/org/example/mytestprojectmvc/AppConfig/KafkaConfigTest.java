@@ -0,0 +1,83 @@
+package org.example.mytestprojectmvc.AppConfig;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.example.mytestprojectmvc.kafka.producer.EmployeeKafkaProducer.EmployeeEvent;
+import org.example.mytestprojectmvc.kafka.producer.EmployeeKafkaProducer.EmployeeKafkaDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.mock.MockProducerFactory;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.util.backoff.FixedBackOff;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class KafkaConfigTest {
+
+    private static final String DEAD_LETTER_TOPIC = "employee-sync-dlq";
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void exhaustedBatchIsPublishedToDeadLetterTopic() {
+        // KafkaTemplate закрывает продюсер после каждой отправки - нужен один на весь тест
+        MockProducer<String, Object> producer = new MockProducer<>(true, new StringSerializer(), new JsonSerializer<>()) {
+            @Override
+            public void close(Duration timeout) {
+            }
+        };
+        KafkaTemplate<String, Object> template = new KafkaTemplate<>(new MockProducerFactory<>(() -> producer));
+        DefaultErrorHandler handler = KafkaConfig.batchErrorHandler(template, DEAD_LETTER_TOPIC, new FixedBackOff(0, 1));
+
+        TopicPartition partition = new TopicPartition("employee-sync-topic", 2);
+        ConsumerRecords<String, EmployeeEvent> batch = new ConsumerRecords<>(Map.of(partition, List.of(
+                new ConsumerRecord<>(partition.topic(), partition.partition(), 10, "EMP-1", event("EMP-1")),
+                new ConsumerRecord<>(partition.topic(), partition.partition(), 11, "EMP-2", event("EMP-2")))));
+        Consumer<String, EmployeeEvent> consumer = mock(Consumer.class);
+        MessageListenerContainer container = mock(MessageListenerContainer.class);
+        when(container.isRunning()).thenReturn(true);
+
+        // Слушатель падает и на повторе (БД недоступна)
+        AtomicInteger listenerCalls = new AtomicInteger();
+        handler.handleBatch(new IllegalStateException("БД недоступна"), batch, consumer, container, () -> {
+            listenerCalls.incrementAndGet();
+            throw new IllegalStateException("БД недоступна");
+        });
+
+        assertEquals(1, listenerCalls.get());
+        List<ProducerRecord<String, Object>> sent = producer.history();
+        assertEquals(2, sent.size());
+        assertEquals(List.of("EMP-1", "EMP-2"), sent.stream().map(ProducerRecord::key).toList());
+        for (ProducerRecord<String, Object> record : sent) {
+            assertEquals(DEAD_LETTER_TOPIC, record.topic());
+            assertNull(record.partition());
+            assertEquals("employee-sync-topic", new String(
+                    record.headers().lastHeader(KafkaHeaders.DLT_ORIGINAL_TOPIC).value(), StandardCharsets.UTF_8));
+        }
+    }
+
+    private static EmployeeEvent event(String personalCode) {
+        return EmployeeEvent.builder()
+                .eventId(personalCode + "-event")
+                .eventType("EMPLOYEE_CREATED")
+                .sourceService("remote-hr")
+                .employee(EmployeeKafkaDto.builder().personalCode(personalCode).build())
+                .build();
+    }
+}
@@ -0,0 +1,60 @@
+package org.example.mytestprojectmvc.cache;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Локальная замена Redis для тестов: GET/SET/SET NX с TTL и синхронный pub/sub
+ */
+class InMemorySharedCacheStore implements SharedCacheStore {
+
+    private final Map<ByteBuffer, Entry> data = new ConcurrentHashMap<>();
+    private final List<Consumer<byte[]>> subscribers = new CopyOnWriteArrayList<>();
+    final AtomicInteger gets = new AtomicInteger();
+
+    @Override
+    public byte[] get(byte[] key) {
+        gets.incrementAndGet();
+        Entry entry = data.get(ByteBuffer.wrap(key));
+        if (entry == null || entry.expiresAt() < System.currentTimeMillis()) {
+            return null;
+        }
+        return entry.value();
+    }
+
+    @Override
+    public void put(byte[] key, byte[] value, Duration ttl) {
+        data.put(ByteBuffer.wrap(key.clone()), new Entry(value.clone(), System.currentTimeMillis() + ttl.toMillis()));
+    }
+
+    @Override
+    public boolean putIfAbsent(byte[] key, byte[] value, Duration ttl) {
+        long now = System.currentTimeMillis();
+        Entry entry = new Entry(value.clone(), now + ttl.toMillis());
+        return data.compute(ByteBuffer.wrap(key.clone()),
+                (k, current) -> current == null || current.expiresAt() < now ? entry : current) == entry;
+    }
+
+    @Override
+    public void publish(byte[] message) {
+        subscribers.forEach(subscriber -> subscriber.accept(message));
+    }
+
+    @Override
+    public void subscribe(Consumer<byte[]> listener) {
+        subscribers.add(listener);
+    }
+
+    Map<ByteBuffer, Entry> data() {
+        return data;
+    }
+
+    record Entry(byte[] value, long expiresAt) {
+    }
+}
@@ -0,0 +1,149 @@
+package org.example.mytestprojectmvc.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.mytestprojectmvc.entity.DTO.EmployeeSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TwoLevelCacheTest {
+
+    private static final Duration TTL = Duration.ofMinutes(5);
+
+    private InMemorySharedCacheStore redis;
+    private TwoLevelCache<Long, EmployeeSummary> instanceA;
+    private TwoLevelCache<Long, EmployeeSummary> instanceB;
+
+    @BeforeEach
+    void setUp() {
+        redis = new InMemorySharedCacheStore();
+        instanceA = manager(redis).create("summary", CacheCodecs.LONG, CacheCodecs.EMPLOYEE_SUMMARY, 100, TTL);
+        instanceB = manager(redis).create("summary", CacheCodecs.LONG, CacheCodecs.EMPLOYEE_SUMMARY, 100, TTL);
+    }
+
+    @Test
+    void valueLoadedOnOneInstanceIsServedToAnotherFromSharedTier() {
+        AtomicInteger loads = new AtomicInteger();
+
+        instanceA.get(1L, id -> { loads.incrementAndGet(); return summary(id, "Ivan"); });
+        EmployeeSummary fromB = instanceB.get(1L, id -> { loads.incrementAndGet(); return summary(id, "Other"); });
+
+        assertEquals(1, loads.get());
+        assertEquals("Ivan", fromB.getFirstName());
+    }
+
+    @Test
+    void invalidationClearsNearCachesOfOtherInstances() {
+        instanceA.get(1L, id -> summary(id, "Ivan"));
+        instanceB.get(1L, id -> summary(id, "Ivan"));
+        List<Long> remotelyInvalidated = new ArrayList<>();
+        instanceB.onRemoteInvalidation(remotelyInvalidated::add);
+
+        instanceA.invalidate(1L);
+
+        assertEquals(List.of(1L), remotelyInvalidated);
+        assertEquals("Petr", instanceB.get(1L, id -> summary(id, "Petr")).getFirstName());
+    }
+
+    @Test
+    void invalidationChannelWithoutCacheReachesOtherInstancesOnly() {
+        SharedCacheManager managerA = manager(redis);
+        SharedCacheManager managerB = manager(redis);
+        List<Long> receivedByA = new ArrayList<>();
+        List<Long> receivedByB = new ArrayList<>();
+        managerA.onRemoteInvalidation("employee", CacheCodecs.LONG, receivedByA::add);
+        managerB.onRemoteInvalidation("employee", CacheCodecs.LONG, receivedByB::add);
+
+        managerA.publishInvalidation("employee", CacheCodecs.LONG, List.of(1L, 2L));
+
+        assertEquals(List.of(), receivedByA);
+        assertEquals(List.of(1L, 2L), receivedByB);
+        assertEquals(0, redis.data().size());
+    }
+
+    @Test
+    void loadStartedBeforeInvalidationDoesNotOverwriteSharedTier() {
+        instanceA.get(1L, id -> summary(id, "Ivan"));
+
+        // B прочитал строку из БД до записи, а A успел сохранить изменение и инвалидировать ключ
+        instanceA.invalidate(1L);
+        instanceB.get(1L, id -> summary(id, "Ivan"));
+
+        TwoLevelCache<Long, EmployeeSummary> instanceC =
+                manager(redis).create("summary", CacheCodecs.LONG, CacheCodecs.EMPLOYEE_SUMMARY, 100, TTL);
+        assertEquals("Petr", instanceC.get(1L, id -> summary(id, "Petr")).getFirstName());
+    }
+
+    @Test
+    void keysAreStoredAsRawBytes() {
+        instanceA.put(42L, summary(42L, "Ivan"));
+
+        byte[] prefix = "mvc:summary:".getBytes(StandardCharsets.UTF_8);
+        ByteBuffer key = redis.data().keySet().iterator().next();
+        assertEquals(prefix.length + Long.BYTES, key.remaining());
+
+        TwoLevelCache<String, byte[]> png =
+                manager(redis).create("qr-png", CacheCodecs.HEX, CacheCodecs.BYTES, 10, TTL);
+        png.put("ab".repeat(32), new byte[]{1, 2, 3});
+        assertEquals(2, redis.data().size());
+        assertArrayEquals(new byte[]{1, 2, 3}, png.getIfPresent("ab".repeat(32)));
+    }
+
+    @Test
+    void summaryCodecKeepsNullFields() {
+        EmployeeSummary summary = new EmployeeSummary(7L, "EMP-1", "Анна", "Иванова", "IT", null, null);
+
+        EmployeeSummary decoded = CacheCodecs.EMPLOYEE_SUMMARY.decode(CacheCodecs.EMPLOYEE_SUMMARY.encode(summary));
+
+        assertEquals(summary, decoded);
+    }
+
+    @Test
+    void unavailableSharedTierFallsBackToLoaderAndBacksOff() {
+        AtomicInteger calls = new AtomicInteger();
+        SharedCacheStore broken = new InMemorySharedCacheStore() {
+            @Override
+            public byte[] get(byte[] key) {
+                calls.incrementAndGet();
+                throw new IllegalStateException("connection refused");
+            }
+        };
+        TwoLevelCache<Long, EmployeeSummary> cache =
+                manager(broken).create("summary", CacheCodecs.LONG, CacheCodecs.EMPLOYEE_SUMMARY, 100, TTL);
+
+        assertEquals("Ivan", cache.get(1L, id -> summary(id, "Ivan")).getFirstName());
+        assertEquals("Petr", cache.get(2L, id -> summary(id, "Petr")).getFirstName());
+        assertNull(cache.get(3L, id -> null));
+
+        assertEquals(1, calls.get());
+    }
+
+    private static SharedCacheManager manager(SharedCacheStore store) {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("sharedCacheStore", store);
+        SharedCacheManager manager = new SharedCacheManager(
+                beans.getBeanProvider(SharedCacheStore.class),
+                new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        ReflectionTestUtils.setField(manager, "keyPrefix", "mvc:");
+        ReflectionTestUtils.setField(manager, "failureBackoffMs", 60_000L);
+        ReflectionTestUtils.setField(manager, "invalidationGuardMs", 60_000L);
+        manager.init();
+        return manager;
+    }
+
+    private static EmployeeSummary summary(Long id, String firstName) {
+        return new EmployeeSummary(id, "EMP-" + id, firstName, "Petrov", "IT", 30, "Dev");
+    }
+}
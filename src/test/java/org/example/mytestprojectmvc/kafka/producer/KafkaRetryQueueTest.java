@@ -0,0 +1,63 @@
+package org.example.mytestprojectmvc.kafka.producer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KafkaRetryQueueTest {
+
+    private final KafkaRetryQueue queue = new KafkaRetryQueue(new SimpleMeterRegistry());
+
+    @BeforeEach
+    void start() {
+        ReflectionTestUtils.setField(queue, "maxAttempts", 5);
+        ReflectionTestUtils.setField(queue, "initialBackoffMs", 100L);
+        ReflectionTestUtils.setField(queue, "multiplier", 2.0);
+        ReflectionTestUtils.setField(queue, "maxBackoffMs", 1000L);
+        queue.start();
+    }
+
+    @AfterEach
+    void stop() {
+        queue.shutdown();
+    }
+
+    @Test
+    void runsTasksWhenTheirDelayExpires() throws Exception {
+        List<String> order = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(3);
+
+        queue.schedule(() -> { order.add("late"); done.countDown(); }, Duration.ofMillis(300));
+        queue.schedule(() -> { order.add("now"); done.countDown(); }, Duration.ZERO);
+        queue.schedule(() -> { order.add("soon"); done.countDown(); }, Duration.ofMillis(100));
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("now", "soon", "late"), order);
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    void backoffGrowsExponentiallyUpToCap() {
+        for (int i = 0; i < 20; i++) {
+            assertInRange(queue.backoff(1), 100);
+            assertInRange(queue.backoff(3), 400);
+            assertInRange(queue.backoff(10), 1000);
+        }
+    }
+
+    private static void assertInRange(Duration delay, long expectedMs) {
+        assertTrue(delay.toMillis() >= expectedMs * 0.8 && delay.toMillis() <= expectedMs * 1.2,
+                "Задержка " + delay.toMillis() + " мс вне ±20% от " + expectedMs);
+    }
+}
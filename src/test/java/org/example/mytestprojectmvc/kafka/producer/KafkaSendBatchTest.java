@@ -0,0 +1,39 @@
+package org.example.mytestprojectmvc.kafka.producer;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class KafkaSendBatchTest {
+
+    @Test
+    void separatesAckedSpilledAndFailedSends() {
+        KafkaSendBatch batch = new KafkaSendBatch();
+        batch.add(1L, CompletableFuture.completedFuture(SendOutcome.ACKED));
+        batch.add(2L, CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+        batch.add(3L, CompletableFuture.completedFuture(SendOutcome.SPILLED));
+        batch.add(4L, CompletableFuture.supplyAsync(() -> SendOutcome.ACKED));
+
+        KafkaSendBatch.Result result = batch.await(Duration.ofSeconds(5));
+
+        assertEquals(List.of(1L, 4L), result.ackedIds());
+        assertEquals(1, result.spilled());
+        assertEquals(1, result.failed());
+    }
+
+    @Test
+    void countsUnfinishedSendsAsFailedAfterTimeout() {
+        KafkaSendBatch batch = new KafkaSendBatch();
+        batch.add(1L, CompletableFuture.completedFuture(SendOutcome.ACKED));
+        batch.add(2L, new CompletableFuture<>());
+
+        KafkaSendBatch.Result result = batch.await(Duration.ofMillis(50));
+
+        assertEquals(List.of(1L), result.ackedIds());
+        assertEquals(1, result.failed());
+    }
+}
@@ -0,0 +1,145 @@
+package org.example.mytestprojectmvc.load;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.example.mytestprojectmvc.MyTestProjectMvcApplication;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Нагрузочный прогон приложения целиком на одной машине без внешних сервисов:
+ * встроенный Postgres (zonky), заглушка удаленного API (RemoteEmployeeApiStub) и Kafka в процессе (KRaft).
+ *
+ * Запуск: mvn -Pload-test test, параметры - системными свойствами:
+ *   load.threads (16), load.warmup (10s), load.duration (30s),
+ *   load.mix (read:60,qr:25,add:10,sync:5), load.seed (1000), load.remote-size (200),
+ *   load.remote-latency-ms (5), load.max-error-rate (0.01),
+ *   load.quiet-logs (true) - приглушить логи приложения до WARN; false - уровни из application.yaml и профиля
+ *     (для замера стоимости логирования, например против --spring.profiles.active=prod),
+ *   load.app-args - дополнительные аргументы приложения через пробел
+ *     (например, "--qr.code.storage.backend=segment --qr.code.storage.path=target/qr-load")
+ */
+@Tag("load")
+class EmployeeLoadTest {
+
+    private final int threads = Integer.getInteger("load.threads", 16);
+    private final Duration warmup = duration("load.warmup", "10s");
+    private final Duration duration = duration("load.duration", "30s");
+    private final String mix = System.getProperty("load.mix", "read:60,qr:25,add:10,sync:5");
+    private final int seedEmployees = Integer.getInteger("load.seed", 1000);
+    private final int remoteEmployees = Integer.getInteger("load.remote-size", 200);
+    private final long remoteLatencyMs = Long.getLong("load.remote-latency-ms", 5);
+    private final double maxErrorRate = Double.parseDouble(System.getProperty("load.max-error-rate", "0.01"));
+    private final boolean quietLogs = Boolean.parseBoolean(System.getProperty("load.quiet-logs", "true"));
+
+    @Test
+    void mixedWorkload() throws Exception {
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+             RemoteEmployeeApiStub remoteApi = new RemoteEmployeeApiStub(remoteEmployees, remoteLatencyMs, threads)) {
+
+            seed(postgres);
+
+            EmbeddedKafkaKraftBroker kafka = new EmbeddedKafkaKraftBroker(1, 1);
+            kafka.afterPropertiesSet();
+            try (ConfigurableApplicationContext context = start(postgres, remoteApi, kafka)) {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                LoadWorkload workload = new LoadWorkload("http://localhost:" + port, mix,
+                        seedEmployees, 1_000_000, remoteEmployees);
+                LatencyReport report = new LatencyReport();
+
+                System.out.printf("%n=== Нагрузка: %d потоков, прогрев %s, замер %s, смесь %s ===%n",
+                        threads, warmup, duration, mix);
+                double seconds = workload.run(threads, warmup, duration, report);
+                System.out.printf("%n%s%nЗа %.1f с добавлено сотрудников (включая прогрев): %d%n%n",
+                        report.format(seconds), seconds, workload.addedEmployees());
+
+                assertTrue(report.requests() > 0, "За время замера не выполнено ни одного запроса");
+                double errorRate = (double) report.errors() / report.requests();
+                assertTrue(errorRate <= maxErrorRate,
+                        String.format("Доля ошибок %.4f выше допустимой %.4f", errorRate, maxErrorRate));
+            } finally {
+                kafka.destroy();
+            }
+        }
+    }
+
+    /**
+     * Базовая таблица employees создается приложением через Hibernate уже после Liquibase,
+     * а изменения Liquibase рассчитаны на существующую таблицу - создаем ее заранее и заполняем
+     */
+    private void seed(EmbeddedPostgres postgres) throws Exception {
+        try (Connection connection = postgres.getPostgresDatabase().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("""
+                    CREATE TABLE employees (
+                        id BIGSERIAL PRIMARY KEY,
+                        first_name VARCHAR(255) NOT NULL,
+                        last_name VARCHAR(255) NOT NULL,
+                        age INT NOT NULL,
+                        department VARCHAR(255) NOT NULL,
+                        post VARCHAR(255),
+                        qr_data TEXT,
+                        created_at TIMESTAMP DEFAULT NOW(),
+                        updated_at TIMESTAMP,
+                        synced_to_kafka BOOLEAN DEFAULT FALSE,
+                        kafka_sync_date TIMESTAMP
+                    )
+                    """);
+            statement.execute("""
+                    INSERT INTO employees (first_name, last_name, age, department, post)
+                    SELECT 'Ivan' || g, 'Petrov' || g, 20 + g %% 40, 'Dept' || (g %% 5), 'Developer'
+                    FROM generate_series(1, %d) g
+                    """.formatted(seedEmployees));
+        }
+    }
+
+    private ConfigurableApplicationContext start(EmbeddedPostgres postgres, RemoteEmployeeApiStub remoteApi,
+                                                 EmbeddedKafkaKraftBroker kafka) {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=postgres",
+                "--spring.kafka.bootstrap-servers=" + kafka.getBrokersAsString(),
+                "--employee.api.base-url=" + remoteApi.baseUrl(),
+                "--employee.api.endpoint=" + remoteApi.endpoint(),
+                "--employee.api.ful-name=" + remoteApi.baseUrl() + remoteApi.endpoint()));
+        if (quietLogs) {
+            // Логи на каждый запрос и SQL сами становятся узким местом под нагрузкой
+            args.addAll(List.of(
+                    "--spring.jpa.show-sql=false",
+                    "--logging.level.org.example.mytestprojectmvc=WARN",
+                    "--logging.level.org.example.mytestprojectmvc.scheduler=WARN",
+                    "--logging.level.org.example.mytestprojectmvc.service=WARN",
+                    "--logging.level.org.example.mytestprojectmvc.repository=WARN",
+                    "--logging.level.org.springframework.transaction=WARN",
+                    "--logging.level.org.springframework.kafka=WARN",
+                    "--logging.level.org.springframework.jdbc=WARN",
+                    "--logging.level.org.springframework.web.client.RestTemplate=WARN",
+                    "--logging.level.org.hibernate.SQL=WARN",
+                    "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN"));
+        }
+        String extra = System.getProperty("load.app-args", "").trim();
+        if (!extra.isEmpty()) {
+            args.addAll(Arrays.asList(extra.split("\\s+")));
+        }
+        return SpringApplication.run(MyTestProjectMvcApplication.class, args.toArray(String[]::new));
+    }
+
+    private static Duration duration(String property, String defaultValue) {
+        return DurationStyle.detectAndParse(System.getProperty(property, defaultValue));
+    }
+}
@@ -0,0 +1,83 @@
+package org.example.mytestprojectmvc.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Задержки и ошибки по эндпоинтам нагрузочного прогона.
+ * Задержки в микросекундах, HdrHistogram с 3 значащими цифрами (точность перцентилей ~0.1%).
+ */
+class LatencyReport {
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    void record(String endpoint, long latencyNanos, boolean success) {
+        Endpoint stats = endpoints.computeIfAbsent(endpoint, name -> new Endpoint());
+        stats.latencies.recordValue(Math.max(1, latencyNanos / 1000));
+        if (!success) {
+            stats.errors.increment();
+        }
+    }
+
+    /**
+     * Ошибки, которые не видны по HTTP-статусу (досчитаны по метрикам приложения)
+     */
+    void recordErrors(String endpoint, long errors) {
+        if (errors > 0) {
+            endpoints.computeIfAbsent(endpoint, name -> new Endpoint()).errors.add(errors);
+        }
+    }
+
+    long requests() {
+        return endpoints.values().stream().mapToLong(stats -> stats.latencies.getTotalCount()).sum();
+    }
+
+    long errors() {
+        return endpoints.values().stream().mapToLong(stats -> stats.errors.sum()).sum();
+    }
+
+    /**
+     * Таблица: запросы, ошибки, пропускная способность и перцентили задержки (мс) по каждому эндпоинту
+     */
+    String format(double seconds) {
+        StringBuilder table = new StringBuilder();
+        String row = "%-34s %8s %7s %9s %9s %9s %9s %9s%n";
+        table.append(String.format(row, "endpoint", "count", "errors", "ops/s", "p50 ms", "p90 ms", "p99 ms", "max ms"));
+
+        Histogram total = new Histogram(3);
+        endpoints.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> {
+                    Histogram latencies = entry.getValue().latencies.copy();
+                    total.add(latencies);
+                    table.append(line(row, entry.getKey(), latencies, entry.getValue().errors.sum(), seconds));
+                });
+        table.append(line(row, "TOTAL", total, errors(), seconds));
+        return table.toString();
+    }
+
+    private static String line(String row, String name, Histogram latencies, long errors, double seconds) {
+        return String.format(row,
+                name,
+                latencies.getTotalCount(),
+                errors,
+                String.format("%.1f", latencies.getTotalCount() / seconds),
+                millis(latencies.getValueAtPercentile(50)),
+                millis(latencies.getValueAtPercentile(90)),
+                millis(latencies.getValueAtPercentile(99)),
+                millis(latencies.getMaxValue()));
+    }
+
+    private static String millis(long micros) {
+        return String.format("%.2f", micros / 1000.0);
+    }
+
+    private static final class Endpoint {
+        private final Histogram latencies = new ConcurrentHistogram(3);
+        private final LongAdder errors = new LongAdder();
+    }
+}
@@ -0,0 +1,261 @@
+package org.example.mytestprojectmvc.load;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Смешанная нагрузка на запущенное приложение: каждый поток в замкнутом цикле выбирает
+ * операцию по весам из load.mix и сразу отправляет следующий запрос после ответа.
+ *
+ * Операции:
+ *   read - список по отделу (read model), карточка сотрудника, текстовый поиск, поиск в удаленном API
+ *   qr   - скачивание QR-кода (PNG по умолчанию, каждый пятый - SVG нестандартного размера)
+ *   add  - POST /employees/add с LOCAL/REMOTE/BOTH
+ *   sync - статус массовой синхронизации, каждый десятый запрос - запуск синхронизации в Kafka
+ *
+ * POST-формы при любом исходе отвечают редиректом на /employees, ошибка уходит во flash-атрибут.
+ * Поэтому их ошибки считаются по метрикам приложения (/actuator/prometheus) до и после замера:
+ * employee.add.command{outcome=error} по команде и упавшие запуски ручной синхронизации.
+ */
+class LoadWorkload {
+
+    enum Operation { READ, QR, ADD, SYNC }
+
+    private static final String[] SAVE_OPTIONS = {"LOCAL", "REMOTE", "BOTH"};
+    private static final Map<String, String> ADD_COMMAND_ENDPOINTS = Map.of(
+            "AddLocalCommand", "POST /employees/add LOCAL",
+            "AddRemoteCommand", "POST /employees/add REMOTE",
+            "AddBothCommand", "POST /employees/add BOTH");
+    private static final String BULK_TRIGGER_ENDPOINT = "POST /employees/trigger-bulk";
+    private static final Pattern SAMPLE = Pattern.compile("^(\\w+)\\{(.*)} (\\S+)$");
+    private static final Pattern LABEL = Pattern.compile("(\\w+)=\"([^\"]*)\"");
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final AtomicLong addedEmployees = new AtomicLong();
+    private final String baseUrl;
+    private final Operation[] weighted;
+    private final long seedEmployees;
+    private final long remoteFirstId;
+    private final long remoteEmployees;
+
+    LoadWorkload(String baseUrl, String mix, long seedEmployees, long remoteFirstId, long remoteEmployees) {
+        this.baseUrl = baseUrl;
+        this.weighted = parseMix(mix);
+        this.seedEmployees = seedEmployees;
+        this.remoteFirstId = remoteFirstId;
+        this.remoteEmployees = remoteEmployees;
+    }
+
+    /**
+     * Прогрев (в отчет не попадает), затем замер заданной длительности.
+     * Возвращает фактическую длительность замера в секундах
+     */
+    double run(int threads, Duration warmup, Duration duration, LatencyReport report) throws InterruptedException {
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long deadline = measureFrom + duration.toNanos();
+
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            workers.submit(() -> {
+                while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+                    execute(report, measureFrom);
+                }
+            });
+        }
+        workers.shutdown();
+        TimeUnit.NANOSECONDS.sleep(Math.max(0, measureFrom - System.nanoTime()));
+        Map<String, Long> errorsBefore = applicationErrors();
+        if (!workers.awaitTermination(warmup.plus(duration).toSeconds() + 60, TimeUnit.SECONDS)) {
+            workers.shutdownNow();
+        }
+        double seconds = Math.max(System.nanoTime() - measureFrom, 1) / 1e9;
+
+        applicationErrors().forEach((endpoint, errors) ->
+                report.recordErrors(endpoint, errors - errorsBefore.getOrDefault(endpoint, 0L)));
+        return seconds;
+    }
+
+    long addedEmployees() {
+        return addedEmployees.get();
+    }
+
+    private void execute(LatencyReport report, long measureFrom) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Operation operation = weighted[random.nextInt(weighted.length)];
+        String endpoint;
+        HttpRequest request;
+
+        switch (operation) {
+            case READ -> {
+                int kind = random.nextInt(10);
+                if (kind < 4) {
+                    endpoint = "GET /employees/query";
+                    request = get("/employees/query?department=Dept" + random.nextInt(5)
+                            + "&minAge=" + (20 + random.nextInt(20)) + "&size=20&page=" + random.nextInt(3));
+                } else if (kind < 7) {
+                    endpoint = "GET /employees/{id}";
+                    request = get("/employees/" + localId(random));
+                } else if (kind < 9) {
+                    endpoint = "GET /employees/search/local";
+                    request = get("/employees/search/local?q=" + encode("Petrov" + random.nextInt(100)));
+                } else {
+                    endpoint = "GET /employees/search (remote)";
+                    request = get("/employees/search?id=" + (remoteFirstId + random.nextLong(remoteEmployees)));
+                }
+            }
+            case QR -> {
+                if (random.nextInt(5) == 0) {
+                    endpoint = "GET /employees/{id}/qrcode svg";
+                    request = get("/employees/" + localId(random) + "/qrcode?format=svg&size=400");
+                } else {
+                    endpoint = "GET /employees/{id}/qrcode png";
+                    request = get("/employees/" + localId(random) + "/qrcode");
+                }
+            }
+            case ADD -> {
+                String saveOption = SAVE_OPTIONS[random.nextInt(SAVE_OPTIONS.length)];
+                long n = addedEmployees.incrementAndGet();
+                endpoint = "POST /employees/add " + saveOption;
+                request = post("/employees/add", "firstName=Load" + n
+                        + "&lastName=Tester" + n
+                        + "&department=Dept" + random.nextInt(5)
+                        + "&age=" + (18 + random.nextInt(60))
+                        + "&post=QA"
+                        + "&saveOption=" + saveOption);
+            }
+            default -> {
+                if (random.nextInt(10) == 0) {
+                    endpoint = BULK_TRIGGER_ENDPOINT;
+                    request = post("/employees/trigger-bulk", "");
+                } else {
+                    endpoint = "GET /employees/sync-status";
+                    request = get("/employees/sync-status");
+                }
+            }
+        }
+
+        long start = System.nanoTime();
+        boolean success;
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            success = response.statusCode() < 400;
+        } catch (IOException e) {
+            success = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        long end = System.nanoTime();
+        if (start >= measureFrom) {
+            report.record(endpoint, end - start, success);
+        }
+    }
+
+    /**
+     * Ошибки, которые приложение отдало редиректом: эндпоинт -> накопленное число ошибок
+     */
+    private Map<String, Long> applicationErrors() throws InterruptedException {
+        try {
+            HttpResponse<String> response = client.send(get("/actuator/prometheus"), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("/actuator/prometheus ответил " + response.statusCode());
+            }
+            return parseApplicationErrors(response.body());
+        } catch (IOException e) {
+            throw new IllegalStateException("Не удалось прочитать /actuator/prometheus", e);
+        }
+    }
+
+    static Map<String, Long> parseApplicationErrors(String prometheus) {
+        Map<String, Long> errors = new HashMap<>();
+        for (String line : prometheus.split("\n")) {
+            Matcher sample = SAMPLE.matcher(line.trim());
+            if (!sample.matches()) {
+                continue;
+            }
+            Map<String, String> labels = new HashMap<>();
+            Matcher label = LABEL.matcher(sample.group(2));
+            while (label.find()) {
+                labels.put(label.group(1), label.group(2));
+            }
+
+            String endpoint = null;
+            if (sample.group(1).equals("employee_add_command_seconds_count") && "error".equals(labels.get("outcome"))) {
+                endpoint = ADD_COMMAND_ENDPOINTS.get(labels.get("command"));
+            } else if (sample.group(1).equals("sync_job_run_time_seconds_count")
+                    && "bulk-sync-manual".equals(labels.get("job")) && "FAILED".equals(labels.get("state"))) {
+                endpoint = BULK_TRIGGER_ENDPOINT;
+            }
+            if (endpoint != null) {
+                errors.merge(endpoint, (long) Double.parseDouble(sample.group(3)), Long::sum);
+            }
+        }
+        return errors;
+    }
+
+    private long localId(ThreadLocalRandom random) {
+        return 1 + random.nextLong(seedEmployees);
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+    }
+
+    private HttpRequest post(String path, String form) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * "read:60,qr:25,add:10,sync:5" -> массив операций, в котором каждая встречается по своему весу
+     */
+    static Operation[] parseMix(String mix) {
+        List<Operation> weighted = new ArrayList<>();
+        for (String part : mix.split(",")) {
+            String[] pair = part.trim().split(":");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Некорректный элемент load.mix: " + part);
+            }
+            Operation operation = Operation.valueOf(pair[0].trim().toUpperCase());
+            int weight = Integer.parseInt(pair[1].trim());
+            for (int i = 0; i < weight; i++) {
+                weighted.add(operation);
+            }
+        }
+        if (weighted.isEmpty()) {
+            throw new IllegalArgumentException("load.mix не содержит ни одной операции: " + mix);
+        }
+        return weighted.toArray(Operation[]::new);
+    }
+}
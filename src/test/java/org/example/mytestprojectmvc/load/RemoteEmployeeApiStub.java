@@ -0,0 +1,141 @@
+package org.example.mytestprojectmvc.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * Заглушка удаленного API сотрудников (employee.api.*) на встроенном HTTP-сервере JDK:
+ *   GET  /api/employees       - список для EmployeeSyncScheduler
+ *   GET  /api/employees/{id}  - поиск по ID (EmployeeApiService)
+ *   POST /api/employees       - создание (AddRemoteCommand), возвращает запись с новым ID
+ *
+ * Задержка ответа имитирует сеть до настоящего сервиса.
+ */
+class RemoteEmployeeApiStub implements AutoCloseable {
+
+    private static final String PATH = "/api/employees";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Map<Long, Map<String, Object>> employees = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1_000_000);
+    private final long latencyMs;
+    private final ExecutorService executor;
+    private final HttpServer server;
+
+    RemoteEmployeeApiStub(int initialSize, long latencyMs, int threads) throws IOException {
+        this.latencyMs = latencyMs;
+        IntStream.range(0, initialSize).forEach(i -> {
+            long id = nextId.getAndIncrement();
+            employees.put(id, employee(id, "REM-" + id, "Remote" + i, "Employee" + i, 20 + i % 40, "Remote" + i % 3, "Engineer"));
+        });
+
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        this.server.createContext(PATH, this::handle);
+        this.server.setExecutor(executor);
+        this.server.start();
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    String endpoint() {
+        return PATH;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            pause();
+            String path = exchange.getRequestURI().getPath();
+            String method = exchange.getRequestMethod();
+
+            if (path.equals(PATH) && method.equals("GET")) {
+                respond(exchange, 200, List.copyOf(employees.values()));
+            } else if (path.equals(PATH) && method.equals("POST")) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> body = mapper.readValue(exchange.getRequestBody(), Map.class);
+                long id = nextId.getAndIncrement();
+                Map<String, Object> created = employee(id,
+                        (String) body.get("personalCode"),
+                        (String) body.get("firstName"),
+                        (String) body.get("lastName"),
+                        body.get("age") instanceof Number age ? age.intValue() : 30,
+                        (String) body.get("department"),
+                        (String) body.get("post"));
+                employees.put(id, created);
+                respond(exchange, 201, created);
+            } else if (path.startsWith(PATH + "/") && method.equals("GET")) {
+                Map<String, Object> employee = employees.get(parseId(path.substring(PATH.length() + 1)));
+                if (employee != null) {
+                    respond(exchange, 200, employee);
+                } else {
+                    exchange.sendResponseHeaders(404, -1);
+                }
+            } else {
+                exchange.sendResponseHeaders(405, -1);
+            }
+        }
+    }
+
+    private void respond(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] json = mapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, json.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(json);
+        }
+    }
+
+    private void pause() {
+        if (latencyMs > 0) {
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static long parseId(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static Map<String, Object> employee(long id, String personalCode, String firstName, String lastName,
+                                                int age, String department, String post) {
+        Map<String, Object> employee = new LinkedHashMap<>();
+        employee.put("id", id);
+        employee.put("personalCode", personalCode);
+        employee.put("firstName", firstName);
+        employee.put("lastName", lastName);
+        employee.put("age", age);
+        employee.put("department", department);
+        employee.put("post", post);
+        return employee;
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        server.stop(0);
+        executor.shutdownNow();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,38 @@
+package org.example.mytestprojectmvc.logging;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogRateLimiterTest {
+
+    @Test
+    void logsOncePerIntervalAndCountsSuppressed() {
+        AtomicLong clock = new AtomicLong();
+        LogRateLimiter limiter = new LogRateLimiter(Duration.ofSeconds(1), clock::get);
+
+        assertTrue(limiter.tryAcquire());
+        assertEquals(0, IntStream.range(0, 50).filter(i -> limiter.tryAcquire()).count());
+
+        clock.addAndGet(Duration.ofMillis(999).toNanos());
+        assertFalse(limiter.tryAcquire());
+        clock.addAndGet(Duration.ofMillis(1).toNanos());
+        assertTrue(limiter.tryAcquire());
+        assertEquals(51, limiter.drainSuppressed());
+        assertEquals(0, limiter.drainSuppressed());
+    }
+
+    @Test
+    void zeroIntervalLogsEverything() {
+        LogRateLimiter limiter = new LogRateLimiter(Duration.ZERO);
+
+        assertTrue(IntStream.range(0, 5).allMatch(i -> limiter.tryAcquire()));
+        assertEquals(0, limiter.drainSuppressed());
+    }
+}
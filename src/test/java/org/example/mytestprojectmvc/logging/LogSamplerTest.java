@@ -0,0 +1,29 @@
+package org.example.mytestprojectmvc.logging;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogSamplerTest {
+
+    @Test
+    void logsFirstAndEveryNthEvent() {
+        LogSampler sampler = new LogSampler(10);
+
+        long logged = IntStream.range(0, 95).filter(i -> sampler.sample()).count();
+
+        assertEquals(10, logged);
+        assertEquals(95, sampler.count());
+    }
+
+    @Test
+    void rateBelowOneLogsEverything() {
+        LogSampler sampler = new LogSampler(0);
+
+        assertEquals(1, sampler.rate());
+        assertTrue(IntStream.range(0, 5).allMatch(i -> sampler.sample()));
+    }
+}
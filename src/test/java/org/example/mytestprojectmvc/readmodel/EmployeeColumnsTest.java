@@ -0,0 +1,154 @@
+package org.example.mytestprojectmvc.readmodel;
+
+import org.example.mytestprojectmvc.entity.DTO.EmployeeSummary;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmployeeColumnsTest {
+
+    private static final String[] DEPARTMENTS = {"IT", "HR", "Финансы", "Продажи", "Склад"};
+    private static final String[] POSTS = {"Инженер", "Менеджер", "Аналитик", null};
+
+    @Test
+    void countsAndPagesByDepartmentAndAge() {
+        EmployeeColumns columns = new EmployeeColumns(4);
+        columns.upsert(employee(1, "IT", 25));
+        columns.upsert(employee(2, "HR", 40));
+        columns.upsert(employee(3, "IT", 35));
+        columns.upsert(employee(4, "IT", 52));
+
+        assertEquals(4, columns.count(null, null, null));
+        assertEquals(3, columns.count("IT", null, null));
+        assertEquals(2, columns.count(null, 30, 45));
+        assertEquals(1, columns.count("IT", 30, 45));
+        assertEquals(0, columns.count("Нет такого", null, null));
+
+        List<EmployeeSummary> page = columns.page("IT", 30, null, 1, 10);
+        assertEquals(List.of(4L), page.stream().map(EmployeeSummary::getId).toList());
+    }
+
+    @Test
+    void updateMovesRowBetweenIndexesAndRemoveDropsIt() {
+        EmployeeColumns columns = new EmployeeColumns(4);
+        columns.upsert(employee(1, "IT", 25));
+
+        columns.upsert(employee(1, "HR", 60));
+
+        assertEquals(0, columns.count("IT", null, null));
+        assertEquals(1, columns.count("HR", 60, 60));
+        assertEquals(0, columns.count(null, 25, 25));
+        assertEquals("HR", columns.get(1).getDepartment());
+
+        assertTrue(columns.remove(1));
+        assertFalse(columns.remove(1));
+        assertNull(columns.get(1));
+        assertEquals(0, columns.size());
+        assertEquals(0, columns.count(null, 0, 150));
+    }
+
+    @Test
+    void matchesReferenceModelAfterRandomWritesAndCompaction() {
+        EmployeeColumns columns = new EmployeeColumns(16);
+        Map<Long, EmployeeSummary> reference = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 50_000; i++) {
+            long id = 1 + random.nextInt(10_000);
+            if (random.nextInt(3) == 0) {
+                columns.remove(id);
+                reference.remove(id);
+            } else {
+                EmployeeSummary employee = employee(id, DEPARTMENTS[random.nextInt(DEPARTMENTS.length)],
+                        18 + random.nextInt(50));
+                columns.upsert(employee);
+                reference.put(id, employee);
+            }
+        }
+
+        assertEquals(reference.size(), columns.size());
+        for (String department : DEPARTMENTS) {
+            long expected = reference.values().stream()
+                    .filter(e -> e.getDepartment().equals(department) && e.getAge() >= 30 && e.getAge() <= 40)
+                    .count();
+            assertEquals(expected, columns.count(department, 30, 40));
+        }
+        reference.forEach((id, employee) -> assertEquals(employee, columns.get(id)));
+        for (long id = 1; id <= 10_000; id++) {
+            String payload = "PERSONAL_CODE:EMP-" + id + "|NAME:Иван Петров";
+            assertEquals(reference.get(id), columns.getByPersonalCode(payload, 14, payload.indexOf('|')));
+        }
+    }
+
+    @Test
+    void personalCodeIndexFollowsCodeChanges() {
+        EmployeeColumns columns = new EmployeeColumns(4);
+        columns.upsert(employee(1, "IT", 25));
+        EmployeeSummary renamed = employee(1, "IT", 25);
+        renamed.setPersonalCode("EMP-NEW");
+        columns.upsert(renamed);
+
+        assertNull(columns.getByPersonalCode("EMP-1", 0, 5));
+        assertEquals(renamed, columns.getByPersonalCode("xEMP-NEWx", 1, 8));
+        assertNull(columns.getByPersonalCode("EMP-NE", 0, 6));
+    }
+
+    @Test
+    void footprintGrowsWithRowsAndSharesRepeatedNames() {
+        EmployeeColumns shared = new EmployeeColumns(1_000);
+        EmployeeColumns unique = new EmployeeColumns(1_000);
+        for (int i = 1; i <= 1_000; i++) {
+            shared.upsert(employee(i, "IT", 30));
+            unique.upsert(new EmployeeSummary((long) i, "EMP-" + i, "Иван" + i, "Петров" + i, "IT", 30, "Инженер"));
+        }
+        long half = shared.footprintBytes();
+        for (int i = 1_001; i <= 2_000; i++) {
+            shared.upsert(employee(i, "IT", 30));
+        }
+
+        assertTrue(shared.footprintBytes() > half);
+        assertTrue(half < unique.footprintBytes(), "Повторяющиеся имена должны храниться в словаре один раз");
+    }
+
+    /**
+     * Оценка памяти на 1 млн сотрудников (профиль load-test). Результат на 64-битной JVM со сжатыми указателями
+     * (совпадает с замером кучи до/после построения): ~147 байт на сотрудника (~140 МБ на миллион).
+     * Из них ~64 байта - табельный номер (уникальная строка), по ~25 - хэш-таблицы id -> row
+     * и хэш личного кода -> row,
+     * 28 - примитивные колонки; имена, отделы и должности через словари почти ничего не стоят.
+     */
+    @Test
+    @Tag("load")
+    void footprintPerMillionEmployees() {
+        int total = 1_000_000;
+        EmployeeColumns columns = filled(total);
+
+        long perEmployee = columns.footprintBytes() / total;
+        assertEquals(total, columns.size());
+        assertTrue(perEmployee < 160, "Слишком большой расход памяти: " + perEmployee + " байт на сотрудника");
+    }
+
+    private static EmployeeColumns filled(int total) {
+        EmployeeColumns columns = new EmployeeColumns(total);
+        Random random = new Random(7);
+        for (int i = 1; i <= total; i++) {
+            columns.upsert(new EmployeeSummary((long) i, "EMP-" + (1_700_000_000 + i) + "-" + Integer.toHexString(i),
+                    "Иван" + (i % 1000), "Петров" + (i % 5000), DEPARTMENTS[random.nextInt(DEPARTMENTS.length)],
+                    18 + random.nextInt(50), POSTS[random.nextInt(POSTS.length)]));
+        }
+        return columns;
+    }
+
+    private static EmployeeSummary employee(long id, String department, int age) {
+        return new EmployeeSummary(id, "EMP-" + id, "Иван", "Петров", department, age, "Инженер");
+    }
+}
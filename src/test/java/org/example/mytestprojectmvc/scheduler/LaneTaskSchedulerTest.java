@@ -0,0 +1,42 @@
+package org.example.mytestprojectmvc.scheduler;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LaneTaskSchedulerTest {
+
+    @Test
+    void triggerTasksRecordQueueDelay() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ThreadPoolTaskScheduler shared = new ThreadPoolTaskScheduler();
+        shared.initialize();
+        LaneTaskScheduler scheduler = new LaneTaskScheduler(shared, true, "test-", null, registry);
+
+        CountDownLatch runs = new CountDownLatch(2);
+        AtomicInteger planned = new AtomicInteger();
+        try {
+            scheduler.schedule(runs::countDown, context -> planned.getAndIncrement() < 2
+                    ? Instant.now().plus(Duration.ofMillis(20))
+                    : null);
+
+            assertTrue(runs.await(5, TimeUnit.SECONDS));
+        } finally {
+            scheduler.destroy();
+        }
+
+        Timer queueDelay = registry.get("scheduler.job.queue.delay").tag("job", "other.task").timer();
+        assertEquals(2, queueDelay.count());
+        assertTrue(queueDelay.max(TimeUnit.SECONDS) < 5);
+    }
+}
@@ -0,0 +1,44 @@
+package org.example.mytestprojectmvc.service;
+
+import org.example.mytestprojectmvc.entity.DTO.EmployeeSummary;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class QrPayloadTest {
+
+    private static final EmployeeSummary EMPLOYEE =
+            new EmployeeSummary(7L, "EMP-1700000000-AB12", "Иван", "Петров", "IT", 34, null);
+
+    @Test
+    void parsesGeneratedPayloadAndMatchesCurrentData() {
+        String payload = "PERSONAL_CODE:EMP-1700000000-AB12|NAME:Иван Петров|DEPT:IT|AGE:34|POST:N/A|TIMESTAMP:1700000000\n";
+
+        QrPayload qr = QrPayload.parse(payload);
+
+        assertNotNull(qr);
+        assertEquals("EMP-1700000000-AB12", qr.personalCode());
+        assertEquals(List.of(), qr.differences(EMPLOYEE));
+    }
+
+    @Test
+    void reportsChangedAndMissingFields() {
+        QrPayload qr = QrPayload.parse("NAME:Иван Петров-Водкин|AGE:35|PERSONAL_CODE:EMP-1700000000-AB12|DEPT:IT");
+
+        assertNotNull(qr);
+        assertEquals(List.of(QrPayload.NAME, QrPayload.AGE, QrPayload.POST), qr.differences(EMPLOYEE));
+    }
+
+    @Test
+    void rejectsPayloadWithoutPersonalCode() {
+        assertNull(QrPayload.parse(null));
+        assertNull(QrPayload.parse(""));
+        assertNull(QrPayload.parse("NAME:Иван Петров|DEPT:IT"));
+        assertNull(QrPayload.parse("PERSONAL_CODE:|NAME:Иван Петров"));
+        assertNull(QrPayload.parse("просто текст"));
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.mytestprojectmvc.service;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.qrcode.QRCodeReader;
+import com.google.zxing.qrcode.QRCodeWriter;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QrSvgWriterTest {
+
+    private static final String PAYLOAD =
+            "PERSONAL_CODE:EMP-1700000000-AB12|NAME:Иван Петров|DEPT:IT|AGE:34|POST:Инженер|TIMESTAMP:1700000000";
+
+    @Test
+    void svgRasterizedByBatikDecodesBackToPayload() throws Exception {
+        BitMatrix matrix = new QRCodeWriter().encode(PAYLOAD, BarcodeFormat.QR_CODE, 0, 0,
+                Map.of(EncodeHintType.CHARACTER_SET, "UTF-8", EncodeHintType.MARGIN, 1));
+
+        String svg = QrSvgWriter.toSvg(matrix, 300);
+        byte[] png = QrSvgWriter.rasterize(svg, 300);
+
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+        assertEquals(300, image.getWidth());
+        String decoded = new QRCodeReader().decode(
+                new BinaryBitmap(new HybridBinarizer(new BufferedImageLuminanceSource(image)))).getText();
+        assertEquals(PAYLOAD, decoded);
+    }
+
+    @Test
+    void mergesHorizontalRunsIntoOnePath() {
+        BitMatrix matrix = new BitMatrix(4, 2);
+        matrix.setRegion(0, 0, 3, 1);
+        matrix.set(3, 1);
+
+        String svg = QrSvgWriter.toSvg(matrix, 40);
+
+        assertTrue(svg.contains("viewBox=\"0 0 4 2\""));
+        assertTrue(svg.contains("d=\"M0 0.5h3m0 1h1\""));
+        String uri = QrSvgWriter.toDataUri(svg);
+        assertTrue(uri.startsWith("data:image/svg+xml,%3Csvg"));
+        assertFalse(uri.contains("\"") || uri.contains("#") || uri.contains("<"));
+    }
+}
@@ -0,0 +1,170 @@
+package org.example.mytestprojectmvc.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QrBlobSegmentStoreTest {
+
+    private static final long SEGMENT_SIZE = 4096;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void storesImageOncePerHashAndStreamsIt() throws Exception {
+        byte[] image = image(1, 700);
+        try (QrBlobSegmentStore store = QrBlobSegmentStore.open(directory, SEGMENT_SIZE, 16, Duration.ZERO)) {
+            assertTrue(store.put(hash(image), image));
+            assertFalse(store.put(hash(image), image));
+
+            assertArrayEquals(image, store.get(hash(image)));
+            assertNull(store.get(hash(image(2, 10))));
+            assertEquals(1, store.stats().images());
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            assertEquals(image.length, store.transferTo(hash(image), Channels.newChannel(out)));
+            assertArrayEquals(image, out.toByteArray());
+
+            QrImageRegion region = store.locate(hash(image));
+            assertEquals(image.length, region.length());
+            assertEquals(QrBlobSegmentStore.HEADER_BYTES, region.position());
+        }
+    }
+
+    @Test
+    void reopenRestoresIndexAndTruncatesTornTail() throws Exception {
+        List<byte[]> images = images(12, 900);
+        try (QrBlobSegmentStore store = QrBlobSegmentStore.open(directory, SEGMENT_SIZE, 16, Duration.ZERO)) {
+            for (byte[] image : images) {
+                store.put(hash(image), image);
+            }
+            assertTrue(store.stats().segments() > 1);
+        }
+
+        // Оборванная запись в конце последнего сегмента (сбой посреди записи)
+        Path last;
+        try (Stream<Path> files = Files.list(directory)) {
+            last = files.sorted().reduce((first, second) -> second).orElseThrow();
+        }
+        long validSize = Files.size(last);
+        try (FileChannel channel = FileChannel.open(last, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.allocate(20).putInt(QrBlobSegmentStore.MAGIC).putInt(500).flip());
+        }
+
+        try (QrBlobSegmentStore store = QrBlobSegmentStore.open(directory, SEGMENT_SIZE, 16, Duration.ZERO)) {
+            assertEquals(images.size(), store.stats().images());
+            for (byte[] image : images) {
+                assertArrayEquals(image, store.get(hash(image)));
+            }
+            assertEquals(validSize, Files.size(last));
+        }
+    }
+
+    @Test
+    void compactionDropsDeadImagesAndKeepsLiveOnes() throws Exception {
+        List<byte[]> images = images(20, 900);
+        Set<Long> live = IntStream.range(0, images.size())
+                .filter(i -> i % 4 == 0)
+                .mapToObj(i -> QrBlobSegmentStore.key(hash(images.get(i))))
+                .collect(Collectors.toSet());
+
+        try (QrBlobSegmentStore store = QrBlobSegmentStore.open(directory, SEGMENT_SIZE, 16, Duration.ZERO)) {
+            for (byte[] image : images) {
+                store.put(hash(image), image);
+            }
+            long bytesBefore = store.stats().bytes();
+
+            QrBlobSegmentStore.CompactionResult result = store.compact(live::contains, 0.5);
+
+            assertTrue(result.segmentsCompacted() > 0);
+            assertTrue(store.stats().bytes() < bytesBefore);
+            assertTrue(store.stats().images() < images.size());
+            assertNull(store.get(hash(images.get(1))));
+            for (int i = 0; i < images.size(); i += 4) {
+                assertArrayEquals(images.get(i), store.get(hash(images.get(i))));
+            }
+            // Без retiredGrace выведенные из оборота сегменты удаляются следующей компактацией
+            assertEquals(result.segmentsCompacted(), store.stats().retiredSegments());
+            QrBlobSegmentStore.CompactionResult next = store.compact(live::contains, 0.5);
+            assertEquals(next.segmentsCompacted(), store.stats().retiredSegments());
+            try (Stream<Path> files = Files.list(directory)) {
+                assertEquals(store.stats().segments() + next.segmentsCompacted(), files.count());
+            }
+        }
+
+        try (QrBlobSegmentStore store = QrBlobSegmentStore.open(directory, SEGMENT_SIZE, 16, Duration.ZERO)) {
+            for (int i = 0; i < images.size(); i += 4) {
+                assertArrayEquals(images.get(i), store.get(hash(images.get(i))));
+            }
+        }
+    }
+
+    @Test
+    void retiredSegmentOutlivesNextCompactionWithinGrace() throws Exception {
+        List<byte[]> images = images(20, 900);
+        byte[] kept = images.get(0);
+        Set<Long> live = Set.of(QrBlobSegmentStore.key(hash(kept)));
+
+        try (QrBlobSegmentStore store = QrBlobSegmentStore.open(directory, SEGMENT_SIZE, 16, Duration.ofHours(1))) {
+            for (byte[] image : images) {
+                store.put(hash(image), image);
+            }
+            QrImageRegion before = store.locate(hash(kept));
+
+            QrBlobSegmentStore.CompactionResult result = store.compact(live::contains, 0.5);
+            store.compact(live::contains, 0.5);
+
+            // Файл, выданный до компактации для sendfile, еще на месте
+            assertTrue(result.segmentsCompacted() > 0);
+            assertTrue(store.stats().retiredSegments() >= result.segmentsCompacted());
+            try (FileChannel channel = FileChannel.open(before.file(), StandardOpenOption.READ)) {
+                ByteBuffer data = ByteBuffer.allocate(before.length());
+                channel.read(data, before.position());
+                assertArrayEquals(kept, data.array());
+            }
+            assertArrayEquals(kept, store.get(hash(kept)));
+        }
+    }
+
+    private static List<byte[]> images(int count, int length) {
+        return IntStream.range(0, count).mapToObj(i -> image(i, length)).toList();
+    }
+
+    private static byte[] image(int seed, int length) {
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = (byte) (seed * 31 + i * 7);
+        }
+        return data;
+    }
+
+    private static String hash(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
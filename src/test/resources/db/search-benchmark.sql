@@ -0,0 +1,92 @@
+-- Бенчмарк поиска сотрудников (GET /employees/search/local) на сгенерированных данных.
+--
+-- Запуск на базе, где применены миграции Liquibase (нужны pg_trgm и колонки из 008-add-employee-search):
+--   psql -h localhost -U postgres -d employees_db -v rows=1000000 -f src/test/resources/db/search-benchmark.sql
+--
+-- Данные пишутся в отдельную таблицу employees_search_bench с той же структурой и индексами,
+-- что у employees; в конце она удаляется. Запросы повторяют EmployeeSearchRepository.
+
+\set ON_ERROR_STOP on
+\if :{?rows}
+\else
+    \set rows 1000000
+\endif
+\timing on
+
+DROP TABLE IF EXISTS employees_search_bench;
+CREATE TABLE employees_search_bench (LIKE employees INCLUDING ALL);
+
+INSERT INTO employees_search_bench (first_name, last_name, age, department, post, personal_code, created_at)
+SELECT (ARRAY['Иван', 'Петр', 'Анна', 'Мария', 'Олег', 'Елена', 'Дмитрий', 'Ольга', 'Сергей', 'Наталья',
+              'Alex', 'John', 'Maria', 'Kate', 'Michael', 'Sophia'])[1 + (g * 7) % 16],
+       (ARRAY['Иванов', 'Петров', 'Сидоров', 'Смирнов', 'Кузнецов', 'Попов', 'Васильев', 'Соколов',
+              'Smith', 'Johnson', 'Brown', 'Taylor'])[1 + (g * 13) % 12] || (g % 997)::TEXT,
+       20 + g % 45,
+       (ARRAY['IT', 'HR', 'Sales', 'Finance', 'Marketing', 'Support', 'Logistics', 'Legal'])[1 + g % 8],
+       (ARRAY['Developer', 'Manager', 'Analyst', 'Tester', 'Designer', 'Accountant'])[1 + (g * 5) % 6],
+       'EMP-' || g || '-' || upper(substr(md5(g::TEXT), 1, 8)),
+       now()
+FROM generate_series(1, :rows) AS g;
+
+VACUUM ANALYZE employees_search_bench;
+
+SELECT pg_size_pretty(pg_relation_size('employees_search_bench')) AS heap,
+       pg_size_pretty(pg_indexes_size('employees_search_bench')) AS indexes;
+
+-- Запрос из EmployeeSearchRepository без изменений, кроме имени таблицы и позиционных параметров:
+-- $1 :term - нормализованный запрос, $2 :tsQuery - префиксный tsquery (NULL, если слов нет),
+-- $3 :pattern - LIKE-шаблон (NULL для запросов короче 3 символов),
+-- $4 :candidateLimit - app.search.max-candidates + 1, $5 :limit, $6 :offset
+PREPARE employee_search(TEXT, TEXT, TEXT, INT, INT, BIGINT) AS
+SELECT c.id, c.personal_code, c.first_name, c.last_name, c.department, c.age, c.post,
+       count(*) OVER () AS total,
+       count(*) FILTER (WHERE NOT c.exact) OVER () AS similar,
+       CASE WHEN c.exact THEN 10 ELSE 0 END
+           + ts_rank(c.search_vector, coalesce(to_tsquery('simple', CAST($2 AS TEXT)), ''::tsquery))
+           + similarity(c.search_text, $1) AS rank
+FROM (SELECT id, personal_code, first_name, last_name, department, age, post,
+             search_text, search_vector, true AS exact
+      FROM employees_search_bench
+      WHERE personal_code = upper($1)
+      UNION ALL
+      (SELECT id, personal_code, first_name, last_name, department, age, post,
+              search_text, search_vector, false AS exact
+       FROM employees_search_bench
+       WHERE (search_vector @@ to_tsquery('simple', CAST($2 AS TEXT))
+              OR search_text LIKE CAST($3 AS TEXT))
+         AND personal_code <> upper($1)
+       LIMIT $4)
+) c
+ORDER BY rank DESC, c.id
+LIMIT $5 OFFSET $6;
+
+-- Личный код сотрудника 123457 целиком (с хэш-суффиксом), как его вводят в поиск
+SELECT lower(code) AS code,
+       replace(lower(code), '-', ':* & ') || ':*' AS code_ts,
+       '%' || lower(code) || '%' AS code_like
+FROM (SELECT 'EMP-123457-' || upper(substr(md5('123457'), 1, 8)) AS code) c
+\gset
+
+-- 1. Личный код
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF) EXECUTE employee_search(:'code', :'code_ts', :'code_like', 1001, 20, 0);
+
+-- 2. Фамилия и имя (префиксы слов в любом порядке)
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF) EXECUTE employee_search('смирнов42 петр', 'смирнов42:* & петр:*', '%смирнов42 петр%', 1001, 20, 0);
+
+-- 3. Подстрока внутри слова
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF) EXECUTE employee_search('ssiliev5', 'ssiliev5:*', '%ssiliev5%', 1001, 20, 0);
+
+-- 4-6. Широкие запросы: отдел (каждая 8-я строка), должности (каждая 6-я строка).
+-- Ранжируются первые 1001 совпадение из индекса; время не должно расти с числом совпадений
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF) EXECUTE employee_search('it', 'it:*', NULL, 1001, 20, 0);
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF) EXECUTE employee_search('manager', 'manager:*', '%manager%', 1001, 20, 0);
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF) EXECUTE employee_search('developer', 'developer:*', '%developer%', 1001, 20, 0);
+
+-- 7. Широкий запрос, последняя страница ранжированной выдачи
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF) EXECUTE employee_search('manager', 'manager:*', '%manager%', 1001, 20, 980);
+
+-- 8. Ничего не найдено
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF) EXECUTE employee_search('qwertyzz', 'qwertyzz:*', '%qwertyzz%', 1001, 20, 0);
+
+DEALLOCATE employee_search;
+DROP TABLE employees_search_bench;